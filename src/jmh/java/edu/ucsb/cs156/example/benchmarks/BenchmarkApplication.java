@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+
+/**
+ * The application as ExampleApplication configures it, except that the
+ * test-only beans (e.g. MockCurrentUserServiceImpl), which are on the
+ * benchmark classpath, are left out of the component scan. ExampleApplication
+ * itself is excluded too, since its own @ComponentScan would bring them back.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@AutoConfigurationPackage(basePackages = "edu.ucsb.cs156.example")
+@ComponentScan(basePackages = "edu.ucsb.cs156.example", excludeFilters = {
+    @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ExampleApplication.class),
+    @ComponentScan.Filter(type = FilterType.REGEX, pattern = "edu\\.ucsb\\.cs156\\.example\\.(testconfig|benchmarks)\\..*") })
+public class BenchmarkApplication {
+}
@@ -0,0 +1,109 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.entities.UcsbBuilding;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.ShoeRepository;
+import edu.ucsb.cs156.example.repositories.UcsbBuildingRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+/**
+ * Full request dispatch through MockMvc (security filters, the
+ * application's own filters, LoggingAspect, the controller, the repository
+ * and JSON serialization) against an in-memory H2 database seeded with
+ * rows entities of each type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class ControllerDispatchBenchmark {
+
+  @Param({ "10", "1000" })
+  int rows;
+
+  ConfigurableApplicationContext context;
+  MockMvc mockMvc;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = new SpringApplicationBuilder(BenchmarkApplication.class).run(
+        "--spring.profiles.active=benchmark",
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "--app.admission.enabled=false",
+        "--logging.level.root=WARN");
+
+    // ids are left at 0 so that the database assigns them
+    context.getBean(ShoeRepository.class).saveAll(Fixtures.list(rows, i -> {
+      Shoe shoe = Fixtures.shoe(i);
+      shoe.setId(0);
+      return shoe;
+    }));
+    context.getBean(UcsbBuildingRepository.class).saveAll(Fixtures.list(rows, i -> {
+      UcsbBuilding ucsbBuilding = Fixtures.ucsbBuilding(i);
+      ucsbBuilding.setId(0);
+      return ucsbBuilding;
+    }));
+    context.getBean(UserRepository.class).saveAll(Fixtures.list(rows, i -> {
+      User user = Fixtures.user(i);
+      user.setId(0);
+      return user;
+    }));
+
+    mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+        .apply(SecurityMockMvcConfigurers.springSecurity())
+        .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public String allShoes() throws Exception {
+    return mockMvc.perform(get("/api/shoes/all").with(user("bench").roles("USER")))
+        .andReturn().getResponse().getContentAsString();
+  }
+
+  @Benchmark
+  public String allUcsbBuildings() throws Exception {
+    return mockMvc.perform(get("/api/ucsbbuildings/all").with(user("bench").roles("USER")))
+        .andReturn().getResponse().getContentAsString();
+  }
+
+  @Benchmark
+  public String users() throws Exception {
+    return mockMvc.perform(get("/api/admin/users").with(user("bench").roles("ADMIN", "USER")))
+        .andReturn().getResponse().getContentAsString();
+  }
+}
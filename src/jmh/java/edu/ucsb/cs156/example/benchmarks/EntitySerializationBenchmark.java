@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import edu.ucsb.cs156.example.config.JacksonConfig;
+import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UcsbBuilding;
+import edu.ucsb.cs156.example.entities.User;
+
+/**
+ * Cost of turning the lists returned by the /all endpoints into JSON,
+ * with an ObjectMapper configured the way Spring Boot configures its own:
+ * with plain reflection, and with the BlackbirdModule that JacksonConfig
+ * registers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class EntitySerializationBenchmark {
+
+  @Param({ "1", "100", "1000" })
+  int rows;
+
+  @Param({ "reflection", "blackbird" })
+  String accessors;
+
+  ObjectMapper mapper;
+  List<Shoe> shoes;
+  List<UcsbBuilding> ucsbBuildings;
+  List<UCSBDate> ucsbDates;
+  List<UCSBDiningCommons> ucsbDiningCommons;
+  List<User> users;
+
+  @Setup
+  public void setup() {
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    if (accessors.equals("blackbird")) {
+      builder.modulesToInstall(new JacksonConfig().blackbirdModule());
+    }
+    mapper = builder.build();
+    shoes = Fixtures.list(rows, Fixtures::shoe);
+    ucsbBuildings = Fixtures.list(rows, Fixtures::ucsbBuilding);
+    ucsbDates = Fixtures.list(rows, Fixtures::ucsbDate);
+    ucsbDiningCommons = Fixtures.list(rows, Fixtures::ucsbDiningCommons);
+    users = Fixtures.list(rows, Fixtures::user);
+  }
+
+  @Benchmark
+  public byte[] shoes() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(shoes);
+  }
+
+  @Benchmark
+  public byte[] ucsbBuildings() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(ucsbBuildings);
+  }
+
+  @Benchmark
+  public byte[] ucsbDates() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(ucsbDates);
+  }
+
+  @Benchmark
+  public byte[] ucsbDiningCommons() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(ucsbDiningCommons);
+  }
+
+  @Benchmark
+  public String users() throws JsonProcessingException {
+    // UsersController.users() builds a String rather than bytes
+    return mapper.writeValueAsString(users);
+  }
+}
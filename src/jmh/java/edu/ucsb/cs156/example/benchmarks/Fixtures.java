@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UcsbBuilding;
+import edu.ucsb.cs156.example.entities.User;
+
+/**
+ * Deterministic entities for the benchmarks, so that runs on different
+ * builds serialize and store exactly the same data.
+ */
+public final class Fixtures {
+
+  private Fixtures() {
+  }
+
+  public static <T> List<T> list(int rows, IntFunction<T> factory) {
+    List<T> list = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      list.add(factory.apply(i));
+    }
+    return list;
+  }
+
+  public static Shoe shoe(int i) {
+    return Shoe.builder().id(i).name("Shoe " + i).color("Color " + (i % 12)).brand("Brand " + (i % 40)).build();
+  }
+
+  public static UcsbBuilding ucsbBuilding(int i) {
+    return UcsbBuilding.builder()
+        .id(i)
+        .name("Building " + i)
+        .description("Description of building " + i + " on the UCSB campus")
+        .architecture("Architect " + (i % 25))
+        .location("Lot " + (i % 60))
+        .build();
+  }
+
+  public static UCSBDate ucsbDate(int i) {
+    return UCSBDate.builder()
+        .id(i)
+        .quarterYYYYQ("20" + (20 + i % 5) + (1 + i % 4))
+        .name("Date " + i)
+        .localDateTime(LocalDateTime.of(2022, 1, 1, 0, 0).plusHours(i))
+        .build();
+  }
+
+  public static UCSBDiningCommons ucsbDiningCommons(int i) {
+    return UCSBDiningCommons.builder()
+        .code("commons" + i)
+        .name("Dining Commons " + i)
+        .hasSackMeal(i % 2 == 0)
+        .hasTakeOutMeal(i % 3 == 0)
+        .hasDiningCam(i % 5 == 0)
+        .latitude(34.41 + i * 0.0001)
+        .longitude(-119.85 - i * 0.0001)
+        .build();
+  }
+
+  public static User user(int i) {
+    return User.builder()
+        .id(i)
+        .email("user" + i + "@ucsb.edu")
+        .googleSub("sub" + i)
+        .pictureUrl("https://example.org/user" + i + ".jpg")
+        .fullName("User Number" + i)
+        .givenName("User")
+        .familyName("Number" + i)
+        .emailVerified(true)
+        .locale("en")
+        .hostedDomain("ucsb.edu")
+        .admin(i % 50 == 0)
+        .build();
+  }
+}
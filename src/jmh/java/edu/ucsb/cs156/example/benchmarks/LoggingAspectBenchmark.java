@@ -0,0 +1,87 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import edu.ucsb.cs156.example.aop.LoggingAspect;
+
+/**
+ * Overhead LoggingAspect adds to every controller call: a direct call
+ * versus the same call through an AOP proxy with the aspect applied.
+ *
+ * The aspect's logger is turned off so the numbers measure the advice
+ * itself (pointcut match, request lookup, message formatting) rather than
+ * the console appender.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+  public static class Handler {
+    @GetMapping("/api/shoes/all")
+    public String allShoes() {
+      return "ok";
+    }
+  }
+
+  @Param({ "false", "true" })
+  boolean inRequest;
+
+  Handler direct;
+  Handler proxied;
+
+  @Setup
+  public void setup() {
+    ((Logger) LoggerFactory.getLogger(LoggingAspect.class)).setLevel(Level.OFF);
+
+    direct = new Handler();
+    AspectJProxyFactory factory = new AspectJProxyFactory(new Handler());
+    factory.setProxyTargetClass(true);
+    factory.addAspect(new LoggingAspect());
+    proxied = factory.getProxy();
+
+    if (inRequest) {
+      RequestContextHolder.setRequestAttributes(
+          new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/shoes/all")));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Benchmark
+  public String direct() {
+    return direct.allShoes();
+  }
+
+  @Benchmark
+  public String withAspect() {
+    return proxied.allShoes();
+  }
+}
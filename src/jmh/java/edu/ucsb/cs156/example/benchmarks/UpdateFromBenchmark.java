@@ -0,0 +1,76 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.entities.Dog;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.Shoe;
+
+/**
+ * The field copies the PUT endpoints do with updateFrom.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateFromBenchmark {
+
+  Shoe shoe;
+  Shoe incomingShoe;
+  Book book;
+  Book incomingBook;
+  Dog dog;
+  Dog incomingDog;
+  Restaurant restaurant;
+  Restaurant incomingRestaurant;
+
+  @Setup
+  public void setup() {
+    shoe = Fixtures.shoe(1);
+    incomingShoe = Fixtures.shoe(2);
+    book = Book.builder().id(1).title("Title 1").author("Author 1").year("2001").build();
+    incomingBook = Book.builder().title("Title 2").author("Author 2").year("2002").build();
+    dog = Dog.builder().name("Annie").breed("Husky").gender("Female").build();
+    incomingDog = Dog.builder().name("Annie").breed("Corgi").gender("Female").build();
+    restaurant = Restaurant.builder().id(1).name("Freebirds").description("Burritos").build();
+    incomingRestaurant = Restaurant.builder().name("Freebirds").description("Late night burritos").build();
+  }
+
+  @Benchmark
+  public Shoe shoe() {
+    shoe.updateFrom(incomingShoe);
+    return shoe;
+  }
+
+  @Benchmark
+  public Book book() {
+    book.updateFrom(incomingBook);
+    return book;
+  }
+
+  @Benchmark
+  public Dog dog() {
+    dog.updateFrom(incomingDog);
+    return dog;
+  }
+
+  @Benchmark
+  public Restaurant restaurant() {
+    restaurant.updateFrom(incomingRestaurant);
+    return restaurant;
+  }
+}
@@ -0,0 +1,65 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histograms per operation (e.g. "PUT /api/shoes") plus a total.
+ *
+ * Two times are kept for each request. Response time runs from when the
+ * request was scheduled to be sent to when its response arrived, so a
+ * stall in the server (or in the load generator) is charged to every
+ * request that should have been sent during it; this is the
+ * coordinated-omission-corrected number. Service time runs from when it
+ * was actually sent, which is what a closed-loop tool would report.
+ */
+class LatencyRecorder {
+
+  static final String TOTAL = "ALL";
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+  static class Stats {
+    final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    final Map<String, LongAdder> outcomes = new ConcurrentSkipListMap<>();
+    final LongAdder errors = new LongAdder();
+
+    void record(long responseMicros, long serviceMicros, String outcome, boolean error) {
+      responseTime.recordValue(Math.min(responseMicros, HIGHEST_TRACKABLE_MICROS));
+      serviceTime.recordValue(Math.min(serviceMicros, HIGHEST_TRACKABLE_MICROS));
+      outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+      if (error) {
+        errors.increment();
+      }
+    }
+  }
+
+  private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+  /**
+   * @param outcome the HTTP status, or the exception class if there was no response
+   */
+  void record(String label, long intendedStartNanos, long sentNanos, long endNanos, String outcome,
+      boolean error) {
+    long responseMicros = TimeUnit.NANOSECONDS.toMicros(endNanos - intendedStartNanos);
+    long serviceMicros = TimeUnit.NANOSECONDS.toMicros(endNanos - sentNanos);
+    stats.computeIfAbsent(label, k -> new Stats()).record(responseMicros, serviceMicros, outcome, error);
+    stats.computeIfAbsent(TOTAL, k -> new Stats()).record(responseMicros, serviceMicros, outcome, error);
+  }
+
+  /** Sorted by label, with the total first. */
+  Map<String, Stats> snapshot() {
+    Map<String, Stats> sorted = new TreeMap<>((a, b) -> a.equals(b) ? 0
+        : a.equals(TOTAL) ? -1 : b.equals(TOTAL) ? 1 : a.compareTo(b));
+    sorted.putAll(stats);
+    return sorted;
+  }
+}
@@ -0,0 +1,226 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.loadtest.Workload.Op;
+import edu.ucsb.cs156.example.loadtest.Workload.Request;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.services.DataGeneratorService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open-loop HTTP load test against the whole application, in one JVM.
+ *
+ * Boots LoadTestApplication on a random port with an in-memory H2
+ * database, seeds every selected table with loadtest.rows rows, then sends
+ * requests at a fixed arrival rate (loadtest.rate per second) drawn from
+ * the operation mix, regardless of how quickly responses come back.
+ * Latencies are measured from when each request was due, not when it was
+ * sent, so they are corrected for coordinated omission. Writes
+ * report.json and report.html to loadtest.output; see docs/load-testing.md.
+ *
+ * All options are Spring properties, so they can be given as --name=value
+ * arguments, and any other application property can be overridden the same
+ * way (e.g. --app.admission.enabled=true).
+ */
+@Slf4j
+public class LoadTest {
+
+  // defaults for the application under test; given as arguments, so that
+  // they win over application-development.properties, unless overridden
+  private static final Map<String, String> DEFAULTS = Map.of(
+      "spring.profiles.active", "development",
+      "spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+      "spring.h2.console.enabled", "false",
+      "server.port", "0",
+      "app.admission.enabled", "false",
+      "logging.level.root", "WARN",
+      "logging.level.sql", "WARN",
+      "logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN",
+      "logging.level.edu.ucsb.cs156.example.loadtest", "INFO");
+
+  public static void main(String[] args) throws Exception {
+    // a restart classloader would only get in the way here
+    System.setProperty("spring.devtools.restart.enabled", "false");
+
+    List<String> arguments = new ArrayList<>(List.of(args));
+    DEFAULTS.forEach((name, value) -> {
+      if (arguments.stream().noneMatch(arg -> arg.startsWith("--" + name + "="))) {
+        arguments.add("--" + name + "=" + value);
+      }
+    });
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(LoadTestApplication.class)
+        .run(arguments.toArray(new String[0]));
+    int exitCode;
+    try {
+      exitCode = new LoadTest(context).run();
+    } finally {
+      context.close();
+    }
+    System.exit(exitCode);
+  }
+
+  private final ConfigurableApplicationContext context;
+  private final Environment env;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  LoadTest(ConfigurableApplicationContext context) {
+    this.context = context;
+    this.env = context.getEnvironment();
+  }
+
+  int run() throws IOException, InterruptedException {
+    double rate = env.getProperty("loadtest.rate", Double.class, 100.0);
+    long durationSeconds = env.getProperty("loadtest.durationSeconds", Long.class, 30L);
+    long warmupSeconds = env.getProperty("loadtest.warmupSeconds", Long.class, 10L);
+    int rows = env.getProperty("loadtest.rows", Integer.class, 1000);
+    long seed = env.getProperty("loadtest.seed", Long.class, 1L);
+    String mix = env.getProperty("loadtest.mix", "GET:60,LIST:5,POST:15,PUT:15,DELETE:5");
+    int maxInFlight = env.getProperty("loadtest.maxInFlight", Integer.class, 2000);
+    Duration timeout = Duration.ofSeconds(env.getProperty("loadtest.timeoutSeconds", Long.class, 30L));
+    Path output = Path.of(env.getProperty("loadtest.output", "target/loadtest"));
+    List<Workload.Entity> entities = Workload.select(env.getProperty("loadtest.entities", "all"));
+    Map<Op, Integer> weights = Workload.parseMix(mix);
+
+    seed(entities, rows, seed);
+
+    URI base = URI.create("http://localhost:" + env.getProperty("local.server.port") + "/");
+    Workload workload = new Workload(base, entities, rows, weights, timeout);
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    LatencyRecorder recorder = new LatencyRecorder();
+
+    log.info("load test: {} req/s for {}s after {}s warmup, {} rows per table, mix {}", rate, durationSeconds,
+        warmupSeconds, rows, mix);
+
+    Instant startedAt = Instant.now();
+    long sent = drive(client, workload, recorder, new SplittableRandom(seed), rate,
+        TimeUnit.SECONDS.toNanos(warmupSeconds), TimeUnit.SECONDS.toNanos(durationSeconds), maxInFlight, timeout);
+
+    LoadTestReport report = new LoadTestReport(mapper);
+    report.put("label", env.getProperty("loadtest.label", ""));
+    report.put("startedAt", startedAt.toString());
+    report.put("javaVersion", Runtime.version().toString());
+    report.put("config", Map.of(
+        "rate", rate,
+        "durationSeconds", durationSeconds,
+        "warmupSeconds", warmupSeconds,
+        "rows", rows,
+        "seed", seed,
+        "mix", mix,
+        "entities", entities.stream().map(e -> e.name).collect(Collectors.toList())));
+    report.put("requestsSent", sent);
+    report.operations(recorder.snapshot(), durationSeconds);
+    report.write(output, env.getProperty("loadtest.baseline"));
+    log.info("report written to {}", output.toAbsolutePath());
+
+    return recorder.snapshot().get(LatencyRecorder.TOTAL).errors.sum() == 0 ? 0 : 1;
+  }
+
+  private void seed(List<Workload.Entity> entities, int rows, long seed) {
+    DataGeneratorService generator = context.getBean(DataGeneratorService.class);
+    for (Workload.Entity entity : entities) {
+      if (entity.name.equals("ucsbdiningcommons")) {
+        // not something DataGeneratorService knows about
+        context.getBean(UCSBDiningCommonsRepository.class).saveAll(IntStream.range(0, rows)
+            .mapToObj(i -> UCSBDiningCommons.builder().code(entity.seededKey.apply(i)).name("Commons " + i)
+                .latitude(34.4).longitude(-119.8).build())
+            .collect(Collectors.toList()));
+      } else {
+        generator.generate(entity.name, rows, seed, 1000, true);
+      }
+    }
+  }
+
+  /**
+   * Sends requests on a fixed schedule from this thread. If the server
+   * falls behind by maxInFlight requests, sending pauses, but the pause is
+   * still charged to the requests that were due during it.
+   *
+   * @return the number of requests sent, warmup included
+   */
+  private long drive(HttpClient client, Workload workload, LatencyRecorder recorder, SplittableRandom random,
+      double rate, long warmupNanos, long durationNanos, int maxInFlight, Duration timeout)
+      throws InterruptedException {
+    long intervalNanos = (long) (1_000_000_000L / rate);
+    Semaphore inFlight = new Semaphore(maxInFlight);
+    AtomicLong outstanding = new AtomicLong();
+
+    long start = System.nanoTime();
+    long measureFrom = start + warmupNanos;
+    long end = measureFrom + durationNanos;
+    long sent = 0;
+
+    for (long due = start; due < end; due = start + sent * intervalNanos) {
+      long wait = due - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+        continue;
+      }
+      inFlight.acquire();
+      sent++;
+      outstanding.incrementAndGet();
+
+      Request request = workload.next(random);
+      long intendedStart = due;
+      boolean measured = due >= measureFrom;
+      long sentAt = System.nanoTime();
+      client.sendAsync(request.httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+          .whenComplete((response, error) -> {
+            long now = System.nanoTime();
+            try {
+              int status = response == null ? 0 : response.statusCode();
+              workload.completed(request, status, status / 100 == 2 ? readTree(request, response.body()) : null);
+              if (measured) {
+                String outcome = error != null ? error.getClass().getSimpleName() : Integer.toString(status);
+                recorder.record(request.label(), intendedStart, sentAt, now, outcome, status / 100 != 2);
+              }
+            } finally {
+              inFlight.release();
+              outstanding.decrementAndGet();
+            }
+          });
+    }
+
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    return sent;
+  }
+
+  private JsonNode readTree(Request request, byte[] body) {
+    if (request.op != Op.POST) {
+      return null;
+    }
+    try {
+      return mapper.readTree(body);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * The application as ExampleApplication configures it, but with
+ * MockCurrentUserServiceImpl in place of CurrentUserServiceImpl, and with
+ * every request authenticated as a user with ROLE_USER and ROLE_ADMIN so
+ * that the load generator does not need to go through Google OAuth.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@AutoConfigurationPackage(basePackages = "edu.ucsb.cs156.example")
+@ComponentScan(basePackages = "edu.ucsb.cs156.example", excludeFilters = {
+    @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = { ExampleApplication.class, TestConfig.class }),
+    @ComponentScan.Filter(type = FilterType.REGEX, pattern = {
+        "edu\\.ucsb\\.cs156\\.example\\.services\\.CurrentUserServiceImpl",
+        "edu\\.ucsb\\.cs156\\.example\\.(benchmarks|loadtest)\\..*" }) })
+public class LoadTestApplication {
+
+  @Bean
+  public FilterRegistrationBean<LoadTestAuthenticationFilter> loadTestAuthenticationFilter() {
+    FilterRegistrationBean<LoadTestAuthenticationFilter> registration =
+        new FilterRegistrationBean<>(new LoadTestAuthenticationFilter());
+    // inside the Spring Security filter chain's request, so @PreAuthorize sees it
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+    registration.addUrlPatterns("/api/*");
+    return registration;
+  }
+}
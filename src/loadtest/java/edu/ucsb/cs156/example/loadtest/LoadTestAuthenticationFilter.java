@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates every request as the "loadtest" user. It runs after the
+ * Spring Security filter chain has loaded the (empty) session context, and
+ * restores that context afterwards.
+ */
+class LoadTestAuthenticationFilter extends OncePerRequestFilter {
+
+  private static final List<GrantedAuthority> AUTHORITIES = List.of(
+      new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    SecurityContext previous = SecurityContextHolder.getContext();
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    User user = new User("loadtest", "", AUTHORITIES);
+    context.setAuthentication(new UsernamePasswordAuthenticationToken(user, null, AUTHORITIES));
+    SecurityContextHolder.setContext(context);
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      SecurityContextHolder.setContext(previous);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * report.json (everything, including the encoded histograms, so that runs
+ * can be merged or re-analysed later) and report.html (a summary table,
+ * with the change from a baseline report.json if one is given).
+ */
+class LoadTestReport {
+
+  private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+  private final ObjectMapper mapper;
+  private final Map<String, Object> report = new LinkedHashMap<>();
+
+  LoadTestReport(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  void put(String key, Object value) {
+    report.put(key, value);
+  }
+
+  void operations(Map<String, LatencyRecorder.Stats> stats, long durationSeconds) {
+    Map<String, Object> operations = new LinkedHashMap<>();
+    stats.forEach((label, s) -> {
+      Map<String, Object> operation = new LinkedHashMap<>();
+      operation.put("count", s.responseTime.getTotalCount());
+      operation.put("throughput", (double) s.responseTime.getTotalCount() / durationSeconds);
+      operation.put("errors", s.errors.sum());
+      Map<String, Long> outcomes = new LinkedHashMap<>();
+      s.outcomes.forEach((outcome, count) -> outcomes.put(outcome, count.sum()));
+      operation.put("outcomes", outcomes);
+      operation.put("responseTimeMicros", summary(s.responseTime));
+      operation.put("serviceTimeMicros", summary(s.serviceTime));
+      operation.put("responseTimeHistogram", encode(s.responseTime));
+      operation.put("serviceTimeHistogram", encode(s.serviceTime));
+      operations.put(label, operation);
+    });
+    report.put("operations", operations);
+  }
+
+  void write(Path directory, String baselinePath) throws IOException {
+    Files.createDirectories(directory);
+    mapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(directory.resolve("report.json").toFile(), report);
+
+    JsonNode current = mapper.valueToTree(report);
+    JsonNode baseline = baselinePath == null ? null : mapper.readTree(Path.of(baselinePath).toFile());
+    Files.writeString(directory.resolve("report.html"), html(current, baseline));
+  }
+
+  private static Map<String, Object> summary(Histogram histogram) {
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("mean", Math.round(histogram.getMean()));
+    for (double percentile : PERCENTILES) {
+      summary.put(key(percentile), histogram.getValueAtPercentile(percentile));
+    }
+    summary.put("max", histogram.getMaxValue());
+    return summary;
+  }
+
+  private static String key(double percentile) {
+    return "p" + (percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile));
+  }
+
+  private static String encode(Histogram histogram) {
+    ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+    int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+    return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+  }
+
+  private static String html(JsonNode current, JsonNode baseline) {
+    StringBuilder html = new StringBuilder();
+    html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Load test</title>\n")
+        .append("<style>body{font-family:sans-serif}table{border-collapse:collapse}")
+        .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}td:first-child{text-align:left}")
+        .append(".worse{color:#b00}.better{color:#070}</style></head><body>\n")
+        .append("<h1>Load test ").append(escape(current.path("label").asText())).append("</h1>\n")
+        .append("<p>").append(escape(current.path("startedAt").asText())).append(", Java ")
+        .append(escape(current.path("javaVersion").asText())).append("<br>")
+        .append(escape(current.path("config").toString())).append("</p>\n");
+    if (baseline != null) {
+      html.append("<p>Compared with ").append(escape(baseline.path("label").asText())).append(" (")
+          .append(escape(baseline.path("startedAt").asText())).append(")</p>\n");
+    }
+    html.append("<p>Response time is measured from when each request was due to be sent (corrected for ")
+        .append("coordinated omission); service time from when it was actually sent. Times in ms.</p>\n")
+        .append("<table><tr><th>operation</th><th>count</th><th>req/s</th><th>errors</th><th>outcomes</th>");
+    for (double percentile : PERCENTILES) {
+      html.append("<th>response ").append(key(percentile)).append("</th>");
+    }
+    html.append("<th>response max</th><th>service p50</th><th>service p99</th></tr>\n");
+
+    current.path("operations").fields().forEachRemaining(entry -> {
+      JsonNode op = entry.getValue();
+      JsonNode base = baseline == null ? null : baseline.path("operations").get(entry.getKey());
+      html.append("<tr><td>").append(escape(entry.getKey())).append("</td>")
+          .append("<td>").append(op.path("count").asLong()).append("</td>")
+          .append("<td>").append(String.format("%.1f", op.path("throughput").asDouble())).append("</td>")
+          .append("<td>").append(op.path("errors").asLong()).append("</td>")
+          .append("<td>").append(escape(op.path("outcomes").toString())).append("</td>");
+      for (double percentile : PERCENTILES) {
+        cell(html, op, base, "responseTimeMicros", key(percentile));
+      }
+      cell(html, op, base, "responseTimeMicros", "max");
+      cell(html, op, base, "serviceTimeMicros", "p50");
+      cell(html, op, base, "serviceTimeMicros", "p99");
+      html.append("</tr>\n");
+    });
+    return html.append("</table>\n</body></html>\n").toString();
+  }
+
+  private static void cell(StringBuilder html, JsonNode op, JsonNode base, String times, String key) {
+    long micros = op.path(times).path(key).asLong();
+    html.append("<td>").append(String.format("%.2f", micros / 1000.0));
+    if (base != null && base.path(times).has(key)) {
+      long baseMicros = base.path(times).path(key).asLong();
+      if (baseMicros > 0) {
+        double change = 100.0 * (micros - baseMicros) / baseMicros;
+        html.append(" <span class=\"").append(change > 0 ? "worse" : "better").append("\">")
+            .append(String.format("%+.0f%%", change)).append("</span>");
+      }
+    }
+    html.append("</td>");
+  }
+
+  private static String escape(String text) {
+    return HtmlUtils.htmlEscape(text);
+  }
+}
@@ -0,0 +1,230 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The requests the load generator sends: for each entity controller, what
+ * GET (one row), LIST (/all), POST, PUT and DELETE look like.
+ *
+ * GET and PUT address the rows loaded before the run, so they always hit.
+ * DELETE only removes rows that POSTs made during the run, and turns into a
+ * POST while there are none, so the seeded table stays the same size.
+ */
+class Workload {
+
+  enum Op {
+    GET, LIST, POST, PUT, DELETE
+  }
+
+  /** How to talk to one entity controller. */
+  static class Entity {
+    final String name;
+    final String keyParam;
+    final IntFunction<String> seededKey;
+    final ParamsFactory postParams;
+    final BodyFactory putBody;
+    final ConcurrentLinkedQueue<String> created = new ConcurrentLinkedQueue<>();
+
+    Entity(String name, String keyParam, IntFunction<String> seededKey, ParamsFactory postParams,
+        BodyFactory putBody) {
+      this.name = name;
+      this.keyParam = keyParam;
+      this.seededKey = seededKey;
+      this.postParams = postParams;
+      this.putBody = putBody;
+    }
+
+    String path() {
+      return "/api/" + name;
+    }
+  }
+
+  @FunctionalInterface
+  interface ParamsFactory {
+    Map<String, String> create(SplittableRandom random, long n);
+  }
+
+  @FunctionalInterface
+  interface BodyFactory {
+    String create(SplittableRandom random, String key);
+  }
+
+  /** One request to send, and what it was, for the report. */
+  static class Request {
+    final Entity entity;
+    final Op op;
+    final HttpRequest httpRequest;
+
+    Request(Entity entity, Op op, HttpRequest httpRequest) {
+      this.entity = entity;
+      this.op = op;
+      this.httpRequest = httpRequest;
+    }
+
+    String label() {
+      return op + " " + entity.path();
+    }
+  }
+
+  static final List<Entity> ENTITIES = List.of(
+      new Entity("shoes", "id", i -> Long.toString(i + 1),
+          (r, n) -> params("name", "Load shoe " + n, "color", "Red", "brand", "Brand " + r.nextInt(40)),
+          (r, key) -> "{\"name\":\"Shoe %s\",\"color\":\"Blue\",\"brand\":\"Brand %d\"}".formatted(key, r.nextInt(40))),
+      new Entity("books", "id", i -> Long.toString(i + 1),
+          (r, n) -> params("title", "Load book " + n, "author", "Author " + r.nextInt(500), "year", "1999"),
+          (r, key) -> "{\"title\":\"Book %s\",\"author\":\"Author %d\",\"year\":\"2001\"}".formatted(key, r.nextInt(500))),
+      new Entity("dogs", "name", i -> "Dog " + i,
+          (r, n) -> params("name", "Load dog " + n, "breed", "Beagle", "gender", r.nextBoolean() ? "Male" : "Female"),
+          (r, key) -> "{\"name\":\"%s\",\"breed\":\"Husky\",\"gender\":\"Female\"}".formatted(key)),
+      new Entity("games", "name", i -> "Game " + i,
+          (r, n) -> params("name", "Load game " + n, "publisher", "Publisher " + r.nextInt(50), "rating", "E"),
+          (r, key) -> "{\"name\":\"%s\",\"publisher\":\"Publisher %d\",\"rating\":\"T\"}".formatted(key, r.nextInt(50))),
+      new Entity("Restaurant", "id", i -> Long.toString(i + 1),
+          (r, n) -> params("name", "Load restaurant " + n, "description", "Tacos"),
+          (r, key) -> "{\"name\":\"Restaurant %s\",\"description\":\"Sushi\"}".formatted(key)),
+      new Entity("ucsbbuildings", "id", i -> Long.toString(i + 1),
+          (r, n) -> params("name", "Load hall " + n, "description", "Offices", "architecture", "Architect",
+              "location", "Lot " + r.nextInt(60)),
+          (r, key) -> ("{\"name\":\"Hall %s\",\"description\":\"Labs\",\"architecture\":\"Architect\","
+              + "\"location\":\"Lot %d\"}").formatted(key, r.nextInt(60))),
+      new Entity("ucsbdates", "id", i -> Long.toString(i + 1),
+          (r, n) -> params("quarterYYYYQ", "20224", "name", "Load day " + n,
+              "localDateTime", "2022-0%d-15T12:00:00".formatted(1 + r.nextInt(9))),
+          (r, key) -> "{\"quarterYYYYQ\":\"20231\",\"name\":\"Day %s\",\"localDateTime\":\"2023-01-15T12:00:00\"}"
+              .formatted(key)),
+      new Entity("ucsbdiningcommons", "code", i -> "dc" + i,
+          (r, n) -> params("code", "load" + n, "name", "Load commons " + n, "hasSackMeal", "true",
+              "hasTakeOutMeal", "false", "hasDiningCam", "true", "latitude", "34.41", "longitude", "-119.85"),
+          (r, key) -> ("{\"code\":\"%s\",\"name\":\"Commons %s\",\"hasSackMeal\":false,\"hasTakeOutMeal\":true,"
+              + "\"hasDiningCam\":false,\"latitude\":34.4,\"longitude\":-119.8}").formatted(key, key)));
+
+  private final URI base;
+  private final List<Entity> entities;
+  private final int seededRows;
+  private final Op[] opTable;
+  private final Duration timeout;
+  private final AtomicLong posts = new AtomicLong();
+
+  /**
+   * @param mix relative weights, e.g. {GET=60, LIST=5, POST=15, PUT=15, DELETE=5}
+   */
+  Workload(URI base, List<Entity> entities, int seededRows, Map<Op, Integer> mix, Duration timeout) {
+    this.base = base;
+    this.entities = entities;
+    this.seededRows = seededRows;
+    this.timeout = timeout;
+    List<Op> table = new ArrayList<>();
+    mix.forEach((op, weight) -> {
+      for (int i = 0; i < weight; i++) {
+        table.add(op);
+      }
+    });
+    if (table.isEmpty()) {
+      throw new IllegalArgumentException("the operation mix has no weight");
+    }
+    this.opTable = table.toArray(new Op[0]);
+  }
+
+  static Map<Op, Integer> parseMix(String mix) {
+    Map<Op, Integer> weights = new LinkedHashMap<>();
+    for (String part : mix.split(",")) {
+      String[] opAndWeight = part.trim().split(":");
+      weights.put(Op.valueOf(opAndWeight[0].trim().toUpperCase()), Integer.parseInt(opAndWeight[1].trim()));
+    }
+    return weights;
+  }
+
+  static List<Entity> select(String names) {
+    if (names == null || names.isBlank() || names.equals("all")) {
+      return ENTITIES;
+    }
+    List<String> wanted = List.of(names.split(","));
+    List<Entity> selected = ENTITIES.stream().filter(e -> wanted.contains(e.name)).collect(Collectors.toList());
+    if (selected.size() != wanted.size()) {
+      throw new IllegalArgumentException("unknown entity in %s; known: %s".formatted(names,
+          ENTITIES.stream().map(e -> e.name).collect(Collectors.joining(","))));
+    }
+    return selected;
+  }
+
+  /** Called only from the dispatcher thread, so random needs no locking. */
+  Request next(SplittableRandom random) {
+    Entity entity = entities.get(random.nextInt(entities.size()));
+    Op op = opTable[random.nextInt(opTable.length)];
+    String seeded = entity.seededKey.apply(random.nextInt(seededRows));
+
+    switch (op) {
+      case GET:
+        return request(entity, op, builder(entity.path(), Map.of(entity.keyParam, seeded)).GET());
+      case LIST:
+        return request(entity, op, builder(entity.path() + "/all", Map.of()).GET());
+      case PUT:
+        return request(entity, op, builder(entity.path(), Map.of(entity.keyParam, seeded))
+            .header("Content-Type", "application/json")
+            .PUT(BodyPublishers.ofString(entity.putBody.create(random, seeded))));
+      case DELETE:
+        String key = entity.created.poll();
+        if (key != null) {
+          return request(entity, op, builder(entity.path(), Map.of(entity.keyParam, key)).DELETE());
+        }
+        // nothing of ours to delete yet
+        return post(entity, random);
+      default:
+        return post(entity, random);
+    }
+  }
+
+  /** Remembers what a POST created so that a later DELETE can remove it. */
+  void completed(Request request, int status, JsonNode body) {
+    if (request.op == Op.POST && status / 100 == 2 && body != null) {
+      JsonNode key = body.get(request.entity.keyParam);
+      if (key != null) {
+        request.entity.created.add(key.asText());
+      }
+    }
+  }
+
+  private Request post(Entity entity, SplittableRandom random) {
+    Map<String, String> params = entity.postParams.create(random, posts.incrementAndGet());
+    return request(entity, Op.POST, builder(entity.path() + "/post", params).POST(BodyPublishers.noBody()));
+  }
+
+  private Request request(Entity entity, Op op, HttpRequest.Builder builder) {
+    return new Request(entity, op, builder.build());
+  }
+
+  private HttpRequest.Builder builder(String path, Map<String, String> params) {
+    StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+    params.forEach((k, v) -> query.add(k + "=" + URLEncoder.encode(v, StandardCharsets.UTF_8)));
+    // CookieCsrfTokenRepository only checks that the header matches the cookie
+    return HttpRequest.newBuilder(base.resolve(path + query))
+        .timeout(timeout)
+        .header("Cookie", "XSRF-TOKEN=loadtest")
+        .header("X-XSRF-TOKEN", "loadtest");
+  }
+
+  private static Map<String, String> params(String... keysAndValues) {
+    Map<String, String> params = new LinkedHashMap<>();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      params.put(keysAndValues[i], keysAndValues[i + 1]);
+    }
+    return params;
+  }
+}
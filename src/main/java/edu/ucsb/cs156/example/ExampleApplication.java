@@ -2,12 +2,19 @@ package edu.ucsb.cs156.example;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ExampleApplication {
 
+  // enough for every bean and then some; later steps are dropped
+  private static final int STARTUP_STEPS = 10_000;
+
   public static void main(String[] args) {
-    SpringApplication.run(ExampleApplication.class, args);
+    SpringApplication application = new SpringApplication(ExampleApplication.class);
+    // records how long each startup step took, for /api/admin/startup
+    application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+    application.run(args);
   }
 
 }
@@ -0,0 +1,70 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import edu.ucsb.cs156.example.instrumentation.TimedJackson2HttpMessageConverter;
+
+/**
+ * Lets API clients exchange CBOR (application/cbor) or Smile
+ * (application/x-jackson-smile) instead of JSON: Accept for the response,
+ * Content-Type for a request body. The objects are the same and so is the
+ * Jackson configuration, only the encoding differs; binary is smaller and
+ * takes less CPU to write and to parse, which matters for the internal
+ * services that call the API in bulk.
+ *
+ * JSON stays the default: the binary converters come after the JSON one,
+ * so they are only picked when asked for by name, never for a wildcard
+ * Accept. Turned off with app.binaryFormats.enabled=false.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "app.binaryFormats.enabled", havingValue = "true", matchIfMissing = true)
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+  public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+  public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+  // prototype scoped, so each call is a new builder with Spring Boot's settings
+  @Autowired
+  ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+  @Value("${app.requestStatistics.enabled:true}")
+  private boolean requestStatisticsEnabled;
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    // Spring adds its own when the dataformats are on the classpath, but without Spring Boot's settings
+    converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+        || converter instanceof MappingJackson2SmileHttpMessageConverter);
+    int json = converters.size() - 1;
+    while (json >= 0 && !(converters.get(json) instanceof MappingJackson2HttpMessageConverter)) {
+      json--;
+    }
+    ObjectMapper cbor = objectMapperBuilder.getObject().factory(new CBORFactory()).build();
+    ObjectMapper smile = objectMapperBuilder.getObject().factory(new SmileFactory()).build();
+    // timed like the JSON converter (see InstrumentationConfig), unless request statistics are off
+    converters.add(json + 1, requestStatisticsEnabled
+        ? new TimedJackson2HttpMessageConverter(cbor, CBOR)
+        : new MappingJackson2CborHttpMessageConverter(cbor));
+    converters.add(json + 2, requestStatisticsEnabled
+        ? new TimedJackson2HttpMessageConverter(smile, SMILE)
+        : new MappingJackson2SmileHttpMessageConverter(smile));
+  }
+}
@@ -0,0 +1,101 @@
+package edu.ucsb.cs156.example.config;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Checks the spring.datasource.hikari.* sizing for the active profile
+ * before the pool starts, and refuses to start with settings that HikariCP
+ * would otherwise quietly replace with its defaults, or that would exceed
+ * the database's connection budget (app.datasource.maxConnections, the
+ * connections this instance may use).
+ *
+ * The pool itself is reported by actuator as hikaricp.connections.*
+ * (active, idle, pending, acquire, timeout, usage) under /actuator/metrics.
+ */
+
+@Configuration
+public class ConnectionPoolConfig {
+
+  @Bean
+  public static BeanPostProcessor connectionPoolValidator(Environment environment) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource dataSource) {
+          HikariDataSource hikari = unwrap(dataSource);
+          if (hikari != null) {
+            validate(hikari, environment.getProperty("app.datasource.maxConnections", Integer.class, 20));
+          }
+        }
+        return bean;
+      }
+    };
+  }
+
+  private static HikariDataSource unwrap(DataSource dataSource) {
+    try {
+      return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @throws IllegalStateException listing every problem with the settings
+   */
+  static void validate(HikariDataSource pool, int maxConnections) {
+    List<String> problems = new ArrayList<>();
+    int maximumPoolSize = pool.getMaximumPoolSize();
+    // -1 (the default) means the same as maximum-pool-size
+    int minimumIdle = pool.getMinimumIdle() < 0 ? maximumPoolSize : pool.getMinimumIdle();
+    long connectionTimeout = pool.getConnectionTimeout();
+    long idleTimeout = pool.getIdleTimeout();
+    long maxLifetime = pool.getMaxLifetime();
+    long leakDetectionThreshold = pool.getLeakDetectionThreshold();
+
+    if (maximumPoolSize < 1 || maximumPoolSize > maxConnections) {
+      problems.add("maximum-pool-size is %d; it must be between 1 and app.datasource.maxConnections (%d)"
+          .formatted(maximumPoolSize, maxConnections));
+    }
+    if (minimumIdle > maximumPoolSize) {
+      problems.add("minimum-idle (%d) is larger than maximum-pool-size (%d)".formatted(minimumIdle, maximumPoolSize));
+    }
+    if (connectionTimeout != 0 && connectionTimeout < 250) {
+      problems.add("connection-timeout is %d ms; HikariCP needs at least 250".formatted(connectionTimeout));
+    }
+    if (pool.getValidationTimeout() < 250
+        || (connectionTimeout != 0 && pool.getValidationTimeout() > connectionTimeout)) {
+      problems.add("validation-timeout is %d ms; it must be at least 250 and no more than connection-timeout (%d ms)"
+          .formatted(pool.getValidationTimeout(), connectionTimeout));
+    }
+    if (maxLifetime != 0 && maxLifetime < 30_000) {
+      problems.add("max-lifetime is %d ms; HikariCP needs at least 30000".formatted(maxLifetime));
+    }
+    if (idleTimeout != 0 && minimumIdle < maximumPoolSize
+        && (idleTimeout < 10_000 || (maxLifetime != 0 && idleTimeout >= maxLifetime))) {
+      problems.add("idle-timeout is %d ms; it must be at least 10000 and shorter than max-lifetime (%d ms)"
+          .formatted(idleTimeout, maxLifetime));
+    }
+    if (leakDetectionThreshold != 0
+        && (leakDetectionThreshold < 2000 || (maxLifetime != 0 && leakDetectionThreshold > maxLifetime))) {
+      problems.add("leak-detection-threshold is %d ms; it must be at least 2000 and no more than max-lifetime"
+          .formatted(leakDetectionThreshold));
+    }
+    if (!problems.isEmpty()) {
+      throw new IllegalStateException("Invalid connection pool settings (spring.datasource.hikari.*): "
+          + String.join("; ", problems));
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.services.SessionTokenService;
+
+import java.time.Duration;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * Keeps the OAuth authorization request (with its state parameter) in a
+ * cookie instead of the HTTP session between the redirect to Google and
+ * the callback, so that the callback can be served by another instance.
+ *
+ * The cookie is signed by SessionTokenService, and the signature is
+ * checked before anything is deserialized.
+ */
+
+public class CookieAuthorizationRequestRepository implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+
+  public static final String COOKIE = "OAUTH2_AUTHORIZATION_REQUEST";
+
+  private static final Duration LIFETIME = Duration.ofMinutes(5);
+
+  private final SessionTokenService sessionTokenService;
+
+  public CookieAuthorizationRequestRepository(SessionTokenService sessionTokenService) {
+    this.sessionTokenService = sessionTokenService;
+  }
+
+  @Override
+  public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+    return SessionTokenService.readCookie(request, COOKIE)
+        .flatMap(sessionTokenService::unseal)
+        .map(bytes -> (OAuth2AuthorizationRequest) SerializationUtils.deserialize(bytes))
+        .orElse(null);
+  }
+
+  @Override
+  public void saveAuthorizationRequest(OAuth2AuthorizationRequest authorizationRequest, HttpServletRequest request,
+      HttpServletResponse response) {
+    if (authorizationRequest == null) {
+      SessionTokenService.writeCookie(request, response, COOKIE, "", Duration.ZERO);
+      return;
+    }
+    String sealed = sessionTokenService.seal(SerializationUtils.serialize(authorizationRequest), LIFETIME);
+    SessionTokenService.writeCookie(request, response, COOKIE, sealed, LIFETIME);
+  }
+
+  @Override
+  public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request,
+      HttpServletResponse response) {
+    OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+    if (authorizationRequest != null) {
+      SessionTokenService.writeCookie(request, response, COOKIE, "", Duration.ZERO);
+    }
+    return authorizationRequest;
+  }
+
+  @Override
+  @Deprecated
+  public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request) {
+    return loadAuthorizationRequest(request);
+  }
+}
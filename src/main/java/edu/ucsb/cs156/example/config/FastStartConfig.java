@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Support for the AppCDS training run (mvn -Pappcds package, see
+ * docs/fast-start.md): with app.startup.exitWhenReady=true the application
+ * shuts down as soon as it has started, so that the JVM writes the archive
+ * of the classes it loaded.
+ */
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.startup.exitWhenReady", havingValue = "true")
+public class FastStartConfig {
+
+  @Bean
+  public ApplicationListener<ApplicationReadyEvent> exitWhenReady() {
+    return event -> {
+      log.info("app.startup.exitWhenReady is set; exiting");
+      System.exit(SpringApplication.exit(event.getApplicationContext()));
+    };
+  }
+}
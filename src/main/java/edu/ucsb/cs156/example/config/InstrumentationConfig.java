@@ -0,0 +1,100 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import edu.ucsb.cs156.example.instrumentation.ConnectionLeakDetector;
+import edu.ucsb.cs156.example.instrumentation.ConnectionLeaksEndpoint;
+import edu.ucsb.cs156.example.instrumentation.JdbcListener;
+import edu.ucsb.cs156.example.instrumentation.JdbcProxies;
+import edu.ucsb.cs156.example.instrumentation.RequestStatistics;
+import edu.ucsb.cs156.example.instrumentation.SlowQueryLog;
+import edu.ucsb.cs156.example.instrumentation.TimedMappingJackson2HttpMessageConverter;
+
+/**
+ * Wraps the DataSource so that JDBC work is reported to RequestStatistics
+ * (see RequestStatisticsFilter), the SlowQueryLog and the
+ * ConnectionLeakDetector, and times the JSON converter for
+ * RequestStatistics. Each can be turned off: app.requestStatistics.enabled,
+ * app.slowQueries.enabled, app.connectionLeaks.thresholdMillis=0.
+ */
+
+@Configuration
+public class InstrumentationConfig implements WebMvcConfigurer {
+
+  @Value("${app.requestStatistics.enabled:true}")
+  private boolean requestStatisticsEnabled;
+
+  @Bean
+  @ConditionalOnProperty(name = "app.slowQueries.enabled", havingValue = "true", matchIfMissing = true)
+  public SlowQueryLog slowQueryLog(
+      @Value("${app.slowQueries.thresholdMillis:100}") long thresholdMillis,
+      @Value("${app.slowQueries.capacity:100}") int capacity,
+      @Value("${app.slowQueries.explain:false}") boolean explain) {
+    return new SlowQueryLog(thresholdMillis, capacity, explain);
+  }
+
+  @Bean
+  @ConditionalOnExpression("${app.connectionLeaks.thresholdMillis:0} > 0")
+  public ConnectionLeakDetector connectionLeakDetector(
+      @Value("${app.connectionLeaks.thresholdMillis}") long thresholdMillis,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    return new ConnectionLeakDetector(thresholdMillis, meterRegistry);
+  }
+
+  @Bean
+  @ConditionalOnExpression("${app.connectionLeaks.thresholdMillis:0} > 0")
+  public ConnectionLeaksEndpoint connectionLeaksEndpoint(ConnectionLeakDetector connectionLeakDetector) {
+    return new ConnectionLeaksEndpoint(connectionLeakDetector);
+  }
+
+  @Bean
+  public static BeanPostProcessor jdbcInstrumentationPostProcessor(Environment environment,
+      ObjectProvider<SlowQueryLog> slowQueryLog, ObjectProvider<ConnectionLeakDetector> connectionLeakDetector) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof DataSource dataSource)) {
+          return bean;
+        }
+        List<JdbcListener> listeners = new ArrayList<>();
+        if (environment.getProperty("app.requestStatistics.enabled", Boolean.class, true)) {
+          listeners.add(RequestStatistics.JDBC_LISTENER);
+        }
+        slowQueryLog.ifAvailable(listeners::add);
+        connectionLeakDetector.ifAvailable(listeners::add);
+        return listeners.isEmpty() ? dataSource : JdbcProxies.wrap(dataSource, JdbcListener.of(listeners));
+      }
+    };
+  }
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    if (!requestStatisticsEnabled) {
+      return;
+    }
+    for (int i = 0; i < converters.size(); i++) {
+      if (converters.get(i).getClass() == MappingJackson2HttpMessageConverter.class) {
+        MappingJackson2HttpMessageConverter converter = (MappingJackson2HttpMessageConverter) converters.get(i);
+        converters.set(i, new TimedMappingJackson2HttpMessageConverter(converter.getObjectMapper()));
+      }
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.example.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Modules for the application's ObjectMapper. Spring Boot registers every
+ * Module bean with its Jackson2ObjectMapperBuilder, so they apply to the
+ * ObjectMapper that is injected (e.g. into UsersController and the
+ * services), to the JSON converter, and to the CBOR and Smile converters
+ * (see BinaryFormatsConfig) alike.
+ *
+ * Blackbird replaces the reflective getter, setter and constructor calls in
+ * Jackson's bean serializers and deserializers with lambdas generated
+ * through LambdaMetafactory, which the JIT can inline; output is the same.
+ * (Afterburner does the same with bytecode generation, but is meant for
+ * Java 8 and warns under the module system.) See
+ * EntitySerializationBenchmark for the difference it makes; it can be
+ * turned off with app.jackson.blackbird=false.
+ */
+
+@Configuration
+public class JacksonConfig {
+
+  @Bean
+  @ConditionalOnProperty(name = "app.jackson.blackbird", havingValue = "true", matchIfMissing = true)
+  public Module blackbirdModule() {
+    return new BlackbirdModule();
+  }
+}
@@ -0,0 +1,110 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured DataSource with a ReplicaRoutingDataSource,
+ * so that read-only transactions go to the databases listed in
+ * app.datasource.replicas.urls. The primary is configured exactly as
+ * before (spring.datasource.*); each replica gets a pool of its own with
+ * the same settings, the same credentials unless
+ * app.datasource.replicas.username/password are set, and its own
+ * hikaricp.connections.* metrics (pool=replica-1, ...).
+ *
+ * Turn it on with app.datasource.replicas.enabled=true, or with the
+ * "replicas" profile, which adds a second development database as the
+ * replica so that routing can be tried locally. Nothing replicates to it;
+ * with app.datasource.replicas.migrate=true it gets the schema from the
+ * same Flyway migrations as the primary, and otherwise stays as it is.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+  private final List<HikariDataSource> pools = new ArrayList<>();
+
+  @Bean
+  public DataSource dataSource(DataSourceProperties properties, Environment environment,
+      @Value("${app.datasource.replicas.urls}") List<String> urls,
+      @Value("${app.datasource.replicas.username:}") String username,
+      @Value("${app.datasource.replicas.password:}") String password,
+      @Value("${app.datasource.replicas.pinMillis:5000}") long pinMillis,
+      @Value("${app.datasource.maxConnections:20}") int maxConnections,
+      @Value("${app.datasource.replicas.migrate:false}") boolean migrate,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    if (primary.getPoolName() == null) {
+      primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+    }
+    pools.add(primary);
+
+    List<DataSource> replicas = new ArrayList<>();
+    for (String url : urls) {
+      HikariConfig config = new HikariConfig();
+      primary.copyStateTo(config);
+      config.setJdbcUrl(url.trim());
+      config.setPoolName("replica-" + (replicas.size() + 1));
+      config.setReadOnly(true);
+      if (!username.isEmpty()) {
+        config.setUsername(username);
+        config.setPassword(password);
+      }
+      if (migrate) {
+        // before the pool, whose connections are read-only
+        migrate(config.getJdbcUrl(), config.getUsername(), config.getPassword(), environment);
+      }
+      HikariDataSource replica = new HikariDataSource();
+      config.copyStateTo(replica);
+      ConnectionPoolConfig.validate(replica, maxConnections);
+      meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+      replicas.add(replica);
+      pools.add(replica);
+    }
+
+    return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas, pinMillis));
+  }
+
+  // configured like the primary's migration (spring.flyway.*)
+  static void migrate(String url, String username, String password, Environment environment) {
+    FlywayProperties flyway = Binder.get(environment).bind("spring.flyway", FlywayProperties.class)
+        .orElseGet(FlywayProperties::new);
+    Flyway.configure()
+        .dataSource(url, username, password)
+        .locations(flyway.getLocations().toArray(String[]::new))
+        .baselineOnMigrate(flyway.isBaselineOnMigrate())
+        .baselineVersion(flyway.getBaselineVersion())
+        .load()
+        .migrate();
+  }
+
+  // the bean is a proxy, so Spring would not find the pools' close() itself
+  @PreDestroy
+  public void closePools() {
+    pools.forEach(HikariDataSource::close);
+  }
+}
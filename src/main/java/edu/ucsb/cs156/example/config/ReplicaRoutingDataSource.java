@@ -0,0 +1,154 @@
+package edu.ucsb.cs156.example.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import edu.ucsb.cs156.example.services.SessionTokenService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends read-only transactions (which includes every Spring Data
+ * repository find) to the replicas, round robin, and everything else to
+ * the primary.
+ *
+ * Read your writes: once a session has run a read-write transaction, its
+ * reads go to the primary for pinMillis, so that it does not read a replica
+ * that has not caught up with its own change yet. The rest of the request
+ * that wrote is pinned too. Without a session (app.session.stateless, or a
+ * client that does not keep one) the pin goes back to the client in a
+ * PRIMARY_UNTIL cookie instead; it is not signed, since all a forged one
+ * can do is send the client's own reads to the primary.
+ *
+ * The decision is made when a connection is first used, so this must be
+ * wrapped in a LazyConnectionDataSourceProxy: transaction managers fetch
+ * the connection before the transaction is marked read-only.
+ */
+
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  static final String PRIMARY = "primary";
+  static final String PINNED_UNTIL = ReplicaRoutingDataSource.class.getName() + ".pinnedUntil";
+  static final String PINNED_UNTIL_COOKIE = "PRIMARY_UNTIL";
+
+  private final List<String> replicaKeys;
+  private final long pinMillis;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long pinMillis) {
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    String[] keys = new String[replicas.size()];
+    for (int i = 0; i < replicas.size(); i++) {
+      keys[i] = "replica-" + (i + 1);
+      targets.put(keys[i], replicas.get(i));
+    }
+    this.replicaKeys = List.of(keys);
+    this.pinMillis = pinMillis;
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+        pin();
+      }
+      return PRIMARY;
+    }
+    if (replicaKeys.isEmpty() || isPinned()) {
+      return PRIMARY;
+    }
+    return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+  }
+
+  /** Falls back to the primary if a replica cannot be reached. */
+  @Override
+  public Connection getConnection() throws SQLException {
+    DataSource target = determineTargetDataSource();
+    try {
+      return target.getConnection();
+    } catch (SQLException e) {
+      DataSource primary = getResolvedDefaultDataSource();
+      if (target == primary) {
+        throw e;
+      }
+      log.warn("replica unavailable, reading from the primary instead: {}", e.getMessage());
+      return primary.getConnection();
+    }
+  }
+
+  private void pin() {
+    HttpServletRequest request = currentRequest();
+    if (request == null) {
+      return;
+    }
+    boolean first = request.getAttribute(PINNED_UNTIL) == null;
+    long until = System.currentTimeMillis() + pinMillis;
+    request.setAttribute(PINNED_UNTIL, until);
+    HttpSession session = request.getSession(false);
+    if (session != null) {
+      session.setAttribute(PINNED_UNTIL, until);
+      return;
+    }
+    HttpServletResponse response = currentResponse();
+    if (first && response != null && !response.isCommitted()) {
+      SessionTokenService.writeCookie(request, response, PINNED_UNTIL_COOKIE, Long.toString(until),
+          Duration.ofSeconds((pinMillis + 999) / 1000));
+    }
+  }
+
+  private static boolean isPinned() {
+    HttpServletRequest request = currentRequest();
+    if (request == null) {
+      return false;
+    }
+    if (request.getAttribute(PINNED_UNTIL) != null) {
+      return true;
+    }
+    long now = System.currentTimeMillis();
+    HttpSession session = request.getSession(false);
+    if (session != null && session.getAttribute(PINNED_UNTIL) instanceof Long until && until > now) {
+      return true;
+    }
+    return SessionTokenService.readCookie(request, PINNED_UNTIL_COOKIE)
+        .filter(until -> millis(until) > now)
+        .isPresent();
+  }
+
+  private static long millis(String value) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static HttpServletRequest currentRequest() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getRequest() : null;
+  }
+
+  private static HttpServletResponse currentResponse() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getResponse() : null;
+  }
+}
@@ -22,17 +22,22 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
 import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
 import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
+import org.springframework.security.web.context.SecurityContextPersistenceFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.filters.SessionTokenFilter;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.SessionTokenService;
 import lombok.extern.slf4j.Slf4j;
 
 @Configuration
@@ -47,9 +52,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   UserRepository userRepository;
 
+  // only there with app.session.stateless=true
+  @Autowired(required = false)
+  SessionTokenService sessionTokenService;
+
   @Override
   protected void configure(HttpSecurity http) throws Exception {
     http.authorizeRequests(authorize -> authorize
+        .antMatchers("/actuator/health").permitAll()
+        .antMatchers("/actuator/**").hasRole("ADMIN")
         .anyRequest().permitAll())
         .exceptionHandling(handlingConfigurer -> handlingConfigurer
             .authenticationEntryPoint(new Http403ForbiddenEntryPoint()))
@@ -60,6 +71,26 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         .logout(logout -> logout
             .logoutRequestMatcher(new AntPathRequestMatcher("/logout"))
             .logoutSuccessUrl("/"));
+    if (sessionTokenService != null) {
+      configureStatelessSessions(http);
+    }
+  }
+
+  /**
+   * No HTTP session at all: the login ends by setting a signed session token
+   * cookie (see SessionTokenService), which SessionTokenFilter checks on
+   * every request, and the OAuth authorization request waits for Google's
+   * callback in a cookie too. Any instance can then serve any request.
+   */
+  private void configureStatelessSessions(HttpSecurity http) throws Exception {
+    http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+        .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+        .addFilterAfter(new SessionTokenFilter(sessionTokenService), SecurityContextPersistenceFilter.class)
+        .oauth2Login(oauth2 -> oauth2
+            .authorizationEndpoint(endpoint -> endpoint
+                .authorizationRequestRepository(new CookieAuthorizationRequestRepository(sessionTokenService)))
+            .successHandler(sessionTokenService.loginSuccessHandler()))
+        .logout(logout -> logout.deleteCookies(SessionTokenService.COOKIE));
   }
 
   @Override
@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+
+/**
+ * HTTP sessions in the database (SESSION_STORE=jdbc), so that they survive
+ * the loss of an instance and any instance can serve any request.
+ *
+ * Spring Boot's session auto-configuration does the rest with
+ * spring.session.store-type: the spring_session tables come from the
+ * V7 migration (H2 and Postgres alike), and every instance deletes expired
+ * sessions on spring.session.jdbc.cleanup-cron. Another store (e.g.
+ * Redis) only needs its spring-session module and a different store type.
+ * This configuration replaces Spring Session's default serialization with
+ * CompactSessionSerializer.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "spring.session.store-type", havingValue = "jdbc")
+public class SessionStoreConfig implements BeanClassLoaderAware {
+
+  private ClassLoader classLoader;
+
+  @Override
+  public void setBeanClassLoader(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  // the name JdbcHttpSessionConfiguration looks for
+  @Bean
+  public ConversionService springSessionConversionService() {
+    CompactSessionSerializer serializer = new CompactSessionSerializer(classLoader);
+    GenericConversionService conversionService = new GenericConversionService();
+    conversionService.addConverter(Object.class, byte[].class, serializer::serialize);
+    conversionService.addConverter(byte[].class, Object.class, serializer::deserialize);
+    return conversionService;
+  }
+}
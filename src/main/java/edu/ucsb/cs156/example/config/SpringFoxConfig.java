@@ -1,29 +1,62 @@
 package edu.ucsb.cs156.example.config;
 
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import io.swagger.models.Swagger;
+import lombok.extern.slf4j.Slf4j;
 import springfox.documentation.service.Contact;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
+import springfox.documentation.spring.web.DocumentationCache;
+import springfox.documentation.spring.web.json.JsonSerializer;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebFluxRequestHandlerProvider;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger.web.SecurityConfiguration;
 import springfox.documentation.swagger.web.SecurityConfigurationBuilder;
+import springfox.documentation.swagger2.mappers.ServiceModelToSwagger2Mapper;
+
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 
 import static springfox.documentation.builders.PathSelectors.regex;
 
 /**
  * Configuration for Swagger, a package that provides documentation
  * for REST API endpoints.
+ *
+ * Only active when app.showSwaggerUILink is true (the development
+ * profile); otherwise springfox.documentation.enabled is false too, so
+ * nothing scans the handlers at startup, and the spec generated at build
+ * time (see exportApiDocs) is served as the static file /api/docs.json.
  * 
  * @see <a href=
  *      "https://www.baeldung.com/swagger-2-documentation-for-spring-rest-api">https://www.baeldung.com/swagger-2-documentation-for-spring-rest-api</a>
  */
 
+@Slf4j
 @Configuration
+@ConditionalOnProperty(name = "app.showSwaggerUILink", havingValue = "true")
 public class SpringFoxConfig {
+
     @Bean
     public Docket api() {
         return new Docket(DocumentationType.SWAGGER_2)
@@ -42,6 +75,86 @@ public class SpringFoxConfig {
           .build();
     }
 
+    /**
+     * The actuator endpoints are mapped with PathPatternParser, which
+     * Springfox 3 cannot read (it fails at startup with an NPE), even though
+     * spring.mvc.pathmatch.matching-strategy is ant_path_matcher for our own
+     * controllers. Hide those mappings from Springfox; they are not under
+     * /api anyway.
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof WebMvcRequestHandlerProvider || bean instanceof WebFluxRequestHandlerProvider) {
+                    customizeSpringfoxHandlerMappings(getHandlerMappings(bean));
+                }
+                return bean;
+            }
+
+            private <T extends RequestMappingInfoHandlerMapping> void customizeSpringfoxHandlerMappings(List<T> mappings) {
+                List<T> copy = mappings.stream()
+                        .filter(mapping -> mapping.getPatternParser() == null)
+                        .collect(Collectors.toList());
+                mappings.clear();
+                mappings.addAll(copy);
+            }
+
+            @SuppressWarnings("unchecked")
+            private List<RequestMappingInfoHandlerMapping> getHandlerMappings(Object bean) {
+                Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+                field.setAccessible(true);
+                return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+            }
+        };
+    }
+
+    /**
+     * Springfox learns how models are serialized from the MVC message
+     * converters when RequestMappingHandlerAdapter is created. With
+     * spring.main.lazy-initialization (the faststart profile) that would
+     * only happen on the first request, after Springfox has already built
+     * the documentation with no model properties at all.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter springfoxNeedsMessageConverters() {
+        return LazyInitializationExcludeFilter.forBeanTypes(RequestMappingHandlerAdapter.class);
+    }
+
+    /**
+     * With app.apiDocs.exportTo set (the export-api-docs execution in
+     * pom.xml, at prepare-package), writes the same spec that /api/docs
+     * serves to that file once the application has started, then exits.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.apiDocs.exportTo")
+    public ApplicationListener<ApplicationReadyEvent> exportApiDocs(
+            @Value("${app.apiDocs.exportTo}") String exportTo,
+            DocumentationCache documentationCache,
+            ServiceModelToSwagger2Mapper swagger2Mapper,
+            JsonSerializer jsonSerializer) {
+        return event -> {
+            int exitCode = 0;
+            try {
+                Swagger swagger = swagger2Mapper.mapDocumentation(
+                        documentationCache.documentationByGroup(Docket.DEFAULT_GROUP_NAME));
+                // /api/docs takes these from the request; the static copy is served by the same host
+                swagger.host(null);
+                swagger.basePath("/");
+                Path path = Path.of(exportTo);
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                Files.writeString(path, jsonSerializer.toJson(swagger).value());
+                log.info("API docs written to {}", path.toAbsolutePath());
+            } catch (Exception e) {
+                log.error("Could not write the API docs to {}", exportTo, e);
+                exitCode = 1;
+            }
+            int springExitCode = SpringApplication.exit(event.getApplicationContext());
+            System.exit(exitCode != 0 ? exitCode : springExitCode);
+        };
+    }
+
     private ApiInfo apiInfo() {
         return new ApiInfo("demo-spring-react-example-v2", "<a href=\"/\">home</a>", null, null, null, null, null, Collections.EMPTY_LIST);
     }
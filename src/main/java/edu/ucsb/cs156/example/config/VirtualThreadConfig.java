@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.config;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in execution mode that runs each request (and so every repository
+ * call it makes) on its own virtual thread instead of Tomcat's platform
+ * thread pool.
+ *
+ * Turn it on with app.virtualThreads.enabled=true, or with the
+ * "virtualthreads" profile. Virtual threads need a Java 21+ runtime; the
+ * code is compiled for 17 and looks the API up reflectively, so on an older
+ * runtime this logs a warning and leaves the default pool in place.
+ *
+ * With one thread per request the thread count no longer limits how many
+ * requests are blocked on JDBC at once; the Hikari pool
+ * (spring.datasource.hikari.maximum-pool-size) and its connectionTimeout do.
+ */
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.virtualThreads.enabled", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+  private final ExecutorService executor;
+  private final VirtualThreadPinningMonitor pinningMonitor;
+
+  public VirtualThreadConfig(
+      @Value("${app.virtualThreads.pinnedThresholdMillis:20}") long pinnedThresholdMillis) {
+    this.executor = newVirtualThreadPerTaskExecutor();
+    this.pinningMonitor = new VirtualThreadPinningMonitor(executor != null, Duration.ofMillis(pinnedThresholdMillis));
+  }
+
+  public static boolean isSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    if (!isSupported()) {
+      log.warn("app.virtualThreads.enabled is set but Java {} has no virtual threads; using the platform thread pool",
+          Runtime.version().feature());
+      return null;
+    }
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      log.warn("could not create a virtual thread executor; using the platform thread pool", e);
+      return null;
+    }
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> {
+      if (executor != null) {
+        log.info("Tomcat request handling runs on virtual threads");
+        protocolHandler.setExecutor(executor);
+      }
+    };
+  }
+
+  @Bean
+  public VirtualThreadPinningMonitor virtualThreadPinningMonitor() {
+    return pinningMonitor;
+  }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    if (executor != null) {
+      configurer.setTaskExecutor(new TaskExecutorAdapter((Executor) executor));
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts jdk.VirtualThreadPinned JFR events, i.e. virtual threads that
+ * blocked while pinned to their carrier (typically inside a synchronized
+ * block in a JDBC driver or pool), and keeps the top frames of the most
+ * recent ones so they can be shown by /api/admin/execution.
+ */
+
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+  private static final int RECENT = 20;
+
+  private final AtomicLong pinnedCount = new AtomicLong();
+  private final Deque<String> recent = new ArrayDeque<>();
+  private final RecordingStream stream;
+
+  public VirtualThreadPinningMonitor(boolean active, Duration threshold) {
+    if (!active) {
+      this.stream = null;
+      return;
+    }
+    RecordingStream rs = new RecordingStream();
+    rs.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+    rs.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+    rs.startAsync();
+    this.stream = rs;
+  }
+
+  public boolean isActive() {
+    return stream != null;
+  }
+
+  public long getPinnedCount() {
+    return pinnedCount.get();
+  }
+
+  public synchronized List<String> getRecentPinnedFrames() {
+    return new ArrayList<>(recent);
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinnedCount.incrementAndGet();
+    String where = "unknown";
+    if (event.getStackTrace() != null && !event.getStackTrace().getFrames().isEmpty()) {
+      RecordedFrame top = event.getStackTrace().getFrames().get(0);
+      where = "%s.%s line %d".formatted(top.getMethod().getType().getName(), top.getMethod().getName(),
+          top.getLineNumber());
+    }
+    log.debug("virtual thread pinned for {} at {}", event.getDuration(), where);
+    synchronized (this) {
+      if (recent.size() == RECENT) {
+        recent.removeFirst();
+      }
+      recent.addLast("%s (%d ms)".formatted(where, event.getDuration().toMillis()));
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    if (stream != null) {
+      stream.close();
+    }
+  }
+}
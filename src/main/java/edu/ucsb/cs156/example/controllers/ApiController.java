@@ -1,16 +1,22 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.errors.BadRequestException;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
-import net.bytebuddy.implementation.bytecode.Throw;
+import edu.ucsb.cs156.example.errors.UnknownEntityTypeException;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import edu.ucsb.cs156.example.models.ChangeType;
 import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.time.Instant;
 import java.util.Map;
 
 @Slf4j
@@ -18,6 +24,12 @@ public abstract class ApiController {
   @Autowired
   private CurrentUserService currentUserService;
 
+  @Autowired
+  private ApplicationEventPublisher applicationEventPublisher;
+
+  @Autowired
+  private ObjectMapper mapper;
+
   protected CurrentUser getCurrentUser() {
     return currentUserService.getCurrentUser();
   }
@@ -26,7 +38,33 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
-  @ExceptionHandler({ EntityNotFoundException.class })
+  protected void publishChange(String entityType, ChangeType changeType, Object id, Object entity) {
+    publishChange(entityType, changeType, id, entity, null);
+  }
+
+  /**
+   * Call this in the transaction that saved the change (the mutating
+   * endpoints are @Transactional), so its changelog entry commits with it.
+   * before is what the entity looked like before an update, from
+   * snapshot(), since updates change the object that was read.
+   */
+  protected void publishChange(String entityType, ChangeType changeType, Object id, Object entity, Object before) {
+    applicationEventPublisher.publishEvent(EntityChangeEvent.builder()
+      .entityType(entityType)
+      .entityId(String.valueOf(id))
+      .changeType(changeType)
+      .entity(entity)
+      .before(before)
+      .timestamp(Instant.now())
+      .build());
+  }
+
+  /** A copy of the entity as it is now, as it would be serialized in a response. */
+  protected Object snapshot(Object entity) {
+    return mapper.valueToTree(entity);
+  }
+
+  @ExceptionHandler({ EntityNotFoundException.class, UnknownEntityTypeException.class })
   @ResponseStatus(HttpStatus.NOT_FOUND)
   public Object handleGenericException(Throwable e) {
     return Map.of(
@@ -34,4 +72,13 @@ public abstract class ApiController {
       "message", e.getMessage()
     );
   }
+
+  @ExceptionHandler(BadRequestException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleBadRequest(BadRequestException e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
 }
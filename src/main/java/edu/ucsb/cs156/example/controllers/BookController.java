@@ -2,7 +2,11 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Book;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.export.ExportFormat;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.BookView;
 import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.services.ExportService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -10,7 +14,9 @@ import io.swagger.annotations.ApiParam;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -20,8 +26,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import java.io.IOException;
+
 @Api(description = "Books")
 @RequestMapping("/api/books")
 @RestController
@@ -30,14 +39,30 @@ public class BookController extends ApiController {
     @Autowired
     BookRepository bookRepository;
 
+    @Autowired
+    ExportService exportService;
+
     @ApiOperation(value = "List all books")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Book> allBooks() {
-        Iterable<Book> books = bookRepository.findAll();
+    public Iterable<BookView> allBooks() {
+        Iterable<BookView> books = bookRepository.findAllViews();
         return books;
     }
 
+    @ApiOperation(value = "Export all books, streamed as CSV or in the columnar format")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public void exportBooks(
+            @ApiParam("csv or columnar") @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        response.setContentType(exportFormat.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"books.%s\"".formatted(exportFormat.getExtension()));
+        exportService.export("books", exportFormat, response.getOutputStream());
+    }
+
     @ApiOperation(value = "Get a single book")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
@@ -51,6 +76,7 @@ public class BookController extends ApiController {
 
     @ApiOperation(value = "Create a new book")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public Book postBook(
             @ApiParam("title") @RequestParam String title,
@@ -64,12 +90,14 @@ public class BookController extends ApiController {
         book.setYear(year);
 
         Book savedBook = bookRepository.save(book);
+        publishChange("books", ChangeType.CREATED, savedBook.getId(), savedBook);
 
         return savedBook;
     }
 
     @ApiOperation(value = "Delete a Book")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteBook(
             @ApiParam("id") @RequestParam Long id) {
@@ -77,11 +105,13 @@ public class BookController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
 
         bookRepository.delete(book);
+        publishChange("books", ChangeType.DELETED, id, book);
         return genericMessage("Book with id %s deleted".formatted(id));
     }
 
     @ApiOperation(value = "Update a single book")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public Book updateBook(
             @ApiParam("id") @RequestParam Long id,
@@ -89,10 +119,12 @@ public class BookController extends ApiController {
 
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Book.class, id));
+        Object before = snapshot(book);
 
 book.updateFrom(incoming);
 
         bookRepository.save(book);
+        publishChange("books", ChangeType.UPDATED, id, book, before);
 
         return book;
     }
@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.errors.UnknownEntityTypeException;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.services.ChangeFeedService;
+import edu.ucsb.cs156.example.services.ChangeLogService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Api(description = "Change feeds for each entity type")
+@RequestMapping("/api")
+@RestController
+public class ChangesController extends ApiController {
+
+    // the path segments used by the entity controllers, e.g. /api/shoes
+    public static final Set<String> ENTITY_TYPES = Set.of(
+            "books", "dogs", "games", "Restaurant", "shoes",
+            "ucsbbuildings", "ucsbdates", "ucsbdiningcommons");
+
+    @Autowired
+    ChangeFeedService changeFeedService;
+
+    @Autowired
+    ChangeLogService changeLogService;
+
+    @ApiOperation(value = "Subscribe to create/update/delete events (Server-Sent Events)")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/{entity}/changes")
+    public SseEmitter subscribe(
+            @ApiParam("entity type, e.g. shoes") @PathVariable String entity) {
+        checkEntityType(entity);
+        return changeFeedService.subscribe(entity);
+    }
+
+    @ApiOperation(value = "Get what changed since a sequence number (deletes are returned as tombstones)")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/{entity}/changes", params = "since")
+    public EntityChanges changesSince(
+            @ApiParam("entity type, e.g. shoes") @PathVariable String entity,
+            @ApiParam("latest sequence number already seen (0 for everything)") @RequestParam long since,
+            @ApiParam("maximum number of change log entries to scan") @RequestParam(defaultValue = "500") int limit) {
+        checkEntityType(entity);
+        return changeLogService.changesSince(entity, since, limit);
+    }
+
+    private void checkEntityType(String entity) {
+        if (!ENTITY_TYPES.contains(entity)) {
+            throw new UnknownEntityTypeException(entity);
+        }
+    }
+}
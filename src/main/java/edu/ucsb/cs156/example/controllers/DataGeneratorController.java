@@ -0,0 +1,49 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.GeneratedData;
+import edu.ucsb.cs156.example.services.DataGeneratorService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Api(description = "Synthetic data for scale testing (admin only, development profile only)")
+@RequestMapping("/api/admin/generate")
+@RestController
+@Profile("development")
+public class DataGeneratorController extends ApiController {
+
+    @Autowired
+    DataGeneratorService dataGeneratorService;
+
+    @ApiOperation(value = "List the entity types that can be generated")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public Set<String> entityTypes() {
+        return DataGeneratorService.entityTypes();
+    }
+
+    @ApiOperation(value = "Bulk-insert deterministic rows; the same rows and seed always produce the same data")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/{entity}")
+    public GeneratedData generate(
+            @ApiParam("entity type, e.g. shoes") @PathVariable String entity,
+            @ApiParam("number of rows to insert") @RequestParam long rows,
+            @ApiParam("random seed") @RequestParam(defaultValue = "1") long seed,
+            @ApiParam("rows per JDBC batch") @RequestParam(defaultValue = "1000") int batchSize,
+            @ApiParam("delete existing rows first (for users, only generated ones)")
+            @RequestParam(defaultValue = "false") boolean replace) {
+        return dataGeneratorService.generate(entity, rows, seed, batchSize, replace);
+    }
+}
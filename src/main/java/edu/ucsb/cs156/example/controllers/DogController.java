@@ -2,6 +2,8 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Dog;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.DogView;
 import edu.ucsb.cs156.example.repositories.DogRepository;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -11,6 +13,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -33,8 +36,8 @@ public class DogController extends ApiController {
     @ApiOperation(value = "List all dogs")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Dog> allDogs() {
-        Iterable<Dog> dogs = dogRepository.findAll();
+    public Iterable<DogView> allDogs() {
+        Iterable<DogView> dogs = dogRepository.findAllViews();
         return dogs;
     }
 
@@ -51,6 +54,7 @@ public class DogController extends ApiController {
 
     @ApiOperation(value = "Create a new dog")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public Dog postDog(
             @ApiParam("name") @RequestParam String name,
@@ -64,12 +68,14 @@ public class DogController extends ApiController {
         dog.setGender(gender);
 
         Dog savedDog = dogRepository.save(dog);
+        publishChange("dogs", ChangeType.CREATED, savedDog.getName(), savedDog);
 
         return savedDog;
     }
 
     @ApiOperation(value = "Delete a Dog")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteDog(
             @ApiParam("name") @RequestParam String name) {
@@ -77,11 +83,13 @@ public class DogController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Dog.class, name));
 
         dogRepository.delete(dog);
+        publishChange("dogs", ChangeType.DELETED, name, dog);
         return genericMessage("Dog with id %s deleted".formatted(name));
     }
 
     @ApiOperation(value = "Update a single dog")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public Dog updateDog(
             @ApiParam("name") @RequestParam String name,
@@ -89,10 +97,12 @@ public class DogController extends ApiController {
 
         Dog dog = dogRepository.findById(name)
                 .orElseThrow(() -> new EntityNotFoundException(Dog.class, name));
+        Object before = snapshot(dog);
 
 dog.updateFrom(incoming);
 
         dogRepository.save(dog);
+        publishChange("dogs", ChangeType.UPDATED, name, dog, before);
 
         return dog;
     }
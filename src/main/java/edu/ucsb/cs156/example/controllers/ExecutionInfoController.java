@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.ExecutionInfo;
+import edu.ucsb.cs156.example.services.ExecutionInfoService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Api(description = "Request execution diagnostics (admin only)")
+@RequestMapping("/api/admin/execution")
+@RestController
+public class ExecutionInfoController extends ApiController {
+
+    @Autowired
+    private ExecutionInfoService executionInfoService;
+
+    @ApiOperation(value = "Get thread mode, connection pool sizing and virtual thread pinning counts")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public ExecutionInfo getExecutionInfo() {
+        return executionInfoService.getExecutionInfo();
+    }
+
+}
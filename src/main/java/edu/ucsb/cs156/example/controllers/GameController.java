@@ -2,6 +2,8 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Game;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.GameView;
 import edu.ucsb.cs156.example.repositories.GameRepository;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -11,6 +13,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -33,8 +36,8 @@ public class GameController extends ApiController {
     @ApiOperation(value = "List all games")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Game> allGames() {
-        Iterable<Game> games = gameRepository.findAll();
+    public Iterable<GameView> allGames() {
+        Iterable<GameView> games = gameRepository.findAllViews();
         return games;
     }
 
@@ -51,6 +54,7 @@ public class GameController extends ApiController {
 
     @ApiOperation(value = "Create a new game")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public Game postGame(
             @ApiParam("name") @RequestParam String name,
@@ -64,12 +68,14 @@ public class GameController extends ApiController {
         game.setRating(rating);
 
         Game savedGame = gameRepository.save(game);
+        publishChange("games", ChangeType.CREATED, savedGame.getName(), savedGame);
 
         return savedGame;
     }
 
     @ApiOperation(value = "Delete a Game")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteGame(
             @ApiParam("name") @RequestParam String name) {
@@ -77,11 +83,13 @@ public class GameController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Game.class, name));
 
         gameRepository.delete(game);
+        publishChange("games", ChangeType.DELETED, name, game);
         return genericMessage("Game with id %s deleted".formatted(name));
     }
 
     @ApiOperation(value = "Update a single Game")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public Game updateGame(
             @ApiParam("name") @RequestParam String name,
@@ -89,10 +97,12 @@ public class GameController extends ApiController {
 
         Game game = gameRepository.findById(name)
                 .orElseThrow(() -> new EntityNotFoundException(Game.class, name));
+        Object before = snapshot(game);
 
                 game.updateFrom(incoming);
 
         gameRepository.save(game);
+        publishChange("games", ChangeType.UPDATED, name, game, before);
 
         return game;
     }
@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.journal.JournalReader;
+import edu.ucsb.cs156.example.journal.JournalRecord;
+import edu.ucsb.cs156.example.services.ChangeJournalService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Api(description = "Change journal export (admin only)")
+@RequestMapping("/api/admin/journal")
+@RestController
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class JournalController extends ApiController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final byte[] END_OF_RECORD = "}\n".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ChangeJournalService changeJournalService;
+
+    @ApiOperation(value = "Export the journal of changes as newline-delimited JSON, oldest first")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "", produces = NDJSON)
+    public void exportJournal(
+            @ApiParam("first sequence number to export") @RequestParam(defaultValue = "1") long from,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        try (JournalReader reader = changeJournalService.read(from)) {
+            OutputStream out = response.getOutputStream();
+            while (reader.hasNext()) {
+                JournalRecord record = reader.next();
+                out.write("{\"sequence\":%d,\"event\":".formatted(record.getSequence())
+                        .getBytes(StandardCharsets.UTF_8));
+                out.write(record.getPayload());
+                out.write(END_OF_RECORD);
+            }
+        }
+    }
+}
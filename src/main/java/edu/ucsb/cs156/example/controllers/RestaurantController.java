@@ -2,7 +2,11 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.export.ExportFormat;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.RestaurantView;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.services.ExportService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -11,8 +15,10 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -22,8 +28,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 
 @Api(description = "Restaurants")
@@ -35,14 +43,30 @@ public class RestaurantController extends ApiController {
     @Autowired
     RestaurantRepository restaurantRepository;
 
+    @Autowired
+    ExportService exportService;
+
     @ApiOperation(value = "List all Restaurants")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Restaurant> allRestaurants() {
-        Iterable<Restaurant> restaurants = restaurantRepository.findAll();
+    public Iterable<RestaurantView> allRestaurants() {
+        Iterable<RestaurantView> restaurants = restaurantRepository.findAllViews();
         return restaurants;
     }
 
+    @ApiOperation(value = "Export all Restaurants, streamed as CSV or in the columnar format")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public void exportRestaurants(
+            @ApiParam("csv or columnar") @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        response.setContentType(exportFormat.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"restaurants.%s\"".formatted(exportFormat.getExtension()));
+        exportService.export("Restaurant", exportFormat, response.getOutputStream());
+    }
+
     @ApiOperation(value = "Get a single Restaurant")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
@@ -56,6 +80,7 @@ public class RestaurantController extends ApiController {
 
     @ApiOperation(value = "Create a new Restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public Restaurant postRestaurant(
             @ApiParam("name") @RequestParam String name,
@@ -67,11 +92,13 @@ public class RestaurantController extends ApiController {
         restaurant.setDescription(description);
 
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        publishChange("Restaurant", ChangeType.CREATED, savedRestaurant.getId(), savedRestaurant);
         return savedRestaurant;
     }
 
     @ApiOperation(value = "Delete a Restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteRestaurant(
             @ApiParam("id") @RequestParam Long id) {
@@ -79,11 +106,13 @@ public class RestaurantController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
 
         restaurantRepository.delete(restaurant);
+        publishChange("Restaurant", ChangeType.DELETED, id, restaurant);
         return genericMessage("Restaurant with id %s deleted".formatted(id));
     }
 
     @ApiOperation(value = "Update a single Restaurant")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public Restaurant updateRestaurant(
             @ApiParam("id") @RequestParam Long id,
@@ -91,11 +120,14 @@ public class RestaurantController extends ApiController {
     
         Restaurant restaurant = restaurantRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
+        Object before = snapshot(restaurant);
     
         restaurant.updateFrom(incoming);
     
         restaurantRepository.save(restaurant);
     
+        publishChange("Restaurant", ChangeType.UPDATED, id, restaurant, before);
+    
         return restaurant;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,8 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Shoe;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.ShoeView;
 import edu.ucsb.cs156.example.repositories.ShoeRepository;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -13,6 +15,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -38,12 +41,12 @@ public class ShoeController extends ApiController {
     @ApiOperation(value = "List all shoes")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Shoe> allShoes() { 
-    // ^the Shoe inside angled brackets <> refers to the Entity class;
-    // line below defines var of type Shoe entity, with Iterable interface acting on it
-        Iterable<Shoe> shoes = shoeRepository.findAll();
-        //note: the above line works despite ShoeRepository class being empty
-        //because ShoeRepoistory is inheriting from CrudRepository, which defines .findAll()
+    public Iterable<ShoeView> allShoes() {
+    // ^ShoeView is a record with the same fields as the Shoe Entity class;
+    // line below reads them straight into records, in a read-only transaction
+        Iterable<ShoeView> shoes = shoeRepository.findAllViews();
+        // note: unlike .findAll(), this loads no Shoe entities, so Hibernate
+        // does not keep a copy of each one to check for changes (see ShoeRepository.findAllViews)
         return shoes;
     }
 
@@ -60,6 +63,7 @@ public class ShoeController extends ApiController {
 
     @ApiOperation(value = "Create a new shoe")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public Shoe postShoe(
             @ApiParam("name") @RequestParam String name,
@@ -79,12 +83,14 @@ public class ShoeController extends ApiController {
         shoe.setBrand(brand);
 
         Shoe savedShoe = shoeRepository.save(shoe);
+        publishChange("shoes", ChangeType.CREATED, savedShoe.getId(), savedShoe);
         return savedShoe;
     }
 
 
     @ApiOperation(value = "Delete a Shoe")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteShoe(
             @ApiParam("id") @RequestParam Long id) {
@@ -92,11 +98,13 @@ public class ShoeController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Shoe.class, id));
 
         shoeRepository.delete(shoe);
+        publishChange("shoes", ChangeType.DELETED, id, shoe);
         return genericMessage("Shoe with id %s deleted".formatted(id));
     }
 
     @ApiOperation(value = "Update a single shoe")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public Shoe updateShoe(
             @ApiParam("id") @RequestParam Long id,
@@ -104,10 +112,12 @@ public class ShoeController extends ApiController {
 
         Shoe shoe = shoeRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Shoe.class, id));
+        Object before = snapshot(shoe);
 
                 shoe.updateFrom(incoming);
 
         shoeRepository.save(shoe);
+        publishChange("shoes", ChangeType.UPDATED, id, shoe, before);
 
         return shoe;
     }
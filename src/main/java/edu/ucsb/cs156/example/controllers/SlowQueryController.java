@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.instrumentation.SlowQueryLog;
+import edu.ucsb.cs156.example.models.SlowQuery;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Api(description = "Slow SQL statements (admin only)")
+@RequestMapping("/api/admin/slowqueries")
+@RestController
+public class SlowQueryController extends ApiController {
+
+    @Autowired
+    ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    @ApiOperation(value = "Get the most recent statements over app.slowQueries.thresholdMillis, newest first;"
+            + " for a batch, parameters are those of its last row and batchSize says how many rows it had")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public List<SlowQuery> recentSlowQueries() {
+        SlowQueryLog log = slowQueryLog.getIfAvailable();
+        return log == null ? List.of() : log.getRecent();
+    }
+
+    @ApiOperation(value = "Clear the slow query log")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("")
+    public Object clearSlowQueries() {
+        slowQueryLog.ifAvailable(SlowQueryLog::clear);
+        return genericMessage("Slow query log cleared");
+    }
+}
@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.StartupReport;
+import edu.ucsb.cs156.example.services.StartupTimelineService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Api(description = "Startup timeline (admin only)")
+@RequestMapping("/api/admin/startup")
+@RestController
+public class StartupTimelineController extends ApiController {
+
+    @Autowired
+    private StartupTimelineService startupTimelineService;
+
+    @ApiOperation(value = "Get the startup steps, mostly bean creations, that took longest")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public StartupReport getStartupReport(
+            @ApiParam("how many steps to list") @RequestParam(defaultValue = "20") int limit) {
+        return startupTimelineService.getReport(limit);
+    }
+
+}
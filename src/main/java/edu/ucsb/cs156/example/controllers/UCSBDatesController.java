@@ -2,6 +2,8 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.UCSBDateView;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -13,6 +15,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -38,8 +41,8 @@ public class UCSBDatesController extends ApiController {
     @ApiOperation(value = "List all ucsb dates")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDate> allUCSBDates() {
-        Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
+    public Iterable<UCSBDateView> allUCSBDates() {
+        Iterable<UCSBDateView> dates = ucsbDateRepository.findAllViews();
         return dates;
     }
 
@@ -56,6 +59,7 @@ public class UCSBDatesController extends ApiController {
 
     @ApiOperation(value = "Create a new date")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public UCSBDate postUCSBDate(
             @ApiParam("quarterYYYYQ") @RequestParam String quarterYYYYQ,
@@ -74,12 +78,14 @@ public class UCSBDatesController extends ApiController {
         ucsbDate.setLocalDateTime(localDateTime);
 
         UCSBDate savedUcsbDate = ucsbDateRepository.save(ucsbDate);
+        publishChange("ucsbdates", ChangeType.CREATED, savedUcsbDate.getId(), savedUcsbDate);
 
         return savedUcsbDate;
     }
 
     @ApiOperation(value = "Delete a UCSBDate")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteUCSBDate(
             @ApiParam("id") @RequestParam Long id) {
@@ -87,11 +93,13 @@ public class UCSBDatesController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
         ucsbDateRepository.delete(ucsbDate);
+        publishChange("ucsbdates", ChangeType.DELETED, id, ucsbDate);
         return genericMessage("UCSBDate with id %s deleted".formatted(id));
     }
 
     @ApiOperation(value = "Update a single date")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public UCSBDate updateUCSBDate(
             @ApiParam("id") @RequestParam Long id,
@@ -99,12 +107,14 @@ public class UCSBDatesController extends ApiController {
 
         UCSBDate ucsbDate = ucsbDateRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
+        Object before = snapshot(ucsbDate);
 
         ucsbDate.setQuarterYYYYQ(incoming.getQuarterYYYYQ());
         ucsbDate.setName(incoming.getName());
         ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
 
         ucsbDateRepository.save(ucsbDate);
+        publishChange("ucsbdates", ChangeType.UPDATED, id, ucsbDate, before);
 
         return ucsbDate;
     }
@@ -2,6 +2,8 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsView;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -10,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -34,8 +37,8 @@ public class UCSBDiningCommonsController extends ApiController {
     @ApiOperation(value = "List all ucsb dining commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommons> allCommonss() {
-        Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
+    public Iterable<UCSBDiningCommonsView> allCommonss() {
+        Iterable<UCSBDiningCommonsView> commons = ucsbDiningCommonsRepository.findAllViews();
         return commons;
     }
 
@@ -52,6 +55,7 @@ public class UCSBDiningCommonsController extends ApiController {
 
     @ApiOperation(value = "Create a new commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public UCSBDiningCommons postCommons(
         @ApiParam("code") @RequestParam String code,
@@ -74,12 +78,14 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(longitude);
 
         UCSBDiningCommons savedCommons = ucsbDiningCommonsRepository.save(commons);
+        publishChange("ucsbdiningcommons", ChangeType.CREATED, savedCommons.getCode(), savedCommons);
 
         return savedCommons;
     }
 
     @ApiOperation(value = "Delete a UCSBDiningCommons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteCommons(
             @ApiParam("code") @RequestParam String code) {
@@ -87,11 +93,13 @@ public class UCSBDiningCommonsController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
         ucsbDiningCommonsRepository.delete(commons);
+        publishChange("ucsbdiningcommons", ChangeType.DELETED, code, commons);
         return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
     }
 
     @ApiOperation(value = "Update a single commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public UCSBDiningCommons updateCommons(
             @ApiParam("code") @RequestParam String code,
@@ -99,6 +107,7 @@ public class UCSBDiningCommonsController extends ApiController {
 
         UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
+        Object before = snapshot(commons);
 
 
         commons.setName(incoming.getName());  
@@ -109,6 +118,7 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(incoming.getLongitude());
 
         ucsbDiningCommonsRepository.save(commons);
+        publishChange("ucsbdiningcommons", ChangeType.UPDATED, code, commons, before);
 
         return commons;
     }
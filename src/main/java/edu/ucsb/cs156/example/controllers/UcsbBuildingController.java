@@ -2,7 +2,11 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UcsbBuilding;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.UcsbBuildingView;
+import edu.ucsb.cs156.example.models.ImportResult;
 import edu.ucsb.cs156.example.repositories.UcsbBuildingRepository;
+import edu.ucsb.cs156.example.services.UcsbBuildingImportService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -12,7 +16,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,9 +27,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 
 @Api(description = "UcsbBuilding") //literally just a description
@@ -35,15 +47,17 @@ public class UcsbBuildingController extends ApiController {
     @Autowired
     UcsbBuildingRepository ucsbBuildingRepository;
 
+    @Autowired
+    UcsbBuildingImportService ucsbBuildingImportService;
+
     @ApiOperation(value = "List all ucsbBuildings")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UcsbBuilding> allUcsbBuildings() { 
-    // ^the UcsbBuilding  inside angled brackets <> refers to the Entity class;
-    // line below defines var of type UcsbBuilding entity, with Iterable interface acting on it
-        Iterable<UcsbBuilding> ucsbBuildings = ucsbBuildingRepository.findAll();
-        //note: the above line works despite UcsbBuildingRepository class being empty
-        //because UcsbBuildingRepoistory is inheriting from CrudRepository, which defines .findAll()
+    public Iterable<UcsbBuildingView> allUcsbBuildings() {
+    // ^UcsbBuildingView is a record with the same fields as the UcsbBuilding Entity class;
+    // line below reads them straight into records, in a read-only transaction
+        Iterable<UcsbBuildingView> ucsbBuildings = ucsbBuildingRepository.findAllViews();
+        // note: unlike .findAll(), this loads no UcsbBuilding entities (see UcsbBuildingRepository.findAllViews)
         return ucsbBuildings;
     }
 
@@ -60,6 +74,7 @@ public class UcsbBuildingController extends ApiController {
 
     @ApiOperation(value = "Create a new ucsbBuilding")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PostMapping("/post")
     public UcsbBuilding postUcsbBuilding(
             @ApiParam("name") @RequestParam String name,
@@ -80,6 +95,7 @@ public class UcsbBuildingController extends ApiController {
         ucsbBuilding.setLocation(location);
 
         UcsbBuilding savedUcsbBuilding = ucsbBuildingRepository.save(ucsbBuilding);
+        publishChange("ucsbbuildings", ChangeType.CREATED, savedUcsbBuilding.getId(), savedUcsbBuilding);
         return savedUcsbBuilding;
     }
 
@@ -92,6 +108,7 @@ public class UcsbBuildingController extends ApiController {
 
     @ApiOperation(value = "Delete a UcsbBuilding")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @DeleteMapping("")
     public Object deleteUcsbBuilding(
             @ApiParam("id") @RequestParam Long id) {
@@ -99,11 +116,13 @@ public class UcsbBuildingController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UcsbBuilding.class, id));
 
         ucsbBuildingRepository.delete(ucsbBuilding);
+        publishChange("ucsbbuildings", ChangeType.DELETED, id, ucsbBuilding);
         return genericMessage("UcsbBuilding with id %s deleted".formatted(id));
     }
 
     @ApiOperation(value = "Update a single ucsbBuilding")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Transactional
     @PutMapping("")
     public UcsbBuilding updateUcsbBuilding(
             @ApiParam("id") @RequestParam Long id,
@@ -111,6 +130,7 @@ public class UcsbBuildingController extends ApiController {
 
         UcsbBuilding ucsbBuilding = ucsbBuildingRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UcsbBuilding.class, id));
+        Object before = snapshot(ucsbBuilding);
 
         ucsbBuilding.setName(incoming.getName());
         ucsbBuilding.setDescription(incoming.getDescription());
@@ -118,7 +138,32 @@ public class UcsbBuildingController extends ApiController {
         ucsbBuilding.setLocation(incoming.getLocation());
 
         ucsbBuildingRepository.save(ucsbBuilding);
+        publishChange("ucsbbuildings", ChangeType.UPDATED, id, ucsbBuilding, before);
 
         return ucsbBuilding;
     }
-}
\ No newline at end of file
+
+    @ApiOperation(value = "Create or update ucsbBuildings from an uploaded CSV file (see UcsbBuildingImportService)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ImportResult importUcsbBuildings(
+            @ApiParam("CSV file with a header line") @RequestParam MultipartFile file) throws IOException {
+        try (Reader csv = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return importCsv(csv);
+        }
+    }
+
+    @ApiOperation(value = "Create or update ucsbBuildings from a CSV request body, read as it arrives")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ImportResult importUcsbBuildingsCsv(HttpServletRequest request) throws IOException {
+        try (Reader csv = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            return importCsv(csv);
+        }
+    }
+
+    private ImportResult importCsv(Reader csv) throws IOException {
+        return ucsbBuildingImportService.importCsv(csv, (changeType, ucsbBuilding, before) ->
+                publishChange("ucsbbuildings", changeType, ucsbBuilding.getId(), ucsbBuilding, before));
+    }
+}
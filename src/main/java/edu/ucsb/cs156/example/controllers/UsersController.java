@@ -1,16 +1,12 @@
 package edu.ucsb.cs156.example.controllers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.UserView;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -22,16 +18,12 @@ public class UsersController extends ApiController {
     @Autowired
     UserRepository userRepository;
 
-    @Autowired
-    ObjectMapper mapper;
-
     @ApiOperation(value = "Get a list of all users")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("")
-    public ResponseEntity<String> users()
-            throws JsonProcessingException {
-        Iterable<User> users = userRepository.findAll();
-        String body = mapper.writeValueAsString(users);
-        return ResponseEntity.ok().body(body);
+    public Iterable<UserView> users() {
+        // serialized by whichever converter the Accept header picks, JSON by default
+        Iterable<UserView> users = userRepository.findAllViews();
+        return users;
     }
 }
\ No newline at end of file
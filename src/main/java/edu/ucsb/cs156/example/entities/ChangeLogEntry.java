@@ -0,0 +1,51 @@
+package edu.ucsb.cs156.example.entities;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import edu.ucsb.cs156.example.models.ChangeType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * One row per write made through the entity controllers.  seq is the
+ * monotonic change sequence clients pass back as ?since=.  Deletes are
+ * recorded as tombstones: changeType DELETED with no payload.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "changelog")
+@Table(indexes = @Index(name = "changelog_entity_type_seq", columnList = "entityType,seq"))
+public class ChangeLogEntry {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long seq;
+
+  private String entityType;
+  private String entityId;
+
+  @Enumerated(EnumType.STRING)
+  private ChangeType changeType;
+
+  private Instant timestamp;
+
+  @JsonRawValue
+  @Column(columnDefinition = "TEXT")
+  private String payload;
+}
@@ -0,0 +1,12 @@
+package edu.ucsb.cs156.example.errors;
+
+/**
+ * Something wrong with what the client sent, e.g. an unknown format or a
+ * CSV with the wrong columns; ApiController turns it into a 400 with this
+ * message. Other IllegalArgumentExceptions are bugs and stay 500s.
+ */
+public class BadRequestException extends IllegalArgumentException {
+  public BadRequestException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package edu.ucsb.cs156.example.errors;
+
+public class UnknownEntityTypeException extends RuntimeException {
+  public UnknownEntityTypeException(String entityType) {
+    super("No entity type %s".formatted(entityType));
+  }
+}
@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class Column {
+
+  public enum Type {
+    INT64(1), STRING(2);
+
+    final int code;
+
+    Type(int code) {
+      this.code = code;
+    }
+
+    static Type of(int code) {
+      for (Type type : values()) {
+        if (type.code == code) {
+          return type;
+        }
+      }
+      throw new IllegalArgumentException("unknown column type " + code);
+    }
+  }
+
+  private String name;
+  private Type type;
+}
@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.export;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads what a ColumnarWriter wrote, one row group at a time. For Java
+ * clients of the export endpoints, and the tests.
+ */
+public class ColumnarReader {
+
+  private final DataInputStream in;
+  private final List<Column> columns;
+  private boolean done;
+
+  public ColumnarReader(InputStream in) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(in));
+    byte[] magic = new byte[ColumnarWriter.MAGIC.length];
+    this.in.readFully(magic);
+    int version = this.in.readUnsignedByte();
+    if (!Arrays.equals(magic, ColumnarWriter.MAGIC) || version != ColumnarWriter.VERSION) {
+      throw new IOException("not a version %d columnar export".formatted(ColumnarWriter.VERSION));
+    }
+    int count = (int) readVarint(this.in);
+    List<Column> columns = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] name = new byte[(int) readVarint(this.in)];
+      this.in.readFully(name);
+      columns.add(new Column(new String(name, StandardCharsets.UTF_8), Column.Type.of(this.in.readUnsignedByte())));
+    }
+    this.columns = Collections.unmodifiableList(columns);
+  }
+
+  public List<Column> getColumns() {
+    return columns;
+  }
+
+  /**
+   * The rows of the next row group, each with a Long or String (or null)
+   * per column; or null after the last one.
+   */
+  public List<Object[]> nextRowGroup() throws IOException {
+    if (done) {
+      return null;
+    }
+    int rows = (int) readVarint(in);
+    if (rows == 0) {
+      done = true;
+      return null;
+    }
+    Object[][] values = new Object[rows][columns.size()];
+    for (int i = 0; i < columns.size(); i++) {
+      byte[] block = new byte[(int) readVarint(in)];
+      in.readFully(block);
+      DataInputStream column = new DataInputStream(new ByteArrayInputStream(block));
+      if (columns.get(i).getType() == Column.Type.INT64) {
+        byte[] nulls = new byte[(rows + 7) / 8];
+        column.readFully(nulls);
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+          if ((nulls[row >>> 3] & (1 << (row & 7))) == 0) {
+            long zigzag = readVarint(column);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[row][i] = previous;
+          }
+        }
+      } else {
+        for (int row = 0; row < rows; row++) {
+          long length = readVarint(column);
+          if (length > 0) {
+            byte[] bytes = new byte[(int) length - 1];
+            column.readFully(bytes);
+            values[row][i] = new String(bytes, StandardCharsets.UTF_8);
+          }
+        }
+      }
+    }
+    return Arrays.asList(values);
+  }
+
+  static long readVarint(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException("columnar export ends in the middle of a value");
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("varint is too long");
+  }
+}
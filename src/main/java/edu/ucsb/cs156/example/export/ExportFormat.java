@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+import edu.ucsb.cs156.example.errors.BadRequestException;
+
+public enum ExportFormat {
+  CSV(CsvRowWriter.MEDIA_TYPE + ";charset=UTF-8", "csv"),
+  COLUMNAR(ColumnarWriter.MEDIA_TYPE, "ucol");
+
+  private final String mediaType;
+  private final String extension;
+
+  ExportFormat(String mediaType, String extension) {
+    this.mediaType = mediaType;
+    this.extension = extension;
+  }
+
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  /** @throws BadRequestException if it is not csv or columnar */
+  public static ExportFormat parse(String format) {
+    try {
+      return valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("format \"%s\" should be csv or columnar".formatted(format));
+    }
+  }
+
+  public RowWriter writer(List<Column> columns, OutputStream out, int rowGroupSize) throws IOException {
+    return this == CSV ? new CsvRowWriter(columns, out) : new ColumnarWriter(columns, out, rowGroupSize);
+  }
+}
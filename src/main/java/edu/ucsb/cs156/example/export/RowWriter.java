@@ -0,0 +1,13 @@
+package edu.ucsb.cs156.example.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes rows of an export, one at a time, in the order of the columns it
+ * was created with. close() finishes the output but does not close the
+ * stream it was given.
+ */
+public interface RowWriter extends Closeable {
+  void write(Object[] row) throws IOException;
+}
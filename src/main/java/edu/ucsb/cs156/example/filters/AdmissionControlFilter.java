@@ -0,0 +1,141 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admission control for /api/ requests.
+ *
+ * Each (user, endpoint) pair gets a token bucket of app.admission.burst
+ * requests refilled at app.admission.requestsPerSecond, and each endpoint
+ * may have at most app.admission.maxConcurrentPerEndpoint requests in
+ * flight. A request that is over either limit is answered immediately with
+ * 429 and a Retry-After header rather than queueing for a Tomcat thread or
+ * a database connection. It runs after Spring Security, so the user is
+ * known, but before the other application filters.
+ */
+
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+  // catches endpoints seen after the maps are full, so they stay bounded
+  private static final String OVERFLOW_KEY = "*";
+
+  @Autowired
+  CurrentUserService currentUserService;
+
+  private final boolean enabled;
+  private final double requestsPerSecond;
+  private final double burst;
+  private final int maxConcurrentPerEndpoint;
+  private final long acquireTimeoutMillis;
+  private final int maxKeys;
+  private final LongSupplier clock = System::nanoTime;
+
+  private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  private final Map<String, Semaphore> inFlight = new ConcurrentHashMap<>();
+
+  public AdmissionControlFilter(
+      @Value("${app.admission.enabled:true}") boolean enabled,
+      @Value("${app.admission.requestsPerSecond:20}") double requestsPerSecond,
+      @Value("${app.admission.burst:40}") double burst,
+      @Value("${app.admission.maxConcurrentPerEndpoint:32}") int maxConcurrentPerEndpoint,
+      @Value("${app.admission.acquireTimeoutMillis:50}") long acquireTimeoutMillis,
+      @Value("${app.admission.maxKeys:10000}") int maxKeys) {
+    this.enabled = enabled;
+    this.requestsPerSecond = requestsPerSecond;
+    this.burst = burst;
+    this.maxConcurrentPerEndpoint = maxConcurrentPerEndpoint;
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+    this.maxKeys = maxKeys;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled || !request.getRequestURI().startsWith("/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String endpoint = request.getMethod() + " " + request.getRequestURI();
+    String user = currentUserService.getPrincipalName();
+    String userKey = (user == null ? "ip:" + request.getRemoteAddr() : user) + " " + endpoint;
+
+    long waitNanos = bucketFor(userKey).tryConsume();
+    if (waitNanos > 0) {
+      reject(response, waitNanos, "Rate limit exceeded for %s".formatted(endpoint));
+      return;
+    }
+
+    Semaphore permits = semaphoreFor(endpoint);
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      reject(response, TimeUnit.SECONDS.toNanos(1), "Too many concurrent requests for %s".formatted(endpoint));
+      return;
+    }
+
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private TokenBucket bucketFor(String key) {
+    TokenBucket bucket = buckets.get(key);
+    if (bucket != null) {
+      return bucket;
+    }
+    if (buckets.size() >= maxKeys) {
+      // buckets that have refilled completely carry no state worth keeping
+      buckets.values().removeIf(TokenBucket::isFull);
+    }
+    return buckets.computeIfAbsent(key, k -> new TokenBucket(burst, requestsPerSecond, clock));
+  }
+
+  private Semaphore semaphoreFor(String endpoint) {
+    Semaphore semaphore = inFlight.get(endpoint);
+    if (semaphore != null) {
+      return semaphore;
+    }
+    String key = inFlight.size() >= maxKeys ? OVERFLOW_KEY : endpoint;
+    return inFlight.computeIfAbsent(key, k -> new Semaphore(maxConcurrentPerEndpoint));
+  }
+
+  private void reject(HttpServletResponse response, long retryAfterNanos, String message) throws IOException {
+    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+    log.info("429: {} (retry after {}s)", message, retryAfterSeconds);
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), message);
+  }
+}
@@ -0,0 +1,140 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.filters.IdempotencyStore.CachedResponse;
+import edu.ucsb.cs156.example.filters.IdempotencyStore.Claim;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Honors an Idempotency-Key header on POST requests to /api/.
+ *
+ * The first request with a given key (per user and URI) runs normally and,
+ * if it succeeds, its response is kept for app.idempotency.ttlSeconds.
+ * Retries with the same key get that response replayed, with an
+ * Idempotent-Replayed header, instead of inserting again. A duplicate that
+ * arrives while the first is still running waits for it. Reusing a key with
+ * different parameters is rejected with 422.
+ */
+
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private final IdempotencyStore store;
+  private final long waitMillis;
+
+  public IdempotencyFilter(
+      @Value("${app.idempotency.maxEntries:10000}") int maxEntries,
+      @Value("${app.idempotency.ttlSeconds:86400}") long ttlSeconds,
+      @Value("${app.idempotency.waitMillis:10000}") long waitMillis) {
+    this.store = new IdempotencyStore(maxEntries, ttlSeconds);
+    this.waitMillis = waitMillis;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !"POST".equals(request.getMethod())
+        || request.getHeader(HEADER) == null
+        || !request.getRequestURI().startsWith("/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String key = "%s %s %s".formatted(principalName(), request.getRequestURI(), request.getHeader(HEADER));
+    String fingerprint = Objects.toString(request.getQueryString(), "");
+
+    // a second pass only happens when the owner we waited on gave up the key
+    for (int attempt = 0; attempt < 2; attempt++) {
+      Claim claim = store.claim(key, fingerprint);
+      IdempotencyStore.Entry entry = claim.getEntry();
+
+      if (!entry.getFingerprint().equals(fingerprint)) {
+        response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+            "Idempotency-Key was already used with different parameters");
+        return;
+      }
+
+      if (claim.getOwner()) {
+        runAndRemember(request, response, chain, entry);
+        return;
+      }
+
+      CachedResponse cached;
+      try {
+        cached = entry.getResult().get(waitMillis, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        response.sendError(HttpStatus.CONFLICT.value(), "A request with this Idempotency-Key is still in progress");
+        return;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+        return;
+      } catch (ExecutionException e) {
+        cached = null;
+      }
+
+      if (cached != null) {
+        replay(response, cached);
+        return;
+      }
+    }
+    response.sendError(HttpStatus.CONFLICT.value(), "A request with this Idempotency-Key did not complete");
+  }
+
+  private void runAndRemember(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+      IdempotencyStore.Entry entry) throws ServletException, IOException {
+    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    boolean remembered = false;
+    try {
+      chain.doFilter(request, wrapper);
+      if (wrapper.getStatus() / 100 == 2) {
+        store.complete(entry, new CachedResponse(wrapper.getStatus(), wrapper.getContentType(),
+            wrapper.getContentAsByteArray()));
+        remembered = true;
+      }
+    } finally {
+      if (!remembered) {
+        store.abandon(entry);
+      }
+      wrapper.copyBodyToResponse();
+    }
+  }
+
+  private void replay(HttpServletResponse response, CachedResponse cached) throws IOException {
+    log.info("replaying response for Idempotency-Key");
+    response.setStatus(cached.getStatus());
+    if (cached.getContentType() != null) {
+      response.setContentType(cached.getContentType());
+    }
+    response.setHeader(REPLAYED_HEADER, "true");
+    response.setContentLength(cached.getBody().length);
+    response.getOutputStream().write(cached.getBody());
+  }
+
+  private static String principalName() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication == null ? "anonymous" : authentication.getName();
+  }
+}
@@ -0,0 +1,178 @@
+package edu.ucsb.cs156.example.filters;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Bounded, TTL-evicted map of idempotency key to the response of the
+ * request that first used it.
+ *
+ * The first request to claim a key becomes its owner and must call either
+ * complete() or abandon(). Concurrent requests with the same key get the
+ * owner's entry back and wait on its result instead of running again.
+ * Every entry lives for the same ttl, so insertion order is also expiry
+ * order and a FIFO queue is enough to evict.
+ *
+ * Only entries still in the map count towards maxEntries. An entry whose
+ * request is still running is never evicted to make room, since a retry
+ * would then run it a second time; when one is at the head of the queue
+ * it goes to the back instead, so the store can briefly hold more than
+ * maxEntries while that many requests are in flight.
+ */
+public class IdempotencyStore {
+
+  @Data
+  @AllArgsConstructor
+  public static class CachedResponse {
+    private int status;
+    private String contentType;
+    private byte[] body;
+  }
+
+  public static class Entry {
+    final String key;
+    final String fingerprint;
+    final long createdAtNanos;
+    final CompletableFuture<CachedResponse> result = new CompletableFuture<>();
+    // set once it has left the map, however that happened
+    final AtomicBoolean removed = new AtomicBoolean();
+
+    Entry(String key, String fingerprint, long createdAtNanos) {
+      this.key = key;
+      this.fingerprint = fingerprint;
+      this.createdAtNanos = createdAtNanos;
+    }
+
+    public String getFingerprint() {
+      return fingerprint;
+    }
+
+    public CompletableFuture<CachedResponse> getResult() {
+      return result;
+    }
+  }
+
+  @Data
+  @AllArgsConstructor
+  public static class Claim {
+    private Entry entry;
+    private boolean owner;
+  }
+
+  private final int maxEntries;
+  private final long ttlNanos;
+  private final LongSupplier clock;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  // may still hold entries that have left the map; they are skipped
+  private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+  // entries in the map; ConcurrentHashMap.size() is only an estimate under updates
+  private final AtomicInteger live = new AtomicInteger();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  public IdempotencyStore(int maxEntries, long ttlSeconds) {
+    this(maxEntries, ttlSeconds, System::nanoTime);
+  }
+
+  IdempotencyStore(int maxEntries, long ttlSeconds, LongSupplier clock) {
+    this.maxEntries = maxEntries;
+    this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    this.clock = clock;
+  }
+
+  public Claim claim(String key, String fingerprint) {
+    evict();
+    long now = clock.getAsLong();
+    Entry fresh = new Entry(key, fingerprint, now);
+    Entry entry = entries.compute(key, (k, existing) -> {
+      if (existing != null && !isExpired(existing, now)) {
+        return existing;
+      }
+      if (existing != null) {
+        removed(existing);
+      }
+      return fresh;
+    });
+    if (entry == fresh) {
+      live.incrementAndGet();
+      insertionOrder.add(fresh);
+      return new Claim(fresh, true);
+    }
+    return new Claim(entry, false);
+  }
+
+  public void complete(Entry entry, CachedResponse response) {
+    entry.result.complete(response);
+  }
+
+  /**
+   * The owner did not produce a cacheable response; forget the key so a
+   * retry can run the request again. Waiters are woken with null.
+   */
+  public void abandon(Entry entry) {
+    if (entries.remove(entry.key, entry)) {
+      removed(entry);
+    }
+    entry.result.complete(null);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return now - entry.createdAtNanos > ttlNanos;
+  }
+
+  private void removed(Entry entry) {
+    if (entry.removed.compareAndSet(false, true)) {
+      live.decrementAndGet();
+    }
+  }
+
+  private void evict() {
+    // one thread evicting at a time is plenty; the others just move on
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      long now = clock.getAsLong();
+      int requeued = 0;
+      Entry head;
+      while ((head = insertionOrder.peek()) != null) {
+        if (head.removed.get()) {
+          insertionOrder.poll();
+          continue;
+        }
+        boolean expired = isExpired(head, now);
+        if (!expired && live.get() < maxEntries) {
+          break;
+        }
+        insertionOrder.poll();
+        if (!expired && !head.result.isDone()) {
+          insertionOrder.add(head);
+          if (++requeued >= live.get()) {
+            // everything left is in flight
+            break;
+          }
+          continue;
+        }
+        if (entries.remove(head.key, head)) {
+          removed(head);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.export.ColumnarWriter;
+import edu.ucsb.cs156.example.export.CsvRowWriter;
+import edu.ucsb.cs156.example.instrumentation.RequestStatistics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Reports what each /api request cost in SQL: how many statements it ran,
+ * how many rows it read, and how long it spent in JDBC and in serializing
+ * the response (see RequestStatistics).
+ *
+ * Requests that run more than app.requestStatistics.statementThreshold
+ * statements are logged, since that is usually an N+1 query. If there is a
+ * MeterRegistry, every request is recorded under app.requests.sql.* and
+ * app.requests.serialization tagged by method and URI pattern. With
+ * app.requestStatistics.headers=true (the development profile) the numbers
+ * are also returned as X-SQL-Statements, X-SQL-Rows and Server-Timing
+ * headers. The response is buffered for that, except for streams of any
+ * size: whether to buffer is decided when the body is first written, so
+ * async responses (event streams) and streaming content types (NDJSON,
+ * CSV and columnar exports) go straight through and get no headers.
+ */
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+
+  public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+  public static final String ROWS_HEADER = "X-SQL-Rows";
+  public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+  private final boolean enabled;
+  private final boolean headers;
+  private final int statementThreshold;
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  public RequestStatisticsFilter(
+      @Value("${app.requestStatistics.enabled:true}") boolean enabled,
+      @Value("${app.requestStatistics.headers:false}") boolean headers,
+      @Value("${app.requestStatistics.statementThreshold:10}") int statementThreshold,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this.enabled = enabled;
+    this.headers = headers;
+    this.statementThreshold = statementThreshold;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled || !request.getRequestURI().startsWith("/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    BufferingResponse wrapper = headers ? new BufferingResponse(request, response) : null;
+    RequestStatistics statistics = RequestStatistics.start();
+    try {
+      chain.doFilter(request, wrapper != null ? wrapper : response);
+    } finally {
+      RequestStatistics.end();
+      boolean buffered = wrapper != null && !wrapper.isStreaming();
+      report(request, response, statistics, buffered);
+      if (buffered) {
+        wrapper.copyBodyToResponse();
+      }
+    }
+  }
+
+  private void report(HttpServletRequest request, HttpServletResponse response, RequestStatistics statistics,
+      boolean addHeaders) {
+    String uri = uriPattern(request);
+    if (statistics.getStatements() > statementThreshold) {
+      log.warn("{} {} ran {} SQL statements (threshold {}), read {} rows, {} ms in JDBC", request.getMethod(),
+          request.getRequestURI(), statistics.getStatements(), statementThreshold, statistics.getRowsFetched(),
+          TimeUnit.NANOSECONDS.toMillis(statistics.getJdbcNanos()));
+    }
+
+    MeterRegistry registry = meterRegistry.getIfAvailable();
+    if (registry != null) {
+      Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+      DistributionSummary.builder("app.requests.sql.statements").tags(tags).register(registry)
+          .record(statistics.getStatements());
+      DistributionSummary.builder("app.requests.sql.rows").tags(tags).register(registry)
+          .record(statistics.getRowsFetched());
+      registry.timer("app.requests.sql.time", tags).record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+      registry.timer("app.requests.serialization.time", tags)
+          .record(statistics.getSerializationNanos(), TimeUnit.NANOSECONDS);
+      if (statistics.getStatements() > statementThreshold) {
+        registry.counter("app.requests.sql.threshold.exceeded", tags).increment();
+      }
+    }
+
+    if (addHeaders && !response.isCommitted()) {
+      response.setHeader(STATEMENTS_HEADER, Integer.toString(statistics.getStatements()));
+      response.setHeader(ROWS_HEADER, Long.toString(statistics.getRowsFetched()));
+      response.setHeader(SERVER_TIMING_HEADER, String.format(Locale.ROOT,
+          "db;dur=%.3f, serialize;dur=%.3f, total;dur=%.3f", millis(statistics.getJdbcNanos()),
+          millis(statistics.getSerializationNanos()), millis(statistics.getElapsedNanos())));
+    }
+  }
+
+
+  // the mapping (e.g. /api/shoes) rather than the raw URI, to keep the number of metrics bounded
+  private static String uriPattern(HttpServletRequest request) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern == null ? "UNKNOWN" : pattern.toString();
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  /**
+   * Buffers the body so the headers can still be added at the end, unless
+   * by the time the body is opened the request has gone async or the
+   * content type is one that is streamed; then it writes straight through.
+   */
+  private static final class BufferingResponse extends ContentCachingResponseWrapper {
+
+    private static final List<MediaType> STREAMED = List.of(MediaType.TEXT_EVENT_STREAM,
+        MediaType.APPLICATION_NDJSON, MediaType.parseMediaType(CsvRowWriter.MEDIA_TYPE),
+        MediaType.parseMediaType(ColumnarWriter.MEDIA_TYPE));
+
+    private final HttpServletRequest request;
+    private Boolean streaming;
+
+    BufferingResponse(HttpServletRequest request, HttpServletResponse response) {
+      super(response);
+      this.request = request;
+    }
+
+    boolean isStreaming() {
+      if (streaming == null) {
+        streaming = request.isAsyncStarted() || isStreamed(getContentType());
+      }
+      return streaming;
+    }
+
+    private static boolean isStreamed(String contentType) {
+      if (contentType == null) {
+        return false;
+      }
+      try {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return STREAMED.stream().anyMatch(mediaType::equalsTypeAndSubtype);
+      } catch (InvalidMediaTypeException e) {
+        return false;
+      }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      return isStreaming() ? getResponse().getOutputStream() : super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      return isStreaming() ? getResponse().getWriter() : super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      if (isStreaming()) {
+        getResponse().flushBuffer();
+      } else {
+        super.flushBuffer();
+      }
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.services.SessionTokenService;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates each request from the SESSION_TOKEN cookie when sessions
+ * are stateless (see SessionTokenService), renewing the token once it is
+ * past half its lifetime. A cookie that is no longer valid is removed and
+ * the request carries on unauthenticated.
+ *
+ * Not a @Component: SecurityConfig adds it to the Spring Security filter
+ * chain, so that it runs before the authorization checks.
+ */
+
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+  private final SessionTokenService sessionTokenService;
+
+  public SessionTokenFilter(SessionTokenService sessionTokenService) {
+    this.sessionTokenService = sessionTokenService;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    Optional<String> token = sessionTokenService.readCookie(request);
+    if (token.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+      Optional<Jwt> jwt = sessionTokenService.verify(token.get());
+      if (jwt.isPresent()) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(sessionTokenService.authentication(jwt.get()));
+        SecurityContextHolder.setContext(context);
+        sessionTokenService.renew(jwt.get())
+            .ifPresent(renewed -> sessionTokenService.writeCookie(request, response, renewed));
+      } else {
+        sessionTokenService.clearCookie(request, response);
+      }
+    }
+    chain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,50 @@
+package edu.ucsb.cs156.example.filters;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Classic token bucket: holds up to capacity tokens and refills at
+ * tokensPerSecond. Each request takes one token.
+ */
+public class TokenBucket {
+
+  private final double capacity;
+  private final double tokensPerNano;
+  private final LongSupplier clock;
+
+  private double tokens;
+  private long lastRefillNanos;
+
+  public TokenBucket(double capacity, double tokensPerSecond, LongSupplier clock) {
+    this.capacity = capacity;
+    this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+    this.clock = clock;
+    this.tokens = capacity;
+    this.lastRefillNanos = clock.getAsLong();
+  }
+
+  /**
+   * @return 0 if a token was taken, otherwise the nanoseconds until one
+   *         will be available
+   */
+  public synchronized long tryConsume() {
+    refill();
+    if (tokens >= 1) {
+      tokens -= 1;
+      return 0;
+    }
+    return (long) Math.ceil((1 - tokens) / tokensPerNano);
+  }
+
+  /** A full bucket has not been used recently and can be forgotten. */
+  public synchronized boolean isFull() {
+    refill();
+    return tokens >= capacity;
+  }
+
+  private void refill() {
+    long now = clock.getAsLong();
+    tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+    lastRefillNanos = now;
+  }
+}
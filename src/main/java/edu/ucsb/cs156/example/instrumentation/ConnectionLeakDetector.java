@@ -0,0 +1,146 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import edu.ucsb.cs156.example.models.HeldConnection;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Reports connections that have been out of the pool for longer than a
+ * threshold, naming the controller method that took them.
+ *
+ * HikariCP's own leakDetectionThreshold logs a stack trace, which has to be
+ * read to find the culprit, and says nothing once the connection comes
+ * back. This records the handler (e.g. ShoeController.getById) and request
+ * when a connection is handed out, checks in the background, and logs each
+ * leak once when it is found and once when the connection is finally
+ * returned. Leaks are counted in app.datasource.connections.leaked, tagged
+ * by handler, and those still open are listed by the connectionleaks
+ * actuator endpoint.
+ */
+@Slf4j
+public class ConnectionLeakDetector implements JdbcListener, AutoCloseable {
+
+  private final long thresholdNanos;
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+  private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService checker;
+
+  private static class Lease {
+    final String handler;
+    final String request;
+    final String thread;
+    final Instant acquiredAt = Instant.now();
+    final long acquiredNanos = System.nanoTime();
+    volatile boolean reported;
+
+    Lease(String handler, String request, String thread) {
+      this.handler = handler;
+      this.request = request;
+      this.thread = thread;
+    }
+
+    long heldMillis(long now) {
+      return TimeUnit.NANOSECONDS.toMillis(now - acquiredNanos);
+    }
+  }
+
+  public ConnectionLeakDetector(long thresholdMillis, ObjectProvider<MeterRegistry> meterRegistry) {
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    this.meterRegistry = meterRegistry;
+    this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "connection-leak-detector");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(100, thresholdMillis / 2);
+    checker.scheduleAtFixedRate(this::check, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void connectionOpened(Connection connection) {
+    String handler = null;
+    String request = null;
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes instanceof ServletRequestAttributes servletAttributes) {
+      HttpServletRequest servletRequest = servletAttributes.getRequest();
+      request = servletRequest.getMethod() + " " + servletRequest.getRequestURI();
+      if (servletRequest.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method) {
+        handler = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+      }
+    }
+    leases.put(connection, new Lease(handler, request, Thread.currentThread().getName()));
+  }
+
+  @Override
+  public void connectionClosed(Connection connection) {
+    Lease lease = leases.remove(connection);
+    if (lease != null && lease.reported) {
+      log.info("connection taken by {} was returned after {} ms", describe(lease), lease.heldMillis(System.nanoTime()));
+    }
+  }
+
+  /** Logs and counts connections newly over the threshold; runs in the background. */
+  void check() {
+    long now = System.nanoTime();
+    for (Lease lease : leases.values()) {
+      if (lease.reported || now - lease.acquiredNanos < thresholdNanos) {
+        continue;
+      }
+      lease.reported = true;
+      log.warn("possible connection leak: held for {} ms by {}", lease.heldMillis(now), describe(lease));
+      MeterRegistry registry = meterRegistry.getIfAvailable();
+      if (registry != null) {
+        registry.counter("app.datasource.connections.leaked",
+            "handler", lease.handler == null ? "none" : lease.handler).increment();
+      }
+    }
+  }
+
+  /** Connections out of the pool for longer than the threshold, longest first. */
+  public List<HeldConnection> getHeld() {
+    long now = System.nanoTime();
+    return leases.values().stream()
+        .filter(lease -> now - lease.acquiredNanos >= thresholdNanos)
+        .sorted(Comparator.comparingLong(lease -> lease.acquiredNanos))
+        .map(lease -> HeldConnection.builder()
+            .handler(lease.handler)
+            .request(lease.request)
+            .thread(lease.thread)
+            .acquiredAt(lease.acquiredAt)
+            .heldMillis(lease.heldMillis(now))
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  private static String describe(Lease lease) {
+    if (lease.handler == null && lease.request == null) {
+      return "thread " + lease.thread;
+    }
+    return "%s (%s) on thread %s".formatted(lease.handler, lease.request, lease.thread);
+  }
+
+  @Override
+  public void close() {
+    checker.shutdownNow();
+  }
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import edu.ucsb.cs156.example.models.HeldConnection;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/** /actuator/connectionleaks: connections the ConnectionLeakDetector currently considers leaked. */
+@Endpoint(id = "connectionleaks")
+public class ConnectionLeaksEndpoint {
+
+  private final ConnectionLeakDetector detector;
+
+  public ConnectionLeaksEndpoint(ConnectionLeakDetector detector) {
+    this.detector = detector;
+  }
+
+  @ReadOperation
+  public List<HeldConnection> held() {
+    return detector.getHeld();
+  }
+}
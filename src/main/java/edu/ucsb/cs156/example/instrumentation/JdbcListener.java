@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Callbacks from a DataSource wrapped by JdbcProxies. They run on the
+ * thread doing the JDBC work, before the call returns to its caller, so
+ * they must be cheap in the common case.
+ */
+public interface JdbcListener {
+
+  /**
+   * Whether PreparedStatement bind values should be recorded for
+   * statementExecuted. That costs a little on every set call, so it is off
+   * unless some listener needs it.
+   */
+  default boolean capturesParameters() {
+    return false;
+  }
+
+  /** A statement (or batch) finished executing, successfully or not. */
+  default void statementExecuted(StatementExecution execution) {
+  }
+
+  /** ResultSet.next() was called; rowFetched is true if it returned a row. */
+  default void resultSetNext(boolean rowFetched, long nanos) {
+  }
+
+  /**
+   * getConnection() handed out a connection. This is the unwrapped one, so
+   * it is the same object that connectionClosed gets.
+   */
+  default void connectionOpened(Connection connection) {
+  }
+
+  /** A connection from connectionOpened was closed, i.e. returned to the pool. */
+  default void connectionClosed(Connection connection) {
+  }
+
+  static JdbcListener of(List<JdbcListener> listeners) {
+    if (listeners.size() == 1) {
+      return listeners.get(0);
+    }
+    List<JdbcListener> all = List.copyOf(listeners);
+    boolean capturesParameters = all.stream().anyMatch(JdbcListener::capturesParameters);
+    return new JdbcListener() {
+      @Override
+      public boolean capturesParameters() {
+        return capturesParameters;
+      }
+
+      @Override
+      public void statementExecuted(StatementExecution execution) {
+        for (JdbcListener listener : all) {
+          listener.statementExecuted(execution);
+        }
+      }
+
+      @Override
+      public void resultSetNext(boolean rowFetched, long nanos) {
+        for (JdbcListener listener : all) {
+          listener.resultSetNext(rowFetched, nanos);
+        }
+      }
+
+      @Override
+      public void connectionOpened(Connection connection) {
+        for (JdbcListener listener : all) {
+          listener.connectionOpened(connection);
+        }
+      }
+
+      @Override
+      public void connectionClosed(Connection connection) {
+        for (JdbcListener listener : all) {
+          listener.connectionClosed(connection);
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,157 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps a DataSource so that every statement it hands out reports to a
+ * JdbcListener. Plain JDK proxies, so it works with any driver and pool;
+ * unwrap() still reaches the real objects (e.g. HikariDataSource).
+ */
+public final class JdbcProxies {
+
+  private JdbcProxies() {
+  }
+
+  public static DataSource wrap(DataSource dataSource, JdbcListener listener) {
+    return proxy(DataSource.class, dataSource, (target, method, args) -> {
+      Object result = invoke(target, method, args);
+      if (!(result instanceof Connection connection)) {
+        return result;
+      }
+      listener.connectionOpened(connection);
+      return connection(connection, listener);
+    });
+  }
+
+  private static Connection connection(Connection connection, JdbcListener listener) {
+    AtomicBoolean closed = new AtomicBoolean();
+    return proxy(Connection.class, connection, (target, method, args) -> {
+      if (method.getName().equals("close")) {
+        try {
+          return invoke(target, method, args);
+        } finally {
+          // close() may be called more than once; report it once
+          if (closed.compareAndSet(false, true)) {
+            listener.connectionClosed(target);
+          }
+        }
+      }
+      Object result = invoke(target, method, args);
+      String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+      if (result instanceof CallableStatement statement) {
+        return statement(CallableStatement.class, statement, sql, listener);
+      }
+      if (result instanceof PreparedStatement statement) {
+        return statement(PreparedStatement.class, statement, sql, listener);
+      }
+      if (result instanceof Statement statement) {
+        return statement(Statement.class, statement, null, listener);
+      }
+      return result;
+    });
+  }
+
+  private static <T extends Statement> T statement(Class<T> type, T statement, String preparedSql,
+      JdbcListener listener) {
+    // bind values by parameter index, for PreparedStatements when a listener wants them
+    Map<Integer, Object> parameters = listener.capturesParameters() && preparedSql != null ? new TreeMap<>() : null;
+    AtomicInteger batched = new AtomicInteger();
+    return proxy(type, statement, (target, method, args) -> {
+      String name = method.getName();
+      if (!name.startsWith("execute")) {
+        if (name.equals("addBatch")) {
+          batched.incrementAndGet();
+        } else if (name.equals("clearBatch")) {
+          batched.set(0);
+        } else if (parameters != null) {
+          captureParameter(parameters, name, args);
+        }
+        Object result = invoke(target, method, args);
+        return result instanceof ResultSet resultSet && name.equals("getResultSet")
+            ? resultSet(resultSet, listener)
+            : result;
+      }
+      String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+      boolean failed = true;
+      long start = System.nanoTime();
+      try {
+        Object result = invoke(target, method, args);
+        failed = false;
+        return result instanceof ResultSet resultSet ? resultSet(resultSet, listener) : result;
+      } finally {
+        long nanos = System.nanoTime() - start;
+        List<Object> bound = parameters == null ? List.of() : new ArrayList<>(parameters.values());
+        // executing a batch empties it
+        int batchSize = name.endsWith("Batch") ? batched.getAndSet(0) : 0;
+        listener.statementExecuted(
+            new StatementExecution(sql, bound, batchSize, nanos, failed, connectionOf(target)));
+      }
+    });
+  }
+
+  private static void captureParameter(Map<Integer, Object> parameters, String name, Object[] args) {
+    if (name.equals("clearParameters")) {
+      parameters.clear();
+    } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+      // as given, so a listener can bind them again; StatementExecution describes them for display
+      parameters.put(index, name.equals("setNull") ? null : args[1]);
+    }
+  }
+
+  private static ResultSet resultSet(ResultSet resultSet, JdbcListener listener) {
+    return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+      if (!method.getName().equals("next")) {
+        return invoke(target, method, args);
+      }
+      long start = System.nanoTime();
+      boolean next = (Boolean) invoke(target, method, args);
+      listener.resultSetNext(next, System.nanoTime() - start);
+      return next;
+    });
+  }
+
+  private static Connection connectionOf(Statement statement) {
+    try {
+      return statement.getConnection();
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+
+  @FunctionalInterface
+  private interface Handler<T> {
+    Object handle(T target, Method method, Object[] args) throws Throwable;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+    InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+    return (T) Proxy.newProxyInstance(JdbcProxies.class.getClassLoader(), new Class<?>[] { type },
+        invocationHandler);
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
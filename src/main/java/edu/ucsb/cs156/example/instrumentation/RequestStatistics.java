@@ -0,0 +1,86 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+/**
+ * What the current request has cost so far: SQL statements run, rows
+ * read, and time spent in JDBC and in serializing the response.
+ *
+ * One instance per request, bound to the request's thread by
+ * RequestStatisticsFilter; the JDBC proxies and the JSON message converter
+ * add to it. Work done on other threads, or outside a request, is not
+ * counted anywhere.
+ */
+public class RequestStatistics {
+
+  private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+  /** Adds JDBC work to whichever request is running on this thread. */
+  public static final JdbcListener JDBC_LISTENER = new JdbcListener() {
+    @Override
+    public void statementExecuted(StatementExecution execution) {
+      RequestStatistics statistics = CURRENT.get();
+      if (statistics != null) {
+        statistics.statements++;
+        statistics.jdbcNanos += execution.getNanos();
+      }
+    }
+
+    @Override
+    public void resultSetNext(boolean rowFetched, long nanos) {
+      RequestStatistics statistics = CURRENT.get();
+      if (statistics != null) {
+        if (rowFetched) {
+          statistics.rowsFetched++;
+        }
+        statistics.jdbcNanos += nanos;
+      }
+    }
+  };
+
+  private final long startNanos = System.nanoTime();
+  private int statements;
+  private long rowsFetched;
+  private long jdbcNanos;
+  private long serializationNanos;
+
+  public static RequestStatistics start() {
+    RequestStatistics statistics = new RequestStatistics();
+    CURRENT.set(statistics);
+    return statistics;
+  }
+
+  public static void end() {
+    CURRENT.remove();
+  }
+
+  /** The statistics for the request on this thread, or null if there is none. */
+  public static RequestStatistics current() {
+    return CURRENT.get();
+  }
+
+  public static void addSerialization(long nanos) {
+    RequestStatistics statistics = CURRENT.get();
+    if (statistics != null) {
+      statistics.serializationNanos += nanos;
+    }
+  }
+
+  public int getStatements() {
+    return statements;
+  }
+
+  public long getRowsFetched() {
+    return rowsFetched;
+  }
+
+  public long getJdbcNanos() {
+    return jdbcNanos;
+  }
+
+  public long getSerializationNanos() {
+    return serializationNanos;
+  }
+
+  public long getElapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+}
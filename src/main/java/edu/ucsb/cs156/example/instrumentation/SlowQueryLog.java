@@ -0,0 +1,168 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import edu.ucsb.cs156.example.models.SlowQuery;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Keeps the most recent statements that took longer than a threshold,
+ * with their bind values and, optionally, the database's EXPLAIN output.
+ *
+ * Statements under the threshold cost one comparison. Slow ones are logged
+ * and written into a fixed-size ring, overwriting the oldest; writers never
+ * block each other. EXPLAIN runs on the same connection right after the
+ * statement, so it adds to the request that was already slow, and is
+ * skipped for anything that is not a plain SELECT, INSERT, UPDATE or
+ * DELETE. It does not use ANALYZE, so nothing is executed twice.
+ */
+@Slf4j
+public class SlowQueryLog implements JdbcListener {
+
+  private static final Set<String> EXPLAINABLE = Set.of("select", "insert", "update", "delete", "with");
+
+  private final long thresholdNanos;
+  private final boolean explain;
+  private final AtomicReferenceArray<SlowQuery> ring;
+  private final AtomicLong recorded = new AtomicLong();
+
+  public SlowQueryLog(long thresholdMillis, int capacity, boolean explain) {
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    this.explain = explain;
+    this.ring = new AtomicReferenceArray<>(Math.max(1, capacity));
+  }
+
+  @Override
+  public boolean capturesParameters() {
+    return true;
+  }
+
+  @Override
+  public void statementExecuted(StatementExecution execution) {
+    if (execution.getNanos() < thresholdNanos) {
+      return;
+    }
+    SlowQuery slowQuery = SlowQuery.builder()
+        .timestamp(Instant.now())
+        .durationMillis(execution.getNanos() / 1_000_000.0)
+        .sql(execution.getSql())
+        .parameters(execution.getDescribedParameters())
+        .batchSize(execution.getBatchSize())
+        .failed(execution.getFailed())
+        .request(currentRequest())
+        .thread(Thread.currentThread().getName())
+        .plan(explain && !execution.getFailed() ? explain(execution) : null)
+        .build();
+    log.warn("slow query ({} ms{}): {} {}{}", String.format(Locale.ROOT, "%.1f", slowQuery.getDurationMillis()),
+        slowQuery.getRequest() == null ? "" : ", " + slowQuery.getRequest(), slowQuery.getSql(),
+        slowQuery.getParameters(),
+        slowQuery.getBatchSize() == 0 ? "" : " (last of a batch of " + slowQuery.getBatchSize() + ")");
+
+    long slot = recorded.getAndIncrement();
+    ring.set((int) (slot % ring.length()), slowQuery);
+  }
+
+  /** The slow queries still in the ring, newest first. */
+  public List<SlowQuery> getRecent() {
+    long end = recorded.get();
+    long start = Math.max(0, end - ring.length());
+    List<SlowQuery> recent = new ArrayList<>();
+    for (long slot = end - 1; slot >= start; slot--) {
+      SlowQuery slowQuery = ring.get((int) (slot % ring.length()));
+      if (slowQuery != null) {
+        recent.add(slowQuery);
+      }
+    }
+    return recent;
+  }
+
+  /** How many slow queries have been seen, including those since overwritten. */
+  public long getRecordedCount() {
+    return recorded.get();
+  }
+
+  public void clear() {
+    for (int i = 0; i < ring.length(); i++) {
+      ring.set(i, null);
+    }
+  }
+
+  private String explain(StatementExecution execution) {
+    String sql = execution.getSql();
+    Connection connection = execution.getConnection();
+    if (sql == null || connection == null || !EXPLAINABLE.contains(firstWord(sql))) {
+      return null;
+    }
+    Savepoint savepoint = null;
+    try {
+      // on Postgres a failed EXPLAIN would otherwise abort the caller's transaction
+      savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+      // the values as bound, not as logged: a truncated string or "<n bytes>" could change the plan or fail
+      String plan = runExplain(connection, sql, execution.getParameters());
+      if (savepoint != null) {
+        connection.releaseSavepoint(savepoint);
+      }
+      return plan;
+    } catch (SQLException e) {
+      if (savepoint != null) {
+        try {
+          connection.rollback(savepoint);
+        } catch (SQLException rollbackFailure) {
+          e.addSuppressed(rollbackFailure);
+        }
+      }
+      return "EXPLAIN failed: " + e.getMessage();
+    }
+  }
+
+  private static String runExplain(Connection connection, String sql, List<Object> parameters) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+      for (int i = 0; i < parameters.size(); i++) {
+        statement.setObject(i + 1, parameters.get(i));
+      }
+      StringBuilder plan = new StringBuilder();
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          plan.append(resultSet.getString(1)).append('\n');
+        }
+      }
+      return plan.toString().strip();
+    }
+  }
+
+  private static String firstWord(String sql) {
+    String trimmed = sql.stripLeading();
+    int end = 0;
+    while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+      end++;
+    }
+    return trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+  }
+
+  private static String currentRequest() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes instanceof ServletRequestAttributes servletAttributes) {
+      HttpServletRequest request = servletAttributes.getRequest();
+      return request.getMethod() + " " + request.getRequestURI();
+    }
+    return null;
+  }
+}
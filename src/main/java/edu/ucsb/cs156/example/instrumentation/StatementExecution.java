@@ -0,0 +1,61 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One executed statement, as seen by a JdbcListener.
+ */
+@Getter
+@AllArgsConstructor
+public class StatementExecution {
+  private static final int MAX_PARAMETER_LENGTH = 200;
+
+  /** The SQL text, or null if the driver was given none (executeBatch on a plain Statement). */
+  private final String sql;
+  /**
+   * Bind values in parameter order, exactly as they were set; empty unless
+   * a listener asked for them. For a batch, only the last row's. Only valid
+   * during the callback: use getDescribedParameters() for anything kept or
+   * logged.
+   */
+  private final List<Object> parameters;
+  /** How many rows were added to the batch, for executeBatch; 0 for a single statement. */
+  private final int batchSize;
+  private final long nanos;
+  private final boolean failed;
+  /** The unwrapped connection it ran on; only valid during the callback. */
+  private final Connection connection;
+
+  /** The bind values made cheap and readable, e.g. to log or keep. */
+  public List<Object> getDescribedParameters() {
+    List<Object> described = new ArrayList<>(parameters.size());
+    for (Object parameter : parameters) {
+      described.add(describe(parameter));
+    }
+    return described;
+  }
+
+  // never hold on to streams or large values
+  private static Object describe(Object value) {
+    if (value == null || value instanceof Number || value instanceof Boolean) {
+      return value;
+    }
+    if (value instanceof byte[] bytes) {
+      return "<%d bytes>".formatted(bytes.length);
+    }
+    if (value instanceof InputStream || value instanceof Reader || value instanceof Blob || value instanceof Clob) {
+      return "<" + value.getClass().getSimpleName() + ">";
+    }
+    String text = value.toString();
+    return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+  }
+}
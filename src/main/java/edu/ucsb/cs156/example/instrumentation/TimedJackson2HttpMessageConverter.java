@@ -0,0 +1,35 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+/**
+ * A Jackson converter for whatever format the ObjectMapper's factory
+ * writes (e.g. CBOR or Smile), with the time spent writing each response
+ * body added to the current RequestStatistics, like
+ * TimedMappingJackson2HttpMessageConverter does for JSON.
+ */
+public class TimedJackson2HttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+  public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, MediaType... supportedMediaTypes) {
+    super(objectMapper, supportedMediaTypes);
+  }
+
+  @Override
+  protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+      throws IOException, HttpMessageNotWritableException {
+    long start = System.nanoTime();
+    try {
+      super.writeInternal(object, type, outputMessage);
+    } finally {
+      RequestStatistics.addSerialization(System.nanoTime() - start);
+    }
+  }
+}
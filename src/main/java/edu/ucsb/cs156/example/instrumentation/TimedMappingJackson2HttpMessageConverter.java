@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * The usual JSON converter, but the time spent writing each response body
+ * is added to the current RequestStatistics.
+ */
+public class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  public TimedMappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  @Override
+  protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+      throws IOException, HttpMessageNotWritableException {
+    long start = System.nanoTime();
+    try {
+      super.writeInternal(object, type, outputMessage);
+    } finally {
+      RequestStatistics.addSerialization(System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package edu.ucsb.cs156.example.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of records, written into memory-mapped segment files of
+ * a fixed size in one directory.
+ *
+ * Each segment is named after the sequence number of its first record,
+ * zero-padded so that the names sort, and starts with a header
+ *
+ *   int magic | int version | long first sequence
+ *
+ * followed by records of
+ *
+ *   int length | int crc | long sequence | length bytes of payload
+ *
+ * where crc is the CRC32C of the sequence and the payload. The rest of the
+ * segment is zeroes, so a zero length marks the end. When a record does
+ * not fit in what is left of a segment, the segment is cut down to what
+ * was written and the next one is started.
+ *
+ * Appending copies into the mapping, so it costs about as much as the copy;
+ * records reach the disk when the operating system writes the pages back,
+ * or at sync(). A crash can lose the records since the last sync, and may
+ * leave a torn one at the end: when the journal is opened, the last segment
+ * is checked against the CRCs and cut off at the first bad record.
+ *
+ * One Journal per directory; it is safe to use from several threads, and
+ * readers (see read) can run while it is appending.
+ */
+@Slf4j
+public class Journal implements Closeable {
+
+  static final int MAGIC = 0x4A524E4C; // "JRNL"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 16;
+  static final int RECORD_HEADER_BYTES = 16;
+  static final String SUFFIX = ".journal";
+
+  private final Path directory;
+  private final int segmentBytes;
+
+  private FileChannel channel;
+  private MappedByteBuffer segment;
+  private long nextSequence;
+  private boolean closed;
+
+  public Journal(Path directory, int segmentBytes) throws IOException {
+    if (segmentBytes < HEADER_BYTES + RECORD_HEADER_BYTES + 1) {
+      throw new IllegalArgumentException("segments of %d bytes are too small".formatted(segmentBytes));
+    }
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    Files.createDirectories(directory);
+    List<Path> segments = segments(directory);
+    if (segments.isEmpty()) {
+      startSegment(1);
+    } else {
+      reopen(segments.get(segments.size() - 1));
+    }
+  }
+
+  /** The segment files in the directory, oldest first. */
+  static List<Path> segments(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  static long firstSequence(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+  }
+
+  private void startSegment(long firstSequence) throws IOException {
+    Path file = directory.resolve("%020d%s".formatted(firstSequence, SUFFIX));
+    channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    segment.putInt(MAGIC).putInt(VERSION).putLong(firstSequence);
+    nextSequence = firstSequence;
+  }
+
+  private void reopen(Path file) throws IOException {
+    long end;
+    try (JournalReader.SegmentScanner scanner = new JournalReader.SegmentScanner(file)) {
+      while (scanner.next() != null) {
+        // just finding the end
+      }
+      end = scanner.getOffset();
+      nextSequence = scanner.getNextSequence();
+      if (!scanner.isClean()) {
+        log.warn("journal segment {} has a torn or corrupt record at offset {}; cutting it off there", file, end);
+      }
+    }
+    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    channel.truncate(end);
+    segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, end));
+    if (end < HEADER_BYTES) {
+      // created, but the header never made it to disk
+      segment.putInt(MAGIC).putInt(VERSION).putLong(nextSequence);
+    }
+    segment.position((int) Math.max(end, HEADER_BYTES));
+  }
+
+  /**
+   * Adds a record at the end of the journal.
+   *
+   * @return its sequence number, one more than the record before it
+   */
+  public synchronized long append(byte[] payload) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("journal %s is closed".formatted(directory));
+    }
+    if (payload.length == 0) {
+      throw new IllegalArgumentException("records cannot be empty");
+    }
+    int needed = RECORD_HEADER_BYTES + payload.length;
+    if (needed > segmentBytes - HEADER_BYTES) {
+      throw new IllegalArgumentException("a record of %d bytes does not fit in a segment of %d"
+          .formatted(payload.length, segmentBytes));
+    }
+    if (segment.remaining() < needed) {
+      finishSegment();
+      startSegment(nextSequence);
+    }
+
+    long sequence = nextSequence++;
+    int start = segment.position();
+    segment.position(start + Integer.BYTES * 2);
+    segment.putLong(sequence).put(payload);
+    segment.putInt(start + Integer.BYTES, crc(sequence, payload));
+    // the length last, so that readers do not see the record before it is all there
+    segment.putInt(start, payload.length);
+    return sequence;
+  }
+
+  static int crc(long sequence, byte[] payload) {
+    CRC32C crc = new CRC32C();
+    crc.update(ByteBuffer.allocate(Long.BYTES).putLong(sequence).flip());
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  /** Writes everything appended so far to the disk. */
+  public synchronized void sync() {
+    if (!closed) {
+      segment.force();
+    }
+  }
+
+  private void finishSegment() throws IOException {
+    segment.force();
+    channel.truncate(segment.position());
+    channel.close();
+  }
+
+  /** The sequence number the next record will get. */
+  public synchronized long getNextSequence() {
+    return nextSequence;
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /** Reads the records from the given sequence number on, as of now. */
+  public JournalReader read(long fromSequence) throws IOException {
+    return new JournalReader(segments(directory), fromSequence);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      finishSegment();
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package edu.ucsb.cs156.example.journal;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a Journal's records in order, from a given sequence number, across
+ * its segments. The segments are read with ordinary buffered reads rather
+ * than mapped, so the reader is not affected by the journal cutting a
+ * segment down when it moves on to the next one.
+ *
+ * The reader sees the segments that existed when it was created. A bad
+ * record at the end of the last of them is taken to be one that is still
+ * being written, and ends the iteration; anywhere else it is an error.
+ */
+public class JournalReader implements Iterator<JournalRecord>, Closeable {
+
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  private final List<Path> segments;
+  private final long fromSequence;
+  private int index;
+  private SegmentScanner scanner;
+  private JournalRecord next;
+
+  JournalReader(List<Path> segments, long fromSequence) {
+    this.fromSequence = fromSequence;
+    // segments that end before fromSequence do not need to be read at all
+    int first = 0;
+    for (int i = 1; i < segments.size(); i++) {
+      if (Journal.firstSequence(segments.get(i)) <= fromSequence) {
+        first = i;
+      }
+    }
+    this.segments = segments.subList(first, segments.size());
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      try {
+        next = advance();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return next != null;
+  }
+
+  @Override
+  public JournalRecord next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    JournalRecord record = next;
+    next = null;
+    return record;
+  }
+
+  private JournalRecord advance() throws IOException {
+    while (true) {
+      if (scanner == null) {
+        if (index == segments.size()) {
+          return null;
+        }
+        scanner = new SegmentScanner(segments.get(index++));
+      }
+      JournalRecord record = scanner.next();
+      if (record == null) {
+        if (!scanner.isClean() && index < segments.size()) {
+          throw new IOException("journal segment %s has a corrupt record at offset %d"
+              .formatted(scanner.file, scanner.getOffset()));
+        }
+        scanner.close();
+        scanner = null;
+      } else if (record.getSequence() >= fromSequence) {
+        return record;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (scanner != null) {
+      scanner.close();
+      scanner = null;
+    }
+    index = segments.size();
+  }
+
+  /**
+   * The records of one segment. next() returns null at the end, or at the
+   * first record that is cut short, fails its CRC or is out of sequence,
+   * in which case isClean() is false; getOffset() is then where the good
+   * records end.
+   */
+  static class SegmentScanner implements Closeable {
+    private final Path file;
+    private final FileChannel channel;
+    private final DataInputStream in;
+    private final long size;
+    private long offset;
+    private long nextSequence;
+    private boolean clean = true;
+    private boolean done;
+
+    SegmentScanner(Path file) throws IOException {
+      this.file = file;
+      this.channel = FileChannel.open(file);
+      this.size = channel.size();
+      this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_BYTES));
+      this.nextSequence = Journal.firstSequence(file);
+      if (size < Journal.HEADER_BYTES) {
+        done = true;
+        return;
+      }
+      int magic = in.readInt();
+      int version = in.readInt();
+      long firstSequence = in.readLong();
+      if (magic == 0) {
+        // the header never made it to disk, so nor did any records
+        done = true;
+        return;
+      }
+      if (magic != Journal.MAGIC || version != Journal.VERSION || firstSequence != nextSequence) {
+        channel.close();
+        throw new IOException("%s is not a version %d journal segment".formatted(file, Journal.VERSION));
+      }
+      offset = Journal.HEADER_BYTES;
+    }
+
+    JournalRecord next() throws IOException {
+      if (done) {
+        return null;
+      }
+      try {
+        if (size - offset < Journal.RECORD_HEADER_BYTES) {
+          return end(true);
+        }
+        int length = in.readInt();
+        if (length == 0) {
+          return end(true);
+        }
+        int crc = in.readInt();
+        long sequence = in.readLong();
+        if (length < 0 || length > size - offset - Journal.RECORD_HEADER_BYTES || sequence != nextSequence) {
+          return end(false);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        if (crc != Journal.crc(sequence, payload)) {
+          return end(false);
+        }
+        offset += Journal.RECORD_HEADER_BYTES + length;
+        nextSequence++;
+        return new JournalRecord(sequence, payload);
+      } catch (EOFException e) {
+        return end(false);
+      }
+    }
+
+    private JournalRecord end(boolean clean) {
+      this.clean = clean;
+      this.done = true;
+      return null;
+    }
+
+    long getOffset() {
+      return offset;
+    }
+
+    long getNextSequence() {
+      return nextSequence;
+    }
+
+    boolean isClean() {
+      return clean;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package edu.ucsb.cs156.example.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class JournalRecord {
+  private long sequence;
+  private byte[] payload;
+}
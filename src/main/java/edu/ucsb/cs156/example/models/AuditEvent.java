@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.time.Instant;
+
+/**
+ * Who changed what, and the entity before and after: one row of the
+ * audit_log table (see AuditLogService) or one record of the change
+ * journal (see ChangeJournalService). before and after are serialized to
+ * JSON by whoever stores the event.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class AuditEvent {
+  private Instant timestamp;
+  private String principal;
+  private String entityType;
+  private String entityId;
+  private ChangeType changeType;
+  private Object before;
+  private Object after;
+
+  public static AuditEvent from(EntityChangeEvent event, String principal) {
+    boolean deleted = event.getChangeType() == ChangeType.DELETED;
+    return AuditEvent.builder()
+        .timestamp(event.getTimestamp())
+        .principal(principal)
+        .entityType(event.getEntityType())
+        .entityId(event.getEntityId())
+        .changeType(event.getChangeType())
+        .before(deleted ? event.getEntity() : event.getBefore())
+        .after(deleted ? null : event.getEntity())
+        .build();
+  }
+}
@@ -0,0 +1,9 @@
+package edu.ucsb.cs156.example.models;
+
+/** A Book as listed by its /all endpoint, with the same JSON as the entity. */
+public record BookView(
+    long id,
+    String title,
+    String author,
+    String year) {
+}
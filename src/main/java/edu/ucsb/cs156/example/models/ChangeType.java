@@ -0,0 +1,7 @@
+package edu.ucsb.cs156.example.models;
+
+public enum ChangeType {
+  CREATED,
+  UPDATED,
+  DELETED
+}
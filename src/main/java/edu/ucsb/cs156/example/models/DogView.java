@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.models;
+
+/** A Dog as listed by its /all endpoint, with the same JSON as the entity. */
+public record DogView(
+    String name,
+    String breed,
+    String gender) {
+}
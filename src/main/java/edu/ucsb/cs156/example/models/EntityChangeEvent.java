@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.time.Instant;
+
+/**
+ * Published by the controllers (see ApiController.publishChange) when a
+ * create, update or delete has been saved through a repository, in the
+ * same transaction: ChangeLogService records it just before that commits,
+ * and the other listeners only hear of it once it has.
+ *
+ * entityType is the path segment of the controller, e.g. "shoes" for
+ * /api/shoes, so that /api/{entity}/changes can select on it directly.
+ * sequence is filled in by ChangeLogService when the change is recorded.
+ * For UPDATED, before is a snapshot of the entity as it was before the
+ * update (a JsonNode, see ApiController.snapshot); otherwise it is null.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class EntityChangeEvent {
+  private String entityType;
+  private String entityId;
+  private ChangeType changeType;
+  private Object entity;
+  private Object before;
+  private Instant timestamp;
+  private Long sequence;
+}
@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import edu.ucsb.cs156.example.entities.ChangeLogEntry;
+
+import java.util.List;
+
+/**
+ * Response of GET /api/{entity}/changes?since=seq.  changes holds only the
+ * most recent entry for each entity id; pass latest back as since to get
+ * the next batch, and keep going while hasMore is true.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class EntityChanges {
+  private String entityType;
+  private long since;
+  private long latest;
+  private boolean hasMore;
+  private List<ChangeLogEntry> changes;
+}
@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ExecutionInfo {
+  private int javaVersion;
+  private boolean virtualThreadsSupported;
+  private boolean virtualThreadsEnabled;
+  private Integer dbPoolMaximumSize;
+  private Integer dbPoolActive;
+  private Integer dbPoolIdle;
+  private Integer dbPoolPending;
+  private long pinnedCount;
+  private List<String> recentPinnedFrames;
+}
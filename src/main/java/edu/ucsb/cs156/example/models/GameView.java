@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.models;
+
+/** A Game as listed by its /all endpoint, with the same JSON as the entity. */
+public record GameView(
+    String name,
+    String publisher,
+    String rating) {
+}
@@ -0,0 +1,21 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class GeneratedData {
+  private String entityType;
+  private String table;
+  private long rows;
+  private long seed;
+  private int batchSize;
+  private long deleted;
+  private long elapsedMillis;
+}
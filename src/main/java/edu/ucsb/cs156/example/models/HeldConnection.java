@@ -0,0 +1,21 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class HeldConnection {
+  private String handler;
+  private String request;
+  private String thread;
+  private Instant acquiredAt;
+  private long heldMillis;
+}
@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+
+/**
+ * What a CSV import did. Only the first app.import.maxErrors errors are
+ * listed; failed counts them all.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ImportResult {
+  private String entityType;
+  private long rows;
+  private long created;
+  private long updated;
+  private long failed;
+  private List<ImportError> errors;
+  private boolean completed;
+  private long elapsedMillis;
+}
@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.models;
+
+/** A Restaurant as listed by its /all endpoint, with the same JSON as the entity. */
+public record RestaurantView(
+    long id,
+    String name,
+    String description) {
+}
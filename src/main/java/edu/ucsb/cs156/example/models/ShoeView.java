@@ -0,0 +1,9 @@
+package edu.ucsb.cs156.example.models;
+
+/** A Shoe as listed by its /all endpoint, with the same JSON as the entity. */
+public record ShoeView(
+    long id,
+    String name,
+    String color,
+    String brand) {
+}
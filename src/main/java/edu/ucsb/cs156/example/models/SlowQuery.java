@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SlowQuery {
+  private Instant timestamp;
+  private double durationMillis;
+  private String sql;
+  // for a batch, the last row's
+  private List<Object> parameters;
+  // rows in the batch, or 0 if it was not one
+  private int batchSize;
+  private boolean failed;
+  private String request;
+  private String thread;
+  private String plan;
+}
@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class StartupReport {
+  private boolean recorded;
+  private Instant startTime;
+  private Double refreshMillis;
+  private int stepsRecorded;
+  private List<StartupStepTiming> slowestSteps;
+}
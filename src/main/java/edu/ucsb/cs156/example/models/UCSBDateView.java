@@ -0,0 +1,11 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.LocalDateTime;
+
+/** A UCSBDate as listed by its /all endpoint, with the same JSON as the entity. */
+public record UCSBDateView(
+    long id,
+    String quarterYYYYQ,
+    String name,
+    LocalDateTime localDateTime) {
+}
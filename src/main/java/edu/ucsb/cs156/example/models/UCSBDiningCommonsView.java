@@ -0,0 +1,12 @@
+package edu.ucsb.cs156.example.models;
+
+/** A UCSBDiningCommons as listed by its /all endpoint, with the same JSON as the entity. */
+public record UCSBDiningCommonsView(
+    String code,
+    String name,
+    boolean hasSackMeal,
+    boolean hasTakeOutMeal,
+    boolean hasDiningCam,
+    Double latitude,
+    Double longitude) {
+}
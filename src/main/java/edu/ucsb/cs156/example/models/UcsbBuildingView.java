@@ -0,0 +1,10 @@
+package edu.ucsb.cs156.example.models;
+
+/** A UcsbBuilding as listed by its /all endpoint, with the same JSON as the entity. */
+public record UcsbBuildingView(
+    long id,
+    String name,
+    String description,
+    String architecture,
+    String location) {
+}
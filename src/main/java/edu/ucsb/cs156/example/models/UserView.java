@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.example.models;
+
+/** A User as listed by its /all endpoint, with the same JSON as the entity. */
+public record UserView(
+    long id,
+    String email,
+    String googleSub,
+    String pictureUrl,
+    String fullName,
+    String givenName,
+    String familyName,
+    boolean emailVerified,
+    String locale,
+    String hostedDomain,
+    boolean admin) {
+}
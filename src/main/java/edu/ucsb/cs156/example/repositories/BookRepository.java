@@ -1,11 +1,19 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.models.BookView;
 
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @Repository
 public interface BookRepository extends CrudRepository<Book, Long> {
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.BookView(b.id, b.title, b.author, b.year) FROM book b")
+  List<BookView> findAllViews();
 }
\ No newline at end of file
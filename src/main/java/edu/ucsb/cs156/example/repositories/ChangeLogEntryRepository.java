@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.ChangeLogEntry;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeLogEntryRepository extends CrudRepository<ChangeLogEntry, Long> {
+  List<ChangeLogEntry> findByEntityTypeAndSeqGreaterThanAndTimestampBeforeOrderBySeqAsc(String entityType, long seq,
+      Instant before, Pageable pageable);
+}
@@ -1,10 +1,18 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Dog;
+import edu.ucsb.cs156.example.models.DogView;
 
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface DogRepository extends CrudRepository<Dog, String> {
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.DogView(d.name, d.breed, d.gender) FROM dog d")
+  List<DogView> findAllViews();
 }
@@ -1,9 +1,18 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Game;
+import edu.ucsb.cs156.example.models.GameView;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface GameRepository extends CrudRepository<Game, String> {
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.GameView(g.name, g.publisher, g.rating) FROM game g")
+  List<GameView> findAllViews();
 }
@@ -1,9 +1,18 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.models.RestaurantView;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.RestaurantView(r.id, r.name, r.description) FROM Restaurant r")
+  List<RestaurantView> findAllViews();
 }
@@ -1,11 +1,27 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.models.ShoeView;
 
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @Repository
 public interface ShoeRepository extends CrudRepository<Shoe, Long> {
-}
\ No newline at end of file
+  /**
+   * Every shoe, for listing. Like the findAllViews of the other
+   * repositories, this selects the columns straight into immutable records
+   * with a constructor expression, rather than loading managed entities:
+   * nothing goes into the persistence context, so there are no snapshots
+   * kept for dirty checking and nothing to flush, and the transaction is
+   * read-only (which also lets it go to a read replica).
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.ShoeView(s.id, s.name, s.color, s.brand) FROM shoe s")
+  List<ShoeView> findAllViews();
+}
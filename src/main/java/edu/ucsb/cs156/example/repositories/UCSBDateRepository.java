@@ -1,12 +1,23 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.UCSBDateView;
 
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @Repository
 public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
   Iterable<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
-}
\ No newline at end of file
+
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.UCSBDateView("
+      + "u.id, u.quarterYYYYQ, u.name, u.localDateTime)"
+      + " FROM ucsbdates u")
+  List<UCSBDateView> findAllViews();
+}
@@ -1,13 +1,23 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsView;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @Repository
 public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
- 
-}
\ No newline at end of file
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.UCSBDiningCommonsView("
+      + "u.code, u.name, u.hasSackMeal, u.hasTakeOutMeal, u.hasDiningCam, u.latitude, u.longitude)"
+      + " FROM ucsbdiningcommons u")
+  List<UCSBDiningCommonsView> findAllViews();
+}
@@ -1,10 +1,24 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UcsbBuilding;
+import edu.ucsb.cs156.example.models.UcsbBuildingView;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UcsbBuildingRepository extends CrudRepository<UcsbBuilding, Long> {
-}
\ No newline at end of file
+  List<UcsbBuilding> findByNameIn(Collection<String> names);
+
+  /** Every building, for listing, as records rather than managed entities (see ShoeRepository.findAllViews). */
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.UcsbBuildingView("
+      + "u.id, u.name, u.description, u.architecture, u.location)"
+      + " FROM ucsbbuildings u")
+  List<UcsbBuildingView> findAllViews();
+}
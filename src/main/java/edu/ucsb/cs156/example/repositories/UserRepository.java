@@ -1,12 +1,24 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
-import org.springframework.data.repository.CrudRepository;
-import org.springframework.stereotype.Repository;
+import edu.ucsb.cs156.example.models.UserView;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
 @Repository
 public interface UserRepository extends CrudRepository<User, Long> {
   Optional<User> findByEmail(String email);
+
+  @Transactional(readOnly = true)
+  @Query("SELECT new edu.ucsb.cs156.example.models.UserView("
+      + "u.id, u.email, u.googleSub, u.pictureUrl, u.fullName, u.givenName, "
+      + "u.familyName, u.emailVerified, u.locale, u.hostedDomain, u.admin)"
+      + " FROM users u")
+  List<UserView> findAllViews();
 }
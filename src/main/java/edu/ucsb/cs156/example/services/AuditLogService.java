@@ -0,0 +1,285 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.AuditEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Audit trail of every create, update and delete made through the
+ * controllers: who made it (CurrentUserService.getPrincipalName()), and
+ * the entity before and after, in the audit_log table.
+ *
+ * The request only queues an AuditEvent; a single writer thread takes them
+ * off the queue and inserts them app.audit.batchSize at a time, at least
+ * every app.audit.flushIntervalMillis. The queue is lock-free, so requests
+ * never wait on each other or on the writer.
+ *
+ * Nothing is dropped. Once app.audit.capacity events are waiting, a request
+ * waits up to app.audit.offerTimeoutMillis for room, and then inserts its
+ * own event; so if the database falls behind, mutations slow down to its
+ * pace instead of the queue growing without bound. On shutdown the writer
+ * is stopped after the web server has finished its requests and whatever
+ * is left is written before the connection pool is closed.
+ */
+
+@Slf4j
+@Service("auditLog")
+@ConditionalOnProperty(name = "app.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditLogService implements SmartLifecycle {
+
+  static final String INSERT = "INSERT INTO audit_log "
+      + "(timestamp, principal, entity_type, entity_id, change_type, before_state, after_state) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+  private static final long MAX_RETRY_NANOS = Duration.ofSeconds(5).toNanos();
+  private static final int SHUTDOWN_ATTEMPTS = 3;
+
+  @Autowired
+  CurrentUserService currentUserService;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper mapper;
+  private final int capacity;
+  private final int batchSize;
+  private final long flushIntervalNanos;
+  private final long offerTimeoutNanos;
+
+  private final ConcurrentLinkedQueue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+  // events queued or being written; bounds the queue, which cannot count itself cheaply
+  private final AtomicInteger pending = new AtomicInteger();
+  private final LongAdder written = new LongAdder();
+  private final LongAdder writtenByRequests = new LongAdder();
+  private final LongAdder failedBatches = new LongAdder();
+
+  private volatile boolean running;
+  private volatile Thread writer;
+
+  public AuditLogService(JdbcTemplate jdbcTemplate, ObjectMapper mapper,
+      @Value("${app.audit.capacity:10000}") int capacity,
+      @Value("${app.audit.batchSize:200}") int batchSize,
+      @Value("${app.audit.flushIntervalMillis:200}") long flushIntervalMillis,
+      @Value("${app.audit.offerTimeoutMillis:50}") long offerTimeoutMillis,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.mapper = mapper;
+    this.capacity = Math.max(1, capacity);
+    this.batchSize = Math.max(1, batchSize);
+    this.flushIntervalNanos = Duration.ofMillis(flushIntervalMillis).toNanos();
+    this.offerTimeoutNanos = Duration.ofMillis(offerTimeoutMillis).toNanos();
+
+    MeterRegistry registry = meterRegistry.getIfAvailable();
+    if (registry != null) {
+      Gauge.builder("app.audit.pending", pending, AtomicInteger::get).register(registry);
+      FunctionCounter.builder("app.audit.written", written, LongAdder::doubleValue).register(registry);
+      FunctionCounter.builder("app.audit.writtenByRequests", writtenByRequests, LongAdder::doubleValue)
+          .register(registry);
+      FunctionCounter.builder("app.audit.failedBatches", failedBatches, LongAdder::doubleValue).register(registry);
+    }
+  }
+
+  // after the change has committed, so a rolled-back one is never seen
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void record(EntityChangeEvent event) {
+    offer(AuditEvent.from(event, currentUserService.getPrincipalName()));
+  }
+
+  void offer(AuditEvent event) {
+    if (!running) {
+      writeNow(event);
+      return;
+    }
+    if (!reserve()) {
+      LockSupport.unpark(writer);
+      long deadline = System.nanoTime() + offerTimeoutNanos;
+      boolean reserved = false;
+      while (!reserved && System.nanoTime() < deadline) {
+        LockSupport.parkNanos(Math.min(offerTimeoutNanos, 1_000_000L));
+        reserved = reserve();
+      }
+      if (!reserved) {
+        writeNow(event);
+        return;
+      }
+    }
+    queue.add(event);
+    if (pending.get() >= batchSize) {
+      LockSupport.unpark(writer);
+    }
+    if (!running) {
+      // stop() may have drained the queue just before this was added
+      flush();
+    }
+  }
+
+  private boolean reserve() {
+    int n;
+    do {
+      n = pending.get();
+      if (n >= capacity) {
+        return false;
+      }
+    } while (!pending.compareAndSet(n, n + 1));
+    return true;
+  }
+
+  private void writeNow(AuditEvent event) {
+    writtenByRequests.increment();
+    if (!write(List.of(event))) {
+      lost(List.of(event));
+    }
+  }
+
+  /**
+   * Writes everything queued so far, in batches, on the calling thread.
+   * Only one thread drains at a time, so batches go in queue order.
+   */
+  synchronized void flush() {
+    List<AuditEvent> batch = new ArrayList<>(batchSize);
+    while (true) {
+      batch.clear();
+      AuditEvent event;
+      while (batch.size() < batchSize && (event = queue.poll()) != null) {
+        batch.add(event);
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      long backoff = flushIntervalNanos;
+      int attempts = 1;
+      while (!write(batch)) {
+        if (!running && attempts++ >= SHUTDOWN_ATTEMPTS) {
+          lost(batch);
+          break;
+        }
+        LockSupport.parkNanos(backoff);
+        backoff = Math.min(backoff * 2, MAX_RETRY_NANOS);
+      }
+      pending.addAndGet(-batch.size());
+    }
+  }
+
+  private boolean write(List<AuditEvent> batch) {
+    try {
+      List<Object[]> rows = new ArrayList<>(batch.size());
+      for (AuditEvent event : batch) {
+        rows.add(new Object[] {
+            Timestamp.from(event.getTimestamp()),
+            event.getPrincipal(),
+            event.getEntityType(),
+            event.getEntityId(),
+            event.getChangeType().name(),
+            toJson(event.getBefore()),
+            toJson(event.getAfter()) });
+      }
+      jdbcTemplate.batchUpdate(INSERT, rows);
+      written.add(batch.size());
+      return true;
+    } catch (RuntimeException e) {
+      failedBatches.increment();
+      log.error("could not write {} audit events: {}", batch.size(), e.getMessage());
+      return false;
+    }
+  }
+
+  // the last resort, so that the events can at least be recovered from the log
+  private void lost(List<AuditEvent> batch) {
+    for (AuditEvent event : batch) {
+      log.error("audit event not written: {}", event);
+    }
+  }
+
+  private String toJson(Object value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return mapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      // retrying would not help, and the rest of the event is still worth keeping
+      log.warn("could not serialize {} for the audit log: {}", value, e.getMessage());
+      return null;
+    }
+  }
+
+  private void runWriter() {
+    while (running) {
+      if (pending.get() < batchSize) {
+        LockSupport.parkNanos(this, flushIntervalNanos);
+      }
+      flush();
+    }
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    Thread thread = new Thread(this::runWriter, "audit-writer");
+    thread.setDaemon(true);
+    writer = thread;
+    thread.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Thread thread = writer;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+      try {
+        thread.join(Duration.ofSeconds(30).toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    flush();
+    log.info("audit log stopped after writing {} events ({} by requests)", written.sum(), writtenByRequests.sum());
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // below the web server's phases, so that this stops after the last request
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 2048;
+  }
+
+  public int getPending() {
+    return pending.get();
+  }
+
+  public long getWritten() {
+    return written.sum();
+  }
+
+  public long getWrittenByRequests() {
+    return writtenByRequests.sum();
+  }
+}
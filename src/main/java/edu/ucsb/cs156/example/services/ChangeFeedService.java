@@ -0,0 +1,202 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Fans out EntityChangeEvents to Server-Sent Event subscribers of
+ * /api/{entity}/changes.
+ *
+ * Each subscriber gets its own bounded buffer. When a subscriber cannot keep
+ * up, the oldest buffered events are dropped (and an "overflow" event tells
+ * the client to resync), so a slow client can never hold more than
+ * app.changes.bufferSize events in memory. Writes to a subscriber happen on a
+ * small dispatch pool, never on the request thread that made the change.
+ */
+
+@Slf4j
+@Service("changeFeed")
+public class ChangeFeedService {
+
+  private final int bufferSize;
+  private final long timeoutMillis;
+
+  private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+  private final ExecutorService dispatcher;
+  private final ScheduledExecutorService heartbeat;
+
+  public ChangeFeedService(
+      @Value("${app.changes.bufferSize:256}") int bufferSize,
+      @Value("${app.changes.heartbeatSeconds:15}") long heartbeatSeconds,
+      @Value("${app.changes.timeoutMillis:1800000}") long timeoutMillis,
+      @Value("${app.changes.dispatchThreads:2}") int dispatchThreads) {
+    this.bufferSize = bufferSize;
+    this.timeoutMillis = timeoutMillis;
+    this.dispatcher = Executors.newFixedThreadPool(dispatchThreads);
+    this.heartbeat = Executors.newSingleThreadScheduledExecutor();
+    this.heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+  }
+
+  public SseEmitter subscribe(String entityType) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    Subscription subscription = new Subscription(emitter, bufferSize);
+    subscriptions.computeIfAbsent(entityType, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+
+    Runnable remove = () -> unsubscribe(entityType, subscription);
+    emitter.onCompletion(remove);
+    emitter.onTimeout(remove);
+    emitter.onError(e -> remove.run());
+
+    log.info("subscribed to changes for {} ({} subscribers)", entityType, subscriberCount(entityType));
+    return emitter;
+  }
+
+  public int subscriberCount(String entityType) {
+    Set<Subscription> set = subscriptions.get(entityType);
+    return set == null ? 0 : set.size();
+  }
+
+  // once committed, by when ChangeLogService has given it a sequence number
+  @Order(10)
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onChange(EntityChangeEvent event) {
+    Set<Subscription> set = subscriptions.get(event.getEntityType());
+    if (set == null) {
+      return;
+    }
+    for (Subscription subscription : set) {
+      subscription.offer(toSseEvent(event));
+      schedule(subscription);
+    }
+  }
+
+  // SseEventBuilder is consumed when sent, so each subscriber needs its own
+  private static SseEventBuilder toSseEvent(EntityChangeEvent event) {
+    SseEventBuilder sseEvent = SseEmitter.event();
+    if (event.getSequence() != null) {
+      sseEvent.id(event.getSequence().toString());
+    }
+    return sseEvent
+        .name(event.getChangeType().name())
+        .data(event);
+  }
+
+  void sendHeartbeats() {
+    subscriptions.values().forEach(set -> set.forEach(subscription -> {
+      if (subscription.offerIfIdle(SseEmitter.event().comment("ping"))) {
+        schedule(subscription);
+      }
+    }));
+  }
+
+  private void unsubscribe(String entityType, Subscription subscription) {
+    Set<Subscription> set = subscriptions.get(entityType);
+    if (set != null) {
+      set.remove(subscription);
+    }
+  }
+
+  private void schedule(Subscription subscription) {
+    if (subscription.draining.compareAndSet(false, true)) {
+      dispatcher.execute(() -> drain(subscription));
+    }
+  }
+
+  private void drain(Subscription subscription) {
+    do {
+      SseEventBuilder next;
+      while ((next = subscription.poll()) != null) {
+        try {
+          subscription.emitter.send(next);
+        } catch (IOException | IllegalStateException e) {
+          log.info("dropping change subscriber: {}", e.getMessage());
+          subscription.emitter.completeWithError(e);
+          subscription.draining.set(false);
+          return;
+        }
+      }
+      subscription.draining.set(false);
+      // an offer may have raced with the reset above; pick it up if so
+    } while (subscription.hasPending() && subscription.draining.compareAndSet(false, true));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    heartbeat.shutdownNow();
+    dispatcher.shutdownNow();
+    subscriptions.values().forEach(set -> set.forEach(subscription -> subscription.emitter.complete()));
+    subscriptions.clear();
+  }
+
+  static class Subscription {
+    final SseEmitter emitter;
+    final AtomicBoolean draining = new AtomicBoolean(false);
+    private final ArrayDeque<SseEventBuilder> buffer;
+    private final int capacity;
+    private long dropped = 0;
+
+    Subscription(SseEmitter emitter, int capacity) {
+      this.emitter = emitter;
+      this.capacity = capacity;
+      this.buffer = new ArrayDeque<>(Math.min(capacity, 16));
+    }
+
+    synchronized void offer(SseEventBuilder event) {
+      if (buffer.size() >= capacity) {
+        buffer.pollFirst();
+        dropped++;
+      }
+      buffer.addLast(event);
+    }
+
+    synchronized boolean offerIfIdle(SseEventBuilder event) {
+      if (!buffer.isEmpty()) {
+        return false;
+      }
+      buffer.addLast(event);
+      return true;
+    }
+
+    synchronized SseEventBuilder poll() {
+      if (dropped > 0) {
+        SseEventBuilder overflow = SseEmitter.event().name("overflow").data(dropped);
+        dropped = 0;
+        return overflow;
+      }
+      return buffer.pollFirst();
+    }
+
+    synchronized boolean hasPending() {
+      return dropped > 0 || !buffer.isEmpty();
+    }
+
+    synchronized int size() {
+      return buffer.size();
+    }
+
+    synchronized long getDropped() {
+      return dropped;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.journal.Journal;
+import edu.ucsb.cs156.example.journal.JournalReader;
+import edu.ucsb.cs156.example.models.AuditEvent;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the whole history of changes made through the controllers in a
+ * Journal of files under app.journal.directory, one JSON AuditEvent per
+ * record, rather than in the database: the changelog table only needs the
+ * recent past for delta sync, and audit_log can be pruned once the journal
+ * has been archived.
+ *
+ * Appends go to the page cache on the request thread; the journal is
+ * synced at most every app.journal.syncIntervalMillis, by whichever request
+ * comes along after the interval, and on shutdown. Old segments can be
+ * archived or deleted whole.
+ */
+
+@Slf4j
+@Service("changeJournal")
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class ChangeJournalService {
+
+  @Autowired
+  CurrentUserService currentUserService;
+
+  private final Journal journal;
+  private final ObjectMapper mapper;
+  private final long syncIntervalNanos;
+  private volatile long lastSync = System.nanoTime();
+
+  public ChangeJournalService(ObjectMapper mapper,
+      @Value("${app.journal.directory:journal}") String directory,
+      @Value("${app.journal.segmentMegabytes:64}") int segmentMegabytes,
+      @Value("${app.journal.syncIntervalMillis:1000}") long syncIntervalMillis) throws IOException {
+    this.mapper = mapper;
+    this.journal = new Journal(Path.of(directory), segmentBytes(segmentMegabytes));
+    this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+    log.info("change journal in {}, next sequence {}", journal.getDirectory().toAbsolutePath(),
+        journal.getNextSequence());
+  }
+
+  // a segment is one MappedByteBuffer, so it has to fit in an int
+  static int segmentBytes(int segmentMegabytes) {
+    int maxMegabytes = Integer.MAX_VALUE / (1024 * 1024);
+    if (segmentMegabytes < 1 || segmentMegabytes > maxMegabytes) {
+      throw new IllegalStateException("app.journal.segmentMegabytes must be between 1 and %d, but is %d"
+          .formatted(maxMegabytes, segmentMegabytes));
+    }
+    return segmentMegabytes * 1024 * 1024;
+  }
+
+  // only changes that were committed
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void record(EntityChangeEvent event) {
+    try {
+      journal.append(mapper.writeValueAsBytes(AuditEvent.from(event, currentUserService.getPrincipalName())));
+      long now = System.nanoTime();
+      if (now - lastSync >= syncIntervalNanos) {
+        lastSync = now;
+        journal.sync();
+      }
+    } catch (IOException e) {
+      // the change itself has been saved, so the request should not fail
+      log.error("could not journal {} {} {}: {}", event.getChangeType(), event.getEntityType(),
+          event.getEntityId(), e.getMessage());
+    }
+  }
+
+  /** The journal's records from fromSequence on; the caller must close it. */
+  public JournalReader read(long fromSequence) throws IOException {
+    return journal.read(fromSequence);
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    journal.close();
+  }
+}
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.ChangeLogEntry;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.repositories.ChangeLogEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Records every EntityChangeEvent in the changelog table and answers
+ * "what changed since seq N" queries for delta sync.
+ *
+ * The entry is written just before the transaction that made the change
+ * commits, in that transaction, so the two commit or roll back together.
+ * seq comes from the table's identity column, which orders the entries
+ * across instances, but transactions can commit out of that order: seq 11
+ * can be visible before a concurrent seq 10 is. So changesSince() leaves
+ * out entries younger than app.changes.settleMillis, long enough for
+ * anything with a lower seq to have committed or rolled back, rather than
+ * let a client move past 10 without seeing it.
+ */
+
+@Slf4j
+@Service("changeLog")
+public class ChangeLogService {
+
+  @Autowired
+  ChangeLogEntryRepository changeLogEntryRepository;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Value("${app.changes.maxBatchSize:1000}")
+  private int maxBatchSize;
+
+  @Value("${app.changes.settleMillis:1000}")
+  private long settleMillis;
+
+  // a change published outside a transaction is recorded in one of its own
+  @Order(0)
+  @Transactional
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void record(EntityChangeEvent event) {
+    ChangeLogEntry entry = ChangeLogEntry.builder()
+        .entityType(event.getEntityType())
+        .entityId(event.getEntityId())
+        .changeType(event.getChangeType())
+        .timestamp(event.getTimestamp())
+        .payload(event.getChangeType() == ChangeType.DELETED ? null : toJson(event.getEntity()))
+        .build();
+    ChangeLogEntry saved = changeLogEntryRepository.save(entry);
+    event.setSequence(saved.getSeq());
+  }
+
+  public EntityChanges changesSince(String entityType, long since, int limit) {
+    int batchSize = Math.max(1, Math.min(limit, maxBatchSize));
+    List<ChangeLogEntry> entries = changeLogEntryRepository
+        .findByEntityTypeAndSeqGreaterThanAndTimestampBeforeOrderBySeqAsc(entityType, since,
+            Instant.now().minusMillis(settleMillis), PageRequest.of(0, batchSize));
+
+    // keep only the newest entry per id, ordered by when it last changed
+    Map<String, ChangeLogEntry> latestById = new LinkedHashMap<>();
+    long latest = since;
+    for (ChangeLogEntry entry : entries) {
+      latestById.remove(entry.getEntityId());
+      latestById.put(entry.getEntityId(), entry);
+      latest = entry.getSeq();
+    }
+
+    return EntityChanges.builder()
+        .entityType(entityType)
+        .since(since)
+        .latest(latest)
+        .hasMore(entries.size() == batchSize)
+        .changes(new ArrayList<>(latestById.values()))
+        .build();
+  }
+
+  private String toJson(Object entity) {
+    try {
+      return mapper.writeValueAsString(entity);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("could not serialize %s".formatted(entity), e);
+    }
+  }
+}
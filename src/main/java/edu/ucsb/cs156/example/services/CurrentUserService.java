@@ -5,7 +5,10 @@ import edu.ucsb.cs156.example.models.CurrentUser;
 
 import java.util.Collection;
 
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 public abstract class CurrentUserService {
   public abstract User getUser();
@@ -16,4 +19,19 @@ public abstract class CurrentUserService {
     return getUser() != null;
   }
 
+  /**
+   * Name of the authenticated principal, or null when logged out (Spring
+   * Security's "anonymousUser" counts as logged out). Unlike getUser() this
+   * does not touch the users table, so it is cheap enough to call on every
+   * request (e.g. to key rate limits).
+   */
+  public final String getPrincipalName() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+        || !authentication.isAuthenticated()) {
+      return null;
+    }
+    return authentication.getName();
+  }
+
 }
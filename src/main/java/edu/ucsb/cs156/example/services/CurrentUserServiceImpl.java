@@ -14,6 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
@@ -58,6 +59,27 @@ public class CurrentUserServiceImpl extends CurrentUserService {
     java.util.Map<java.lang.String,java.lang.Object> attrs = oAuthUser.getAttributes();
     log.info("attrs={}",attrs);
 
+    User.UserBuilder user = User.builder()
+        .googleSub(googleSub)
+        .email(email)
+        .pictureUrl(pictureUrl)
+        .fullName(fullName)
+        .givenName(givenName)
+        .familyName(familyName)
+        .emailVerified(emailVerified)
+        .locale(locale)
+        .hostedDomain(hostedDomain);
+
+    // from a session token (see SessionTokenService): the users table was
+    // read when it was issued at login, and has the id and roles in it
+    Number userId = oAuthUser.getAttribute(SessionTokenService.USER_ID);
+    if (userId != null) {
+      return user
+          .id(userId.longValue())
+          .admin(AuthorityUtils.authorityListToSet(authentication.getAuthorities()).contains("ROLE_ADMIN"))
+          .build();
+    }
+
     Optional<User> ou = userRepository.findByEmail(email);
     if (ou.isPresent()) {
       User u = ou.get();
@@ -68,16 +90,7 @@ public class CurrentUserServiceImpl extends CurrentUserService {
       return u;
     }
 
-    User u = User.builder()
-        .googleSub(googleSub)
-        .email(email)
-        .pictureUrl(pictureUrl)
-        .fullName(fullName)
-        .givenName(givenName)
-        .familyName(familyName)
-        .emailVerified(emailVerified)
-        .locale(locale)
-        .hostedDomain(hostedDomain)
+    User u = user
         .admin(adminEmails.contains(email))
         .build();
     userRepository.save(u);
@@ -0,0 +1,222 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.errors.UnknownEntityTypeException;
+import edu.ucsb.cs156.example.models.GeneratedData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk-loads deterministic synthetic rows for scale testing (development
+ * profile only).
+ *
+ * The same (entity, rows, seed) always produces exactly the same rows, so
+ * a production-sized table can be reproduced on a laptop. Rows are written
+ * with batched JDBC inserts, one transaction per batch, and are generated
+ * as they are bound rather than held in memory, so millions of rows are
+ * fine. This goes around JPA on purpose: no change events are published
+ * and the changelog is not touched.
+ *
+ * dogs and games are keyed by name, and the names come from the row
+ * index, so loading them twice without replace fails on duplicate keys.
+ * replace empties the table first, except for users, where it only deletes
+ * the accounts generated here (google_sub "generated-..."), never the real
+ * ones people log in with.
+ */
+
+@Slf4j
+@Service("dataGenerator")
+@Profile("development")
+public class DataGeneratorService {
+
+  @FunctionalInterface
+  interface RowBinder {
+    void bind(PreparedStatement ps, long i, SplittableRandom random) throws SQLException;
+  }
+
+  static class Table {
+    final String name;
+    final String insertSql;
+    final RowBinder binder;
+    // what replace deletes
+    final String deleteSql;
+
+    Table(String name, String insertSql, RowBinder binder) {
+      this(name, insertSql, binder, "DELETE FROM " + name);
+    }
+
+    Table(String name, String insertSql, RowBinder binder, String deleteSql) {
+      this.name = name;
+      this.insertSql = insertSql;
+      this.binder = binder;
+      this.deleteSql = deleteSql;
+    }
+  }
+
+  private static final String[] ADJECTIVES = { "Blue", "Quiet", "Golden", "Rapid", "Hidden", "Salty", "Lucky",
+      "Silver", "Wild", "Gentle", "Bright", "Ancient" };
+  private static final String[] NOUNS = { "Wave", "Harbor", "Pelican", "Canyon", "Lagoon", "Mesa", "Cove",
+      "Orchard", "Falcon", "Garden", "Lantern", "Reef" };
+  private static final String[] COLORS = { "Red", "Black", "White", "Blue", "Green", "Grey", "Brown", "Pink",
+      "Yellow", "Orange", "Purple", "Navy" };
+  private static final String[] FIRST_NAMES = { "Alex", "Sam", "Jordan", "Taylor", "Morgan", "Casey", "Riley",
+      "Jamie", "Avery", "Quinn", "Drew", "Parker" };
+  private static final String[] LAST_NAMES = { "Nguyen", "Garcia", "Smith", "Kim", "Patel", "Lopez", "Chen",
+      "Johnson", "Martinez", "Brown", "Wong", "Davis" };
+  private static final String[] BREEDS = { "Labrador", "Poodle", "Beagle", "Bulldog", "Husky", "Corgi",
+      "Dachshund", "Boxer", "Greyhound", "Terrier" };
+  private static final String[] RATINGS = { "E", "E10+", "T", "M" };
+  private static final String[] QUARTERS = { "1", "2", "3", "4" };
+  private static final LocalDateTime EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+  private static final Map<String, Table> TABLES = new LinkedHashMap<>();
+
+  static {
+    TABLES.put("shoes", new Table("shoe",
+        "INSERT INTO shoe (name, color, brand) VALUES (?, ?, ?)",
+        (ps, i, r) -> {
+          ps.setString(1, pick(r, ADJECTIVES) + " " + pick(r, NOUNS) + " " + i);
+          ps.setString(2, pick(r, COLORS));
+          ps.setString(3, "Brand " + r.nextInt(40));
+        }));
+    TABLES.put("books", new Table("book",
+        "INSERT INTO book (title, author, year) VALUES (?, ?, ?)",
+        (ps, i, r) -> {
+          ps.setString(1, "The " + pick(r, ADJECTIVES) + " " + pick(r, NOUNS) + " " + i);
+          ps.setString(2, pick(r, FIRST_NAMES) + " " + pick(r, LAST_NAMES));
+          ps.setString(3, Integer.toString(1850 + r.nextInt(175)));
+        }));
+    TABLES.put("dogs", new Table("dog",
+        "INSERT INTO dog (name, breed, gender) VALUES (?, ?, ?)",
+        (ps, i, r) -> {
+          ps.setString(1, "Dog " + i);
+          ps.setString(2, pick(r, BREEDS));
+          ps.setString(3, r.nextBoolean() ? "Male" : "Female");
+        }));
+    TABLES.put("games", new Table("game",
+        "INSERT INTO game (name, publisher, rating) VALUES (?, ?, ?)",
+        (ps, i, r) -> {
+          ps.setString(1, "Game " + i);
+          ps.setString(2, pick(r, NOUNS) + " Studios");
+          ps.setString(3, pick(r, RATINGS));
+        }));
+    TABLES.put("Restaurant", new Table("restaurant",
+        "INSERT INTO restaurant (name, description) VALUES (?, ?)",
+        (ps, i, r) -> {
+          ps.setString(1, "The " + pick(r, ADJECTIVES) + " " + pick(r, NOUNS) + " " + i);
+          ps.setString(2, pick(r, COLORS) + " tables, " + (1 + r.nextInt(5)) + " stars");
+        }));
+    TABLES.put("ucsbbuildings", new Table("ucsbbuildings",
+        "INSERT INTO ucsbbuildings (name, description, architecture, location) VALUES (?, ?, ?, ?)",
+        (ps, i, r) -> {
+          ps.setString(1, pick(r, NOUNS) + " Hall " + i);
+          ps.setString(2, pick(r, ADJECTIVES) + " building with " + (1 + r.nextInt(8)) + " floors");
+          ps.setString(3, pick(r, FIRST_NAMES) + " " + pick(r, LAST_NAMES));
+          ps.setString(4, "Lot " + r.nextInt(60));
+        }));
+    TABLES.put("ucsbdates", new Table("ucsbdates",
+        "INSERT INTO ucsbdates (quarteryyyyq, name, local_date_time) VALUES (?, ?, ?)",
+        (ps, i, r) -> {
+          ps.setString(1, (2000 + r.nextInt(30)) + pick(r, QUARTERS));
+          ps.setString(2, pick(r, ADJECTIVES) + " " + pick(r, NOUNS) + " Day " + i);
+          ps.setTimestamp(3, Timestamp.valueOf(EPOCH.plusMinutes(r.nextInt(30 * 365 * 24 * 60))));
+        }));
+    TABLES.put("users", new Table("users",
+        "INSERT INTO users (email, google_sub, picture_url, full_name, given_name, family_name,"
+            + " email_verified, locale, hosted_domain, admin) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+        (ps, i, r) -> {
+          String given = pick(r, FIRST_NAMES);
+          String family = pick(r, LAST_NAMES);
+          ps.setString(1, "%s.%s.%d@example.org".formatted(given, family, i).toLowerCase());
+          ps.setString(2, "generated-" + i);
+          ps.setString(3, "https://example.org/avatars/" + i + ".png");
+          ps.setString(4, given + " " + family);
+          ps.setString(5, given);
+          ps.setString(6, family);
+          ps.setBoolean(7, true);
+          ps.setString(8, "en");
+          ps.setString(9, "example.org");
+          ps.setBoolean(10, false);
+        },
+        "DELETE FROM users WHERE google_sub LIKE 'generated-%'"));
+  }
+
+  public static Set<String> entityTypes() {
+    return TABLES.keySet();
+  }
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Value("${app.generator.maxRows:10000000}")
+  private long maxRows;
+
+  public GeneratedData generate(String entityType, long rows, long seed, int batchSize, boolean replace) {
+    Table table = TABLES.get(entityType);
+    if (table == null) {
+      throw new UnknownEntityTypeException(entityType);
+    }
+    if (rows < 0 || rows > maxRows) {
+      throw new BadRequestException("rows must be between 0 and %d".formatted(maxRows));
+    }
+    if (batchSize < 1) {
+      throw new BadRequestException("batchSize must be at least 1");
+    }
+
+    long start = System.nanoTime();
+    long deleted = replace ? jdbcTemplate.update(table.deleteSql) : 0;
+
+    SplittableRandom random = new SplittableRandom(seed);
+    for (long done = 0; done < rows; done += batchSize) {
+      long first = done;
+      int size = (int) Math.min(batchSize, rows - done);
+      transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(table.insertSql,
+          new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int j) throws SQLException {
+              table.binder.bind(ps, first + j, random);
+            }
+
+            @Override
+            public int getBatchSize() {
+              return size;
+            }
+          }));
+    }
+
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    log.info("generated {} {} rows (seed {}) in {} ms", rows, entityType, seed, elapsedMillis);
+    return GeneratedData.builder()
+        .entityType(entityType)
+        .table(table.name)
+        .rows(rows)
+        .seed(seed)
+        .batchSize(batchSize)
+        .deleted(deleted)
+        .elapsedMillis(elapsedMillis)
+        .build();
+  }
+
+  private static String pick(SplittableRandom random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+}
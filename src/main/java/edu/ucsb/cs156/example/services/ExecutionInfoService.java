@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.config.VirtualThreadConfig;
+import edu.ucsb.cs156.example.config.VirtualThreadPinningMonitor;
+import edu.ucsb.cs156.example.models.ExecutionInfo;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reports how requests are being executed: whether they run on virtual
+ * threads, how big the connection pool that bounds them is, and how often
+ * virtual threads have been pinned.
+ */
+
+@Service("executionInfo")
+public class ExecutionInfoService {
+
+  @Autowired
+  ObjectProvider<DataSource> dataSource;
+
+  @Autowired
+  ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+  public ExecutionInfo getExecutionInfo() {
+    VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+    ExecutionInfo.ExecutionInfoBuilder info = ExecutionInfo.builder()
+        .javaVersion(Runtime.version().feature())
+        .virtualThreadsSupported(VirtualThreadConfig.isSupported())
+        .virtualThreadsEnabled(monitor != null && monitor.isActive())
+        .pinnedCount(monitor == null ? 0 : monitor.getPinnedCount())
+        .recentPinnedFrames(monitor == null ? List.of() : monitor.getRecentPinnedFrames());
+
+    HikariDataSource hikari = hikari(dataSource.getIfAvailable());
+    if (hikari != null) {
+      info.dbPoolMaximumSize(hikari.getMaximumPoolSize());
+      HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+      if (pool != null) {
+        info.dbPoolActive(pool.getActiveConnections())
+            .dbPoolIdle(pool.getIdleConnections())
+            .dbPoolPending(pool.getThreadsAwaitingConnection());
+      }
+    }
+    return info.build();
+  }
+
+  // the DataSource bean may be a wrapper (see InstrumentationConfig)
+  private static HikariDataSource hikari(DataSource dataSource) {
+    try {
+      return dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)
+          ? dataSource.unwrap(HikariDataSource.class)
+          : null;
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.errors.UnknownEntityTypeException;
+import edu.ucsb.cs156.example.export.Column;
+import edu.ucsb.cs156.example.export.ExportFormat;
+import edu.ucsb.cs156.example.export.RowWriter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams a whole table to an OutputStream, as CSV or in the columnar
+ * format (see ColumnarWriter), straight from a database cursor.
+ *
+ * Rows are fetched app.export.fetchSize at a time and written out as they
+ * arrive, so memory stays the same however big the table is and the
+ * export goes as fast as the database can read. The query runs in a
+ * read-only transaction: Postgres only honours the fetch size with
+ * autocommit off, and read-only transactions go to a replica if there is
+ * one (see ReplicaRoutingDataSource).
+ *
+ * This goes around JPA on purpose, so no entities are loaded or kept in
+ * a persistence context.
+ */
+
+@Slf4j
+@Service
+public class ExportService {
+
+  static class Table {
+    final String sql;
+    final List<Column> columns;
+
+    Table(String sql, List<Column> columns) {
+      this.sql = sql;
+      this.columns = columns;
+    }
+  }
+
+  private static final Map<String, Table> TABLES = Map.of(
+      "Restaurant", new Table("SELECT id, name, description FROM restaurant ORDER BY id",
+          List.of(new Column("id", Column.Type.INT64), new Column("name", Column.Type.STRING),
+              new Column("description", Column.Type.STRING))),
+      "books", new Table("SELECT id, title, author, year FROM book ORDER BY id",
+          List.of(new Column("id", Column.Type.INT64), new Column("title", Column.Type.STRING),
+              new Column("author", Column.Type.STRING), new Column("year", Column.Type.STRING))));
+
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int rowGroupSize;
+
+  public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+      @Value("${app.export.fetchSize:1000}") int fetchSize,
+      @Value("${app.export.rowGroupSize:4096}") int rowGroupSize) {
+    // a JdbcTemplate of its own, so the fetch size does not apply to other queries
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(fetchSize);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.rowGroupSize = rowGroupSize;
+  }
+
+  /**
+   * Writes every row of the entity type's table to out, oldest first, and
+   * flushes it, but does not close it.
+   *
+   * @throws UnknownEntityTypeException if the entity type cannot be exported
+   *
+   * @return the number of rows written
+   */
+  public long export(String entityType, ExportFormat format, OutputStream out) throws IOException {
+    Table table = TABLES.get(entityType);
+    if (table == null) {
+      throw new UnknownEntityTypeException(entityType);
+    }
+    long start = System.nanoTime();
+    OutputStream buffered = new BufferedOutputStream(out, BUFFER_BYTES);
+    RowWriter writer = format.writer(table.columns, buffered, rowGroupSize);
+    long rows;
+    try {
+      rows = transactionTemplate.execute(status -> query(table, writer));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    // not closed if the query fails, so that a cut-off export does not look complete
+    writer.close();
+    buffered.flush();
+    log.info("exported {} {} rows as {} in {} ms", rows, entityType, format,
+        (System.nanoTime() - start) / 1_000_000);
+    return rows;
+  }
+
+  private long query(Table table, RowWriter writer) {
+    long[] rows = { 0 };
+    Object[] row = new Object[table.columns.size()];
+    jdbcTemplate.query(table.sql, (ResultSet rs) -> {
+      for (int i = 0; i < row.length; i++) {
+        row[i] = rs.getObject(i + 1);
+      }
+      try {
+        writer.write(row);
+      } catch (IOException e) {
+        // usually the client going away; this ends the query
+        throw new UncheckedIOException(e);
+      }
+      rows[0]++;
+    });
+    return rows[0];
+  }
+}
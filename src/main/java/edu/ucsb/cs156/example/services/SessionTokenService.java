@@ -0,0 +1,300 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+import org.springframework.stereotype.Service;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+
+/**
+ * Signed session tokens for app.session.stateless=true, so that any
+ * instance can serve any request without sticky sessions.
+ *
+ * After the OAuth login, the user id, the Google attributes that
+ * CurrentUserServiceImpl reads and the roles worked out by
+ * SecurityConfig.userAuthoritiesMapper are put in an HS256 JWT, sent back
+ * as the SESSION_TOKEN cookie. SessionTokenFilter turns that back into an
+ * OAuth2AuthenticationToken on each request, with no session, and
+ * CurrentUserServiceImpl builds the User from that, with no query of the
+ * users table.
+ *
+ * Tokens last app.session.jwt.ttlMinutes and are renewed while in use, but
+ * not beyond app.session.jwt.maxAgeHours after the login, so that roles
+ * (e.g. a new admin) are picked up by logging in again at least that
+ * often. All instances must share app.session.jwt.secret; startup fails
+ * without it, unless app.session.jwt.randomSecret=true (the development
+ * profile), where a random key is fine because there is one instance and
+ * logging in again after a restart is no trouble.
+ */
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.session.stateless", havingValue = "true")
+public class SessionTokenService {
+
+  public static final String COOKIE = "SESSION_TOKEN";
+
+  static final String USER_ID = "uid";
+  static final String ROLES = "roles";
+  static final String REGISTRATION = "reg";
+  static final String AUTH_TIME = "auth_time";
+  static final String ATTRIBUTES = "attrs";
+  static final String NAME_ATTRIBUTE = "sub";
+  static final String PURPOSE = "use";
+  static final String SESSION = "session";
+  static final String SEALED = "sealed";
+  static final String DATA = "data";
+
+  // the OAuth2User attributes that CurrentUserServiceImpl reads
+  static final List<String> USER_ATTRIBUTES = List.of("email", "name", "picture", "given_name", "family_name",
+      "email_verified", "locale", "hd");
+
+  private static final int MIN_SECRET_BYTES = 32;
+  private static final Duration CLOCK_SKEW = Duration.ofSeconds(30);
+
+  @Autowired
+  CurrentUserService currentUserService;
+
+  private final JwtEncoder encoder;
+  private final JwtDecoder decoder;
+  private final Duration ttl;
+  private final Duration maxAge;
+  private final Clock clock;
+
+  @Autowired
+  public SessionTokenService(
+      @Value("${app.session.jwt.secret:}") String secret,
+      @Value("${app.session.jwt.randomSecret:false}") boolean randomSecret,
+      @Value("${app.session.jwt.ttlMinutes:30}") long ttlMinutes,
+      @Value("${app.session.jwt.maxAgeHours:12}") long maxAgeHours) {
+    this(key(secret, randomSecret), Duration.ofMinutes(ttlMinutes), Duration.ofHours(maxAgeHours),
+        Clock.systemUTC());
+  }
+
+  SessionTokenService(SecretKey key, Duration ttl, Duration maxAge, Clock clock) {
+    this.encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+    NimbusJwtDecoder nimbusDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+    JwtTimestampValidator timestamps = new JwtTimestampValidator(CLOCK_SKEW);
+    timestamps.setClock(clock);
+    nimbusDecoder.setJwtValidator(timestamps);
+    this.decoder = nimbusDecoder;
+    this.ttl = ttl;
+    this.maxAge = maxAge;
+    this.clock = clock;
+  }
+
+  static SecretKey key(String secret, boolean randomSecret) {
+    byte[] bytes;
+    if (secret == null || secret.isEmpty()) {
+      if (!randomSecret) {
+        // a key of our own would only be accepted by this instance, and only until it restarts
+        throw new IllegalStateException("app.session.jwt.secret must be set when app.session.stateless=true, "
+            + "and the same on every instance");
+      }
+      log.warn("app.session.jwt.secret is not set; using a random key, so session tokens will not be accepted "
+          + "by other instances or after a restart");
+      bytes = new byte[MIN_SECRET_BYTES];
+      new SecureRandom().nextBytes(bytes);
+    } else {
+      bytes = secret.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length < MIN_SECRET_BYTES) {
+        throw new IllegalStateException(String.format(
+            "app.session.jwt.secret must be at least %d bytes for HS256, but is %d", MIN_SECRET_BYTES,
+            bytes.length));
+      }
+    }
+    return new SecretKeySpec(bytes, "HmacSHA256");
+  }
+
+  public String issue(OAuth2AuthenticationToken authentication, Long userId) {
+    return issue(authentication.getPrincipal(), authentication.getAuthorities(),
+        authentication.getAuthorizedClientRegistrationId(), userId, clock.instant());
+  }
+
+  private String issue(OAuth2User user, Collection<? extends GrantedAuthority> authorities, String registrationId,
+      Long userId, Instant authTime) {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    for (String name : USER_ATTRIBUTES) {
+      Object value = user.getAttribute(name);
+      if (value != null) {
+        attributes.put(name, value);
+      }
+    }
+    Instant now = clock.instant();
+    JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+        .subject(user.getName())
+        .issuedAt(now)
+        .expiresAt(now.plus(ttl))
+        .claim(PURPOSE, SESSION)
+        .claim(AUTH_TIME, authTime.getEpochSecond())
+        .claim(REGISTRATION, registrationId)
+        .claim(ROLES, AuthorityUtils.authorityListToSet(authorities).stream().sorted().collect(Collectors.toList()))
+        .claim(ATTRIBUTES, attributes);
+    if (userId != null) {
+      claims.claim(USER_ID, userId);
+    }
+    return encode(claims.build());
+  }
+
+  /** The token's claims, if it is a session token signed with our key and has not expired. */
+  public Optional<Jwt> verify(String token) {
+    return decode(token).filter(jwt -> SESSION.equals(jwt.getClaimAsString(PURPOSE)));
+  }
+
+  /**
+   * Signs something that has to make a round trip through the browser,
+   * like the OAuth authorization request, so that it can be trusted when
+   * it comes back.
+   */
+  public String seal(byte[] data, Duration lifetime) {
+    Instant now = clock.instant();
+    return encode(JwtClaimsSet.builder()
+        .issuedAt(now)
+        .expiresAt(now.plus(lifetime))
+        .claim(PURPOSE, SEALED)
+        .claim(DATA, Base64.getUrlEncoder().withoutPadding().encodeToString(data))
+        .build());
+  }
+
+  /** What was sealed, if the signature is ours and it has not expired. */
+  public Optional<byte[]> unseal(String token) {
+    return decode(token)
+        .filter(jwt -> SEALED.equals(jwt.getClaimAsString(PURPOSE)))
+        .map(jwt -> Base64.getUrlDecoder().decode(jwt.getClaimAsString(DATA)));
+  }
+
+  private String encode(JwtClaimsSet claims) {
+    return encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+        .getTokenValue();
+  }
+
+  private Optional<Jwt> decode(String token) {
+    try {
+      return Optional.of(decoder.decode(token));
+    } catch (JwtException e) {
+      log.debug("rejected token: {}", e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  public OAuth2AuthenticationToken authentication(Jwt jwt) {
+    List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(
+        jwt.getClaimAsStringList(ROLES).toArray(new String[0]));
+    Map<String, Object> attributes = new LinkedHashMap<>(jwt.getClaimAsMap(ATTRIBUTES));
+    attributes.put(NAME_ATTRIBUTE, jwt.getSubject());
+    if (jwt.hasClaim(USER_ID)) {
+      attributes.put(USER_ID, jwt.getClaim(USER_ID));
+    }
+    OAuth2User user = new DefaultOAuth2User(authorities, attributes, NAME_ATTRIBUTE);
+    return new OAuth2AuthenticationToken(user, authorities, jwt.getClaimAsString(REGISTRATION));
+  }
+
+  /**
+   * A fresh token for one that is past half its lifetime, or empty if it
+   * does not need one yet or the login is older than maxAgeHours.
+   */
+  public Optional<String> renew(Jwt jwt) {
+    Instant now = clock.instant();
+    Instant authTime = Instant.ofEpochSecond(((Number) jwt.getClaim(AUTH_TIME)).longValue());
+    if (now.isBefore(jwt.getExpiresAt().minus(ttl.dividedBy(2))) || !now.isBefore(authTime.plus(maxAge))) {
+      return Optional.empty();
+    }
+    OAuth2AuthenticationToken authentication = authentication(jwt);
+    Number userId = jwt.getClaim(USER_ID);
+    return Optional.of(issue(authentication.getPrincipal(), authentication.getAuthorities(),
+        authentication.getAuthorizedClientRegistrationId(), userId == null ? null : userId.longValue(), authTime));
+  }
+
+  public Optional<String> readCookie(HttpServletRequest request) {
+    return readCookie(request, COOKIE);
+  }
+
+  public void writeCookie(HttpServletRequest request, HttpServletResponse response, String token) {
+    writeCookie(request, response, COOKIE, token, ttl);
+  }
+
+  public void clearCookie(HttpServletRequest request, HttpServletResponse response) {
+    writeCookie(request, response, COOKIE, "", Duration.ZERO);
+  }
+
+  public static Optional<String> readCookie(HttpServletRequest request, String name) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies != null) {
+      for (Cookie cookie : cookies) {
+        if (name.equals(cookie.getName())) {
+          return Optional.of(cookie.getValue());
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  public static void writeCookie(HttpServletRequest request, HttpServletResponse response, String name,
+      String value, Duration maxAge) {
+    response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(name, value)
+        .path("/")
+        .httpOnly(true)
+        .secure(request.isSecure())
+        .sameSite("Lax")
+        .maxAge(maxAge)
+        .build()
+        .toString());
+  }
+
+  /**
+   * Replaces the session that the login would otherwise have started: makes
+   * sure the user has a row in the users table (to put its id in the token),
+   * sets the cookie, and goes to the home page.
+   */
+  public AuthenticationSuccessHandler loginSuccessHandler() {
+    SimpleUrlAuthenticationSuccessHandler redirect = new SimpleUrlAuthenticationSuccessHandler("/");
+    return (request, response, authentication) -> {
+      User user = currentUserService.getUser();
+      writeCookie(request, response, issue((OAuth2AuthenticationToken) authentication, user == null ? null : user.getId()));
+      redirect.onAuthenticationSuccess(request, response, authentication);
+    };
+  }
+}
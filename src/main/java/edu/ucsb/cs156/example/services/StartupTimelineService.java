@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.StartupReport;
+import edu.ucsb.cs156.example.models.StartupStepTiming;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Service;
+
+/**
+ * Summarizes the startup steps recorded by the BufferingApplicationStartup
+ * that ExampleApplication installs: which steps (mostly bean
+ * instantiations) took longest, counting only their own time and not that
+ * of the beans they pulled in.
+ *
+ * The buffer is only read, so /actuator/startup still sees the full
+ * timeline. With lazy initialization (the faststart profile), beans
+ * created by the first requests show up here too.
+ */
+
+@Service("startupTimeline")
+public class StartupTimelineService {
+
+  @Autowired
+  ApplicationContext applicationContext;
+
+  public StartupReport getReport(int limit) {
+    if (applicationContext instanceof ConfigurableApplicationContext context
+        && context.getApplicationStartup() instanceof BufferingApplicationStartup startup) {
+      return summarize(startup.getBufferedTimeline(), limit);
+    }
+    return StartupReport.builder().recorded(false).slowestSteps(List.of()).build();
+  }
+
+  public static StartupReport summarize(StartupTimeline timeline, int limit) {
+    List<TimelineEvent> events = timeline.getEvents();
+    Map<Long, Duration> childTime = new HashMap<>();
+    for (TimelineEvent event : events) {
+      Long parentId = event.getStartupStep().getParentId();
+      if (parentId != null) {
+        childTime.merge(parentId, event.getDuration(), Duration::plus);
+      }
+    }
+
+    List<StartupStepTiming> slowest = events.stream()
+        .map(event -> timing(event, childTime.getOrDefault(event.getStartupStep().getId(), Duration.ZERO)))
+        .sorted(Comparator.comparingDouble(StartupStepTiming::getSelfMillis).reversed())
+        .limit(limit)
+        .collect(Collectors.toList());
+
+    Double refreshMillis = events.stream()
+        .filter(event -> event.getStartupStep().getName().equals("spring.context.refresh"))
+        .findFirst()
+        .map(event -> millis(event.getDuration()))
+        .orElse(null);
+
+    return StartupReport.builder()
+        .recorded(true)
+        .startTime(timeline.getStartTime())
+        .refreshMillis(refreshMillis)
+        .stepsRecorded(events.size())
+        .slowestSteps(slowest)
+        .build();
+  }
+
+  private static StartupStepTiming timing(TimelineEvent event, Duration children) {
+    StartupStep step = event.getStartupStep();
+    return StartupStepTiming.builder()
+        .name(step.getName())
+        .detail(StreamSupport.stream(step.getTags().spliterator(), false)
+            .map(tag -> tag.getKey() + "=" + tag.getValue())
+            .collect(Collectors.joining(", ")))
+        .totalMillis(millis(event.getDuration()))
+        .selfMillis(millis(event.getDuration().minus(children)))
+        .build();
+  }
+
+  private static double millis(Duration duration) {
+    return duration.toNanos() / 1_000_000.0;
+  }
+}
@@ -0,0 +1,321 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UcsbBuilding;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.ImportError;
+import edu.ucsb.cs156.example.models.ImportResult;
+import edu.ucsb.cs156.example.repositories.UcsbBuildingRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates or updates UcsbBuildings from CSV, as sent by Facilities.
+ *
+ * The first line names the columns: name, and any of id, description,
+ * architecture and location, in any order. A row with an id updates that
+ * building; a row without one updates the building with the same name if
+ * there is one, and otherwise creates it.
+ *
+ * Rows are parsed as they are read, and saved app.import.batchSize at a
+ * time, one transaction per batch, so memory does not grow with the size
+ * of the file. A row that is invalid is reported with its line number and
+ * skipped; if a batch fails to save, its rows are saved one at a time to
+ * find the ones at fault. CSV that cannot be parsed at all ends the import,
+ * keeping the batches already saved.
+ */
+
+@Slf4j
+@Service
+public class UcsbBuildingImportService {
+
+  public static final List<String> COLUMNS = List.of("id", "name", "description", "architecture", "location");
+
+  private static final int MAX_LENGTH = 255;
+
+  /**
+   * Told about each building created or updated, inside its batch's
+   * transaction, so what it records (e.g. the changelog) commits or rolls
+   * back with the batch.
+   */
+  public interface ChangeListener {
+    void changed(ChangeType changeType, UcsbBuilding building, Object before);
+  }
+
+  private static final CsvMapper CSV = new CsvMapper();
+
+  @Autowired
+  UcsbBuildingRepository ucsbBuildingRepository;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Value("${app.import.batchSize:500}")
+  private int batchSize;
+
+  @Value("${app.import.maxErrors:1000}")
+  private int maxErrors;
+
+  private static class Row {
+    final long line;
+    final Long id;
+    final String name;
+    final String description;
+    final String architecture;
+    final String location;
+
+    Row(long line, Long id, String name, String description, String architecture, String location) {
+      this.line = line;
+      this.id = id;
+      this.name = name;
+      this.description = description;
+      this.architecture = architecture;
+      this.location = location;
+    }
+  }
+
+  private static class Change {
+    final ChangeType changeType;
+    final UcsbBuilding building;
+    final Object before;
+
+    Change(ChangeType changeType, UcsbBuilding building, Object before) {
+      this.changeType = changeType;
+      this.building = building;
+      this.before = before;
+    }
+  }
+
+  private class Progress {
+    long rows;
+    long created;
+    long updated;
+    long failed;
+    final List<ImportError> errors = new ArrayList<>();
+
+    void error(long line, String message) {
+      failed++;
+      if (errors.size() < maxErrors) {
+        errors.add(ImportError.builder().line(line).message(message).build());
+      }
+    }
+  }
+
+  /**
+   * @throws BadRequestException if the header is missing or names columns
+   *                             other than COLUMNS
+   */
+  public ImportResult importCsv(Reader csv, ChangeListener listener) throws IOException {
+    long start = System.nanoTime();
+    Progress progress = new Progress();
+    boolean completed = true;
+
+    try (MappingIterator<String[]> lines = CSV.readerFor(String[].class)
+        .with(CsvParser.Feature.WRAP_AS_ARRAY)
+        .readValues(csv)) {
+      if (!lines.hasNextValue()) {
+        throw new BadRequestException("the CSV is empty; the first line should name the columns");
+      }
+      String[] header = lines.nextValue();
+      int[] columns = columns(header);
+
+      List<Row> batch = new ArrayList<>(batchSize);
+      while (true) {
+        long line;
+        String[] values;
+        try {
+          if (!lines.hasNextValue()) {
+            break;
+          }
+          line = lines.getParser().getCurrentLocation().getLineNr();
+          values = lines.nextValue();
+        } catch (IOException | RuntimeException e) {
+          progress.error(lines.getParser().getCurrentLocation().getLineNr(),
+              "could not parse the CSV here, so the import stopped: " + e.getMessage());
+          completed = false;
+          break;
+        }
+        if (values.length == 1 && values[0].isBlank()) {
+          continue;
+        }
+        progress.rows++;
+        Row row = parse(line, values, header.length, columns, progress);
+        if (row != null) {
+          batch.add(row);
+          if (batch.size() == batchSize) {
+            save(batch, progress, listener);
+            batch.clear();
+          }
+        }
+      }
+      save(batch, progress, listener);
+    }
+
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    log.info("imported {} building rows in {} ms: {} created, {} updated, {} failed", progress.rows, elapsedMillis,
+        progress.created, progress.updated, progress.failed);
+    return ImportResult.builder()
+        .entityType("ucsbbuildings")
+        .rows(progress.rows)
+        .created(progress.created)
+        .updated(progress.updated)
+        .failed(progress.failed)
+        .errors(progress.errors)
+        .completed(completed)
+        .elapsedMillis(elapsedMillis)
+        .build();
+  }
+
+  // the position of each of COLUMNS in the file, or -1
+  private static int[] columns(String[] header) {
+    int[] columns = new int[COLUMNS.size()];
+    Arrays.fill(columns, -1);
+    for (int i = 0; i < header.length; i++) {
+      // Excel starts UTF-8 files with a byte order mark
+      String name = header[i].replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+      int column = COLUMNS.indexOf(name);
+      if (column < 0 || columns[column] >= 0) {
+        throw new BadRequestException("column %d of the header, \"%s\", should be one of %s, and not repeated"
+            .formatted(i + 1, header[i], COLUMNS));
+      }
+      columns[column] = i;
+    }
+    if (columns[COLUMNS.indexOf("name")] < 0) {
+      throw new BadRequestException("the header must have a name column");
+    }
+    return columns;
+  }
+
+  private Row parse(long line, String[] values, int headerLength, int[] columns, Progress progress) {
+    String[] fields = new String[COLUMNS.size()];
+    for (int column = 0; column < fields.length; column++) {
+      int i = columns[column];
+      String value = i >= 0 && i < values.length ? values[i].trim() : "";
+      if (value.length() > MAX_LENGTH) {
+        progress.error(line, "%s is longer than %d characters".formatted(COLUMNS.get(column), MAX_LENGTH));
+        return null;
+      }
+      fields[column] = value.isEmpty() ? null : value;
+    }
+    if (values.length > headerLength) {
+      progress.error(line, "%d values, but the header has %d columns".formatted(values.length, headerLength));
+      return null;
+    }
+    if (fields[1] == null) {
+      progress.error(line, "name is required");
+      return null;
+    }
+    Long id = null;
+    if (fields[0] != null) {
+      try {
+        id = Long.parseLong(fields[0]);
+      } catch (NumberFormatException e) {
+        progress.error(line, "id \"%s\" is not a number".formatted(fields[0]));
+        return null;
+      }
+    }
+    return new Row(line, id, fields[1], fields[2], fields[3], fields[4]);
+  }
+
+  private void save(List<Row> batch, Progress progress, ChangeListener listener) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    List<Change> changes = new ArrayList<>();
+    List<ImportError> errors = new ArrayList<>();
+    try {
+      transactionTemplate.executeWithoutResult(status -> upsert(batch, changes, errors, listener));
+    } catch (RuntimeException e) {
+      log.debug("batch of {} buildings failed, saving them one at a time", batch.size(), e);
+      changes.clear();
+      errors.clear();
+      for (Row row : batch) {
+        List<Change> rowChanges = new ArrayList<>();
+        try {
+          transactionTemplate.executeWithoutResult(status -> upsert(List.of(row), rowChanges, errors, listener));
+          changes.addAll(rowChanges);
+        } catch (RuntimeException rowFailure) {
+          errors.add(ImportError.builder().line(row.line)
+              .message("could not be saved: " + rowFailure.getMessage()).build());
+        }
+      }
+    }
+    errors.forEach(error -> progress.error(error.getLine(), error.getMessage()));
+    for (Change change : changes) {
+      if (change.changeType == ChangeType.CREATED) {
+        progress.created++;
+      } else {
+        progress.updated++;
+      }
+    }
+  }
+
+  private void upsert(List<Row> batch, List<Change> changes, List<ImportError> errors, ChangeListener listener) {
+    upsert(batch, changes, errors);
+    for (Change change : changes) {
+      listener.changed(change.changeType, change.building, change.before);
+    }
+  }
+
+  private void upsert(List<Row> batch, List<Change> changes, List<ImportError> errors) {
+    Map<Long, UcsbBuilding> byId = new HashMap<>();
+    ucsbBuildingRepository.findAllById(batch.stream().filter(row -> row.id != null).map(row -> row.id)
+        .collect(Collectors.toSet())).forEach(building -> byId.put(building.getId(), building));
+    Map<String, UcsbBuilding> byName = new HashMap<>();
+    ucsbBuildingRepository.findByNameIn(batch.stream().filter(row -> row.id == null).map(row -> row.name)
+        .collect(Collectors.toSet())).forEach(building -> byName.merge(building.getName(), building,
+            (a, b) -> a.getId() <= b.getId() ? a : b));
+
+    // by identity, since UcsbBuilding's equals compares the fields
+    Set<UcsbBuilding> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    Set<UcsbBuilding> created = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Row row : batch) {
+      UcsbBuilding building = row.id != null ? byId.get(row.id) : byName.get(row.name);
+      if (row.id != null && building == null) {
+        errors.add(ImportError.builder().line(row.line)
+            .message("there is no building with id %d".formatted(row.id)).build());
+        continue;
+      }
+      if (building == null) {
+        building = new UcsbBuilding();
+        created.add(building);
+        // a later row with the same name updates this one
+        byName.put(row.name, building);
+        changes.add(new Change(ChangeType.CREATED, building, null));
+      } else if (!created.contains(building)) {
+        changes.add(new Change(ChangeType.UPDATED, building, mapper.valueToTree(building)));
+      }
+      building.setName(row.name);
+      building.setDescription(row.description);
+      building.setArchitecture(row.architecture);
+      building.setLocation(row.location);
+      changed.add(building);
+    }
+    ucsbBuildingRepository.saveAll(changed);
+  }
+}
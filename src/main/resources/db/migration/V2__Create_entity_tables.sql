@@ -0,0 +1,56 @@
+CREATE TABLE book (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  title VARCHAR(255),
+  author VARCHAR(255),
+  year VARCHAR(255)
+);
+
+CREATE TABLE dog (
+  name VARCHAR(255) PRIMARY KEY,
+  breed VARCHAR(255),
+  gender VARCHAR(255)
+);
+
+CREATE TABLE game (
+  name VARCHAR(255) PRIMARY KEY,
+  publisher VARCHAR(255),
+  rating VARCHAR(255)
+);
+
+CREATE TABLE restaurant (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name VARCHAR(255),
+  description VARCHAR(255)
+);
+
+CREATE TABLE shoe (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name VARCHAR(255),
+  color VARCHAR(255),
+  brand VARCHAR(255)
+);
+
+CREATE TABLE ucsbbuildings (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name VARCHAR(255),
+  description VARCHAR(255),
+  architecture VARCHAR(255),
+  location VARCHAR(255)
+);
+
+CREATE TABLE ucsbdates (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  quarteryyyyq VARCHAR(255),
+  name VARCHAR(255),
+  local_date_time TIMESTAMP
+);
+
+CREATE TABLE ucsbdiningcommons (
+  code VARCHAR(255) PRIMARY KEY,
+  name VARCHAR(255),
+  has_sack_meal BOOLEAN NOT NULL,
+  has_take_out_meal BOOLEAN NOT NULL,
+  has_dining_cam BOOLEAN NOT NULL,
+  latitude DOUBLE PRECISION,
+  longitude DOUBLE PRECISION
+);
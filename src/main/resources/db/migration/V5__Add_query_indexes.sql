@@ -0,0 +1,5 @@
+-- UserRepository.findByEmail, on every login
+CREATE INDEX users_email ON users (email);
+
+-- UCSBDateRepository.findAllByQuarterYYYYQ
+CREATE INDEX ucsbdates_quarteryyyyq ON ucsbdates (quarteryyyyq);
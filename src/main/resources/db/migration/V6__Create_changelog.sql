@@ -0,0 +1,18 @@
+-- Databases that ddl-auto=update created are baselined at V4 (see
+-- application.properties), so this has to come after that, and has to
+-- allow for the table being there already or not.
+CREATE TABLE IF NOT EXISTS changelog (
+  seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  entity_type VARCHAR(255),
+  entity_id VARCHAR(255),
+  change_type VARCHAR(255),
+  timestamp TIMESTAMP,
+  -- unbounded, the same as TEXT on Postgres; H2 turns TEXT into a CLOB,
+  -- which Hibernate will not validate against a String field
+  payload VARCHAR
+);
+
+-- ddl-auto=update made this TEXT, a CLOB on H2; on Postgres this changes nothing
+ALTER TABLE changelog ALTER COLUMN payload SET DATA TYPE VARCHAR;
+
+CREATE INDEX IF NOT EXISTS changelog_entity_type_seq ON changelog (entity_type, seq);
@@ -0,0 +1,14 @@
+-- Written only by AuditLogService, in batches, so there is no JPA entity
+CREATE TABLE audit_log (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  timestamp TIMESTAMP NOT NULL,
+  principal VARCHAR(255),
+  entity_type VARCHAR(255) NOT NULL,
+  entity_id VARCHAR(255) NOT NULL,
+  change_type VARCHAR(255) NOT NULL,
+  -- unbounded, see V6
+  before_state VARCHAR,
+  after_state VARCHAR
+);
+
+CREATE INDEX audit_log_entity ON audit_log (entity_type, entity_id);
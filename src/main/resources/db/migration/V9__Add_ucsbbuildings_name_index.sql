@@ -0,0 +1,2 @@
+-- UcsbBuildingRepository.findByNameIn, to match imported rows to existing buildings
+CREATE INDEX ucsbbuildings_name ON ucsbbuildings (name);
@@ -0,0 +1,90 @@
+package edu.ucsb.cs156.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Properties;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+class MigrationTests {
+
+  private JdbcDataSource h2;
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:migrations-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(h2);
+  }
+
+  // the tables as ddl-auto=update left them, before there was a history table
+  private void createPreFlywaySchema() {
+    new ResourceDatabasePopulator(
+        new ClassPathResource("db/migration/V1__Create_users.sql"),
+        new ClassPathResource("db/migration/V2__Create_entity_tables.sql"),
+        new ClassPathResource("db/migration/V4__Add_admin_to_users.sql")).execute(h2);
+  }
+
+  // configured the way application.properties configures it
+  private void migrate() throws Exception {
+    Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+    Flyway.configure().dataSource(h2)
+        .baselineOnMigrate(Boolean.parseBoolean(properties.getProperty("spring.flyway.baseline-on-migrate")))
+        .baselineVersion(properties.getProperty("spring.flyway.baseline-version"))
+        .load().migrate();
+  }
+
+  private String payloadType() {
+    return jdbcTemplate.queryForObject("SELECT TYPE_NAME FROM INFORMATION_SCHEMA.COLUMNS"
+        + " WHERE TABLE_NAME = 'CHANGELOG' AND COLUMN_NAME = 'PAYLOAD'", String.class);
+  }
+
+  private void recordAChange() {
+    jdbcTemplate.update("INSERT INTO changelog (entity_type, entity_id, change_type, timestamp, payload)"
+        + " VALUES ('shoe', '1', 'CREATED', CURRENT_TIMESTAMP, '{}')");
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM changelog", Integer.class));
+  }
+
+  @Test
+  void a_new_database_gets_every_table() throws Exception {
+    migrate();
+
+    assertEquals("VARCHAR", payloadType());
+    recordAChange();
+  }
+
+  @Test
+  void a_database_from_before_the_changelog_gets_one() throws Exception {
+    createPreFlywaySchema();
+
+    migrate();
+
+    assertEquals("VARCHAR", payloadType());
+    recordAChange();
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES"
+        + " WHERE INDEX_NAME = 'CHANGELOG_ENTITY_TYPE_SEQ' AND COLUMN_NAME = 'ENTITY_TYPE'", Integer.class));
+  }
+
+  @Test
+  void a_changelog_that_ddl_auto_created_is_kept_and_converted() throws Exception {
+    createPreFlywaySchema();
+    jdbcTemplate.execute("CREATE TABLE changelog (seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+        + " entity_type VARCHAR(255), entity_id VARCHAR(255), change_type VARCHAR(255), timestamp TIMESTAMP,"
+        + " payload TEXT)");
+    assertEquals("CLOB", payloadType());
+
+    migrate();
+
+    assertEquals("VARCHAR", payloadType());
+    recordAChange();
+  }
+}
@@ -0,0 +1,176 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.controllers.ShoeController;
+import edu.ucsb.cs156.example.controllers.UsersController;
+import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.instrumentation.TimedJackson2HttpMessageConverter;
+import edu.ucsb.cs156.example.models.ShoeView;
+import edu.ucsb.cs156.example.models.UserView;
+import edu.ucsb.cs156.example.repositories.ShoeRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+@WebMvcTest(controllers = { ShoeController.class, UsersController.class })
+public class BinaryFormatsConfigTests extends ControllerTestCase {
+
+  @MockBean
+  ShoeRepository shoeRepository;
+
+  @MockBean
+  UserRepository userRepository;
+
+  @Autowired
+  RequestMappingHandlerAdapter handlerAdapter;
+
+  private final ObjectMapper cbor = new CBORMapper();
+  private final ObjectMapper smile = new SmileMapper();
+
+  private final List<Shoe> shoes = List.of(
+      Shoe.builder().id(1L).name("Jordan").color("Red").brand("Nike").build(),
+      Shoe.builder().id(2L).name("Yeezy").color("Gray").brand("Adidas").build());
+
+  private MvcResult getAll(MediaType accept) throws Exception {
+    when(shoeRepository.findAllViews()).thenReturn(mapper.convertValue(shoes, new TypeReference<List<ShoeView>>() {}));
+    return mockMvc.perform(get("/api/shoes/all").accept(accept))
+        .andExpect(status().isOk()).andReturn();
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void json_is_still_the_default() throws Exception {
+    MvcResult response = getAll(MediaType.ALL);
+
+    assertTrue(response.getResponse().getContentType().startsWith("application/json"));
+    assertEquals(mapper.writeValueAsString(shoes), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void cbor_when_asked_for() throws Exception {
+    MvcResult response = getAll(BinaryFormatsConfig.CBOR);
+
+    assertEquals("application/cbor", response.getResponse().getContentType());
+    byte[] body = response.getResponse().getContentAsByteArray();
+    assertEquals(shoes, cbor.readValue(body, new TypeReference<List<Shoe>>() {}));
+    assertTrue(body.length < mapper.writeValueAsBytes(shoes).length);
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void smile_when_asked_for() throws Exception {
+    MvcResult response = getAll(BinaryFormatsConfig.SMILE);
+
+    assertEquals("application/x-jackson-smile", response.getResponse().getContentType());
+    assertEquals(shoes, smile.readValue(response.getResponse().getContentAsByteArray(),
+        new TypeReference<List<Shoe>>() {}));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void cbor_for_the_users_list_too() throws Exception {
+    List<User> users = List.of(
+        User.builder().id(1L).email("cgaucho@ucsb.edu").fullName("Chris Gaucho").admin(true).build(),
+        User.builder().id(2L).email("ldelplaya@ucsb.edu").fullName("Laurie Del Playa").build());
+    when(userRepository.findAllViews()).thenReturn(mapper.convertValue(users, new TypeReference<List<UserView>>() {}));
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users").accept(BinaryFormatsConfig.CBOR))
+        .andExpect(status().isOk()).andReturn();
+
+    assertEquals("application/cbor", response.getResponse().getContentType());
+    assertEquals(users, cbor.readValue(response.getResponse().getContentAsByteArray(),
+        new TypeReference<List<User>>() {}));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void cbor_request_bodies_are_read() throws Exception {
+    Shoe edited = Shoe.builder().name("Yeezy").color("Gray").brand("Adidas").build();
+    when(shoeRepository.findById(eq(67L))).thenReturn(Optional.of(
+        Shoe.builder().name("Jordan").color("Red").brand("Nike").build()));
+
+    MvcResult response = mockMvc.perform(put("/api/shoes?id=67")
+        .contentType(BinaryFormatsConfig.CBOR)
+        .accept(BinaryFormatsConfig.CBOR)
+        .content(cbor.writeValueAsBytes(edited))
+        .with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    verify(shoeRepository).save(edited);
+    assertEquals(edited, cbor.readValue(response.getResponse().getContentAsByteArray(), Shoe.class));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void errors_come_back_in_the_format_asked_for() throws Exception {
+    when(shoeRepository.findById(eq(7L))).thenReturn(Optional.empty());
+
+    MvcResult response = mockMvc.perform(get("/api/shoes?id=7").accept(BinaryFormatsConfig.CBOR))
+        .andExpect(status().isNotFound()).andReturn();
+
+    Map<String, Object> error = cbor.readValue(response.getResponse().getContentAsByteArray(),
+        new TypeReference<Map<String, Object>>() {});
+    assertEquals("EntityNotFoundException", error.get("type"));
+  }
+
+  @Test
+  public void binary_converters_are_timed_like_json() {
+    for (MediaType mediaType : List.of(BinaryFormatsConfig.CBOR, BinaryFormatsConfig.SMILE)) {
+      assertTrue(handlerAdapter.getMessageConverters().stream().anyMatch(converter ->
+          converter instanceof TimedJackson2HttpMessageConverter
+              && converter.getSupportedMediaTypes().contains(mediaType)), mediaType.toString());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void not_timed_when_request_statistics_are_off() {
+    BinaryFormatsConfig config = new BinaryFormatsConfig();
+    config.objectMapperBuilder = mock(ObjectProvider.class);
+    when(config.objectMapperBuilder.getObject()).thenAnswer(invocation -> Jackson2ObjectMapperBuilder.json());
+    ReflectionTestUtils.setField(config, "requestStatisticsEnabled", false);
+    List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(new MappingJackson2HttpMessageConverter()));
+
+    config.extendMessageConverters(converters);
+
+    assertEquals(List.of(MappingJackson2HttpMessageConverter.class, MappingJackson2CborHttpMessageConverter.class,
+        MappingJackson2SmileHttpMessageConverter.class), converters.stream().map(Object::getClass).toList());
+  }
+}
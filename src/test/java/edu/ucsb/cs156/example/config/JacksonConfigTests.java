@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.User;
+
+@JsonTest
+@Import(JacksonConfig.class)
+class JacksonConfigTests {
+
+  @Autowired
+  ObjectMapper mapper;
+
+  // what Spring Boot would build without the module
+  private final ObjectMapper reflection = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+
+  private final List<Object> entities = List.of(
+      UCSBDiningCommons.builder().code("ortega").name("Ortega").hasSackMeal(true).hasTakeOutMeal(true)
+          .hasDiningCam(false).latitude(34.410987).longitude(-119.84709).build(),
+      UCSBDate.builder().id(3L).quarterYYYYQ("20221").name("Noon on New Year's Day")
+          .localDateTime(LocalDateTime.of(2022, 1, 1, 12, 0)).build(),
+      User.builder().id(7L).email("cgaucho@ucsb.edu").googleSub("1158").fullName("Chris Gaucho")
+          .emailVerified(true).admin(true).build());
+
+  @Test
+  void the_application_mapper_uses_blackbird() {
+    assertTrue(mapper.getRegisteredModuleIds().contains(new BlackbirdModule().getTypeId()));
+    assertFalse(reflection.getRegisteredModuleIds().contains(new BlackbirdModule().getTypeId()));
+  }
+
+  @Test
+  void the_json_is_the_same_either_way() throws Exception {
+    for (Object entity : entities) {
+      String json = mapper.writeValueAsString(entity);
+
+      assertEquals(reflection.writeValueAsString(entity), json);
+      assertEquals(entity, mapper.readValue(json, entity.getClass()));
+    }
+    assertEquals(reflection.writeValueAsString(entities), mapper.writeValueAsString(entities));
+    assertEquals(entities.get(0), mapper.readValue(mapper.writeValueAsString(List.of(entities.get(0))),
+        new TypeReference<List<UCSBDiningCommons>>() {}).get(0));
+  }
+}
@@ -0,0 +1,57 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReadReplicaConfigTests {
+
+  private final ReadReplicaConfig config = new ReadReplicaConfig();
+  private final String name = UUID.randomUUID().toString();
+
+  @AfterEach
+  void tearDown() {
+    config.closePools();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void the_local_replica_is_a_separate_database_with_the_same_schema() throws Exception {
+    DataSourceProperties primary = new DataSourceProperties();
+    primary.setUrl("jdbc:h2:mem:primary-" + name + ";DB_CLOSE_DELAY=-1");
+    primary.setUsername("sa");
+    primary.afterPropertiesSet();
+    MockEnvironment environment = new MockEnvironment()
+        .withProperty("spring.datasource.hikari.maximum-pool-size", "2");
+    DataSource dataSource = config.dataSource(primary, environment,
+        List.of("jdbc:h2:mem:replica-" + name + ";DB_CLOSE_DELAY=-1"), "", "", 5000, 20, true,
+        mock(ObjectProvider.class));
+    ReadReplicaConfig.migrate(primary.getUrl(), "sa", "", environment);
+
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+        jdbcTemplate.update("INSERT INTO shoe (name, color, brand) VALUES ('Jordan', 'Red', 'Nike')"));
+
+    Integer onReplica = readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shoe",
+        Integer.class));
+
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shoe", Integer.class));
+    assertEquals(0, onReplica);
+  }
+}
@@ -0,0 +1,143 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class ReplicaRoutingDataSourceTests {
+
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate readOnly;
+  private TransactionTemplate readWrite;
+
+  private static DataSource database(String name) {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate setup = new JdbcTemplate(h2);
+    setup.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+    setup.execute("DELETE FROM whoami");
+    setup.update("INSERT INTO whoami VALUES (?)", name);
+    return h2;
+  }
+
+  @BeforeEach
+  void setUp() {
+    DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(database("primary"),
+        List.of(database("replica1"), database("replica2")), 60_000));
+    jdbcTemplate = new JdbcTemplate(routing);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private String whoami(TransactionTemplate transaction) {
+    return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class));
+  }
+
+  private void write() {
+    readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE whoami SET name = name"));
+  }
+
+  @Test
+  void test_read_only_transactions_go_to_the_replicas_in_turn() {
+    assertEquals("replica1", whoami(readOnly));
+    assertEquals("replica2", whoami(readOnly));
+    assertEquals("replica1", whoami(readOnly));
+  }
+
+  @Test
+  void test_everything_else_goes_to_the_primary() {
+    assertEquals("primary", whoami(readWrite));
+    assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class));
+  }
+
+  @Test
+  void test_session_reads_its_own_writes_from_the_primary() {
+    MockHttpSession session = new MockHttpSession();
+    MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/shoes/post");
+    post.setSession(session);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(post));
+    write();
+    assertEquals("primary", whoami(readOnly));
+
+    MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/shoes/all");
+    get.setSession(session);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(get));
+    assertEquals("primary", whoami(readOnly));
+
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/shoes/all")));
+    assertEquals("replica1", whoami(readOnly));
+  }
+
+  @Test
+  void test_stateless_requests_carry_the_pin_in_a_cookie() {
+    MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/shoes/post");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(post, response));
+    write();
+    write();
+    assertNull(post.getSession(false));
+    assertEquals(1, response.getHeaders("Set-Cookie").size());
+    Cookie pin = response.getCookie(ReplicaRoutingDataSource.PINNED_UNTIL_COOKIE);
+    assertNotNull(pin);
+
+    MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/shoes/all");
+    get.setCookies(pin);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(get, new MockHttpServletResponse()));
+    assertEquals("primary", whoami(readOnly));
+
+    MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/shoes/all");
+    expired.setCookies(new Cookie(ReplicaRoutingDataSource.PINNED_UNTIL_COOKIE,
+        Long.toString(System.currentTimeMillis() - 1)));
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(expired));
+    assertEquals("replica1", whoami(readOnly));
+  }
+
+  @Test
+  void test_pin_expires() {
+    DataSource routing = new LazyConnectionDataSourceProxy(
+        new ReplicaRoutingDataSource(database("primary"), List.of(database("replica1")), 0));
+    jdbcTemplate = new JdbcTemplate(routing);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    MockHttpSession session = new MockHttpSession();
+    MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/shoes/post");
+    post.setSession(session);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(post));
+    write();
+
+    MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/shoes/all");
+    get.setSession(session);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(get));
+    assertEquals("replica1", whoami(readOnly));
+  }
+}
@@ -0,0 +1,100 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.SerializationUtils;
+
+class SessionStoreConfigTests {
+
+  private final CompactSessionSerializer serializer = new CompactSessionSerializer(getClass().getClassLoader());
+
+  private static SecurityContextImpl securityContext() {
+    List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_MEMBER",
+        "SCOPE_https://www.googleapis.com/auth/userinfo.email");
+    DefaultOAuth2User user = new DefaultOAuth2User(authorities, Map.of(
+        "sub", "115856948234298493496",
+        "email", "cgaucho@ucsb.edu",
+        "email_verified", true,
+        "name", "Chris Gaucho",
+        "picture", "https://lh3.googleusercontent.com/a/default-user=s96-c",
+        "hd", "ucsb.edu"), "sub");
+    return new SecurityContextImpl(new OAuth2AuthenticationToken(user, authorities, "google"));
+  }
+
+  @Test
+  void compact_form_round_trips_and_is_smaller() {
+    SecurityContextImpl context = securityContext();
+
+    byte[] compact = serializer.serialize(context);
+    byte[] plain = SerializationUtils.serialize(context);
+
+    assertEquals(context, serializer.deserialize(compact));
+    assertTrue(compact.length * 3 < plain.length * 2, compact.length + " vs " + plain.length);
+  }
+
+  @Test
+  void plain_java_serialization_is_still_read() {
+    SecurityContextImpl context = securityContext();
+
+    assertEquals(context, serializer.deserialize(SerializationUtils.serialize(context)));
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  @Test
+  void sessions_are_stored_and_swept_in_the_migrated_schema() {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:sessions;DB_CLOSE_DELAY=-1");
+    Flyway.configure().dataSource(h2).load().migrate();
+
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(h2);
+    JdbcIndexedSessionRepository repository = new JdbcIndexedSessionRepository(jdbcTemplate,
+        new TransactionTemplate(new DataSourceTransactionManager(h2)));
+    SessionStoreConfig config = new SessionStoreConfig();
+    config.setBeanClassLoader(getClass().getClassLoader());
+    ConversionService conversionService = config.springSessionConversionService();
+    repository.setConversionService(conversionService);
+    SessionRepository<Session> sessions = (SessionRepository) repository;
+
+    Session live = sessions.createSession();
+    live.setAttribute("SPRING_SECURITY_CONTEXT", securityContext());
+    sessions.save(live);
+
+    Session expired = sessions.createSession();
+    expired.setLastAccessedTime(Instant.now().minus(Duration.ofHours(2)));
+    expired.setMaxInactiveInterval(Duration.ofMinutes(30));
+    sessions.save(expired);
+
+    byte[] stored = jdbcTemplate.queryForObject("SELECT attribute_bytes FROM spring_session_attributes",
+        byte[].class);
+    assertEquals(CompactSessionSerializer.DEFLATED, stored[0]);
+    assertEquals(securityContext(),
+        sessions.findById(live.getId()).getAttribute("SPRING_SECURITY_CONTEXT"));
+
+    repository.cleanUpExpiredSessions();
+
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spring_session", Integer.class));
+    assertNull(sessions.findById(expired.getId()));
+  }
+}
@@ -7,8 +7,16 @@ import edu.ucsb.cs156.example.entities.Book;
 import edu.ucsb.cs156.example.repositories.BookRepository;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
+import edu.ucsb.cs156.example.export.ExportFormat;
+import edu.ucsb.cs156.example.services.ExportService;
+import edu.ucsb.cs156.example.models.BookView;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -28,6 +36,8 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -42,6 +52,9 @@ public class BookControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        ExportService exportService;
+
         // Authorization tests for /api/ucsbdates/admin/all
 
         @Test
@@ -152,7 +165,7 @@ public class BookControllerTests extends ControllerTestCase {
                 ArrayList<Book> expectedBooks = new ArrayList<>();
                 expectedBooks.addAll(Arrays.asList(book1, book2));
 
-                when(bookRepository.findAll()).thenReturn(expectedBooks);
+                when(bookRepository.findAllViews()).thenReturn(mapper.convertValue(expectedBooks, new TypeReference<List<BookView>>() {}));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/books/all"))
@@ -160,7 +173,7 @@ public class BookControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(bookRepository, times(1)).findAll();
+                verify(bookRepository, times(1)).findAllViews();
                 String expectedJson = mapper.writeValueAsString(expectedBooks);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -317,4 +330,32 @@ public class BookControllerTests extends ControllerTestCase {
                 assertEquals("Book with id 67 not found", json.get("message"));
 
         }
-}
\ No newline at end of file
+
+        // Tests for /api/books/export
+
+        @Test
+        public void logged_out_users_cannot_export() throws Exception {
+                mockMvc.perform(get("/api/books/export"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_users_can_export_in_the_columnar_format() throws Exception {
+                // arrange
+                doAnswer(invocation -> {
+                        OutputStream out = invocation.getArgument(2);
+                        out.write(new byte[] { 'U', 'C', 'O', 'L', 1 });
+                        return 0L;
+                }).when(exportService).export(eq("books"), eq(ExportFormat.COLUMNAR), any());
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/books/export?format=columnar"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals("application/vnd.ucsb.columnar", response.getResponse().getContentType());
+                assertEquals("attachment; filename=\"books.ucol\"", response.getResponse().getHeader("Content-Disposition"));
+                assertEquals(5, response.getResponse().getContentAsByteArray().length);
+        }
+}
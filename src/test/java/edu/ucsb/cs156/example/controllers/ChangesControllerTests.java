@@ -0,0 +1,125 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.ChangeLogEntry;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ChangeFeedService;
+import edu.ucsb.cs156.example.services.ChangeLogService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ChangesController.class)
+@Import(TestConfig.class)
+public class ChangesControllerTests extends ControllerTestCase {
+
+        @MockBean
+        ChangeFeedService changeFeedService;
+
+        @MockBean
+        ChangeLogService changeLogService;
+
+        @MockBean
+        UserRepository userRepository;
+
+        @Test
+        public void logged_out_users_cannot_subscribe() throws Exception {
+                mockMvc.perform(get("/api/shoes/changes"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_users_can_subscribe() throws Exception {
+                when(changeFeedService.subscribe(eq("shoes"))).thenReturn(new SseEmitter());
+
+                mockMvc.perform(get("/api/shoes/changes"))
+                                .andExpect(request().asyncStarted());
+
+                verify(changeFeedService, times(1)).subscribe(eq("shoes"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void unknown_entity_type_is_not_found() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/cats/changes"))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                verify(changeFeedService, never()).subscribe(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("UnknownEntityTypeException", json.get("type"));
+                assertEquals("No entity type cats", json.get("message"));
+        }
+
+        @Test
+        public void logged_out_users_cannot_get_changes_since() throws Exception {
+                mockMvc.perform(get("/api/shoes/changes?since=0"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_users_can_get_changes_since() throws Exception {
+
+                // arrange
+
+                ChangeLogEntry tombstone = ChangeLogEntry.builder()
+                                .seq(12L)
+                                .entityType("shoes")
+                                .entityId("7")
+                                .changeType(ChangeType.DELETED)
+                                .build();
+
+                EntityChanges changes = EntityChanges.builder()
+                                .entityType("shoes")
+                                .since(10L)
+                                .latest(12L)
+                                .hasMore(false)
+                                .changes(List.of(tombstone))
+                                .build();
+
+                when(changeLogService.changesSince(eq("shoes"), eq(10L), eq(50))).thenReturn(changes);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/shoes/changes?since=10&limit=50"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(changeLogService, times(1)).changesSince(eq("shoes"), eq(10L), eq(50));
+                verify(changeFeedService, never()).subscribe(any());
+                String expectedJson = mapper.writeValueAsString(changes);
+                assertEquals(expectedJson, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void changes_since_for_unknown_entity_type_is_not_found() throws Exception {
+                mockMvc.perform(get("/api/cats/changes?since=0"))
+                                .andExpect(status().isNotFound());
+
+                verify(changeLogService, never()).changesSince(any(), anyLong(), anyInt());
+        }
+}
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.errors.UnknownEntityTypeException;
+import edu.ucsb.cs156.example.models.GeneratedData;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.DataGeneratorService;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("development")
+@WebMvcTest(controllers = DataGeneratorController.class)
+public class DataGeneratorControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  DataGeneratorService mockDataGeneratorService;
+
+  @Test
+  public void generate__logged_out() throws Exception {
+    mockMvc.perform(post("/api/admin/generate/shoes?rows=10").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void generate__user_logged_in() throws Exception {
+    mockMvc.perform(post("/api/admin/generate/shoes?rows=10").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void generate__admin_logged_in() throws Exception {
+
+    // arrange
+
+    GeneratedData generated = GeneratedData.builder()
+        .entityType("shoes").table("shoe").rows(1000000).seed(42).batchSize(5000).deleted(0).elapsedMillis(9000)
+        .build();
+    when(mockDataGeneratorService.generate("shoes", 1000000, 42, 5000, false)).thenReturn(generated);
+
+    // act
+    MvcResult response = mockMvc.perform(
+        post("/api/admin/generate/shoes?rows=1000000&seed=42&batchSize=5000").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(mockDataGeneratorService).generate("shoes", 1000000, 42, 5000, false);
+    assertEquals(mapper.writeValueAsString(generated), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void generate__unknown_entity_type() throws Exception {
+    when(mockDataGeneratorService.generate("cats", 10, 1, 1000, true))
+        .thenThrow(new UnknownEntityTypeException("cats"));
+
+    MvcResult response = mockMvc.perform(post("/api/admin/generate/cats?rows=10&replace=true").with(csrf()))
+        .andExpect(status().isNotFound()).andReturn();
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("No entity type cats", json.get("message"));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void generate__bad_arguments() throws Exception {
+    when(mockDataGeneratorService.generate("shoes", -1, 1, 1000, false))
+        .thenThrow(new BadRequestException("rows must be between 0 and 10000000"));
+
+    MvcResult response = mockMvc.perform(post("/api/admin/generate/shoes?rows=-1").with(csrf()))
+        .andExpect(status().isBadRequest()).andReturn();
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("rows must be between 0 and 10000000", json.get("message"));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void entityTypes__admin_logged_in() throws Exception {
+    MvcResult response = mockMvc.perform(get("/api/admin/generate"))
+        .andExpect(status().isOk()).andReturn();
+
+    assertEquals(mapper.writeValueAsString(DataGeneratorService.entityTypes()),
+        response.getResponse().getContentAsString());
+  }
+}
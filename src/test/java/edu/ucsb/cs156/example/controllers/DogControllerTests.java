@@ -5,10 +5,13 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Dog;
 import edu.ucsb.cs156.example.repositories.DogRepository;
+import edu.ucsb.cs156.example.models.DogView;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -146,7 +149,7 @@ assertEquals("Dog with id dne not found", json.get("message"));
         ArrayList<Dog> expectedDogs = new ArrayList<>();
         expectedDogs.addAll(Arrays.asList(max, annie));
 
-        when(dogRepository.findAll()).thenReturn(expectedDogs);
+        when(dogRepository.findAllViews()).thenReturn(mapper.convertValue(expectedDogs, new TypeReference<List<DogView>>() {}));
 
         // act
         MvcResult response = mockMvc.perform(get("/api/dogs/all"))
@@ -154,7 +157,7 @@ assertEquals("Dog with id dne not found", json.get("message"));
 
         // assert
 
-        verify(dogRepository, times(1)).findAll();
+        verify(dogRepository, times(1)).findAllViews();
         String expectedJson = mapper.writeValueAsString(expectedDogs);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedJson, responseString);
@@ -0,0 +1,69 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.ExecutionInfo;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ExecutionInfoService;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ExecutionInfoController.class)
+public class ExecutionInfoControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  ExecutionInfoService mockExecutionInfoService;
+
+  @Test
+  public void executionInfo__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/execution"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void executionInfo__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/execution"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void executionInfo__admin_logged_in() throws Exception {
+
+    // arrange
+
+    ExecutionInfo executionInfo = ExecutionInfo
+        .builder()
+        .javaVersion(21)
+        .virtualThreadsSupported(true)
+        .virtualThreadsEnabled(true)
+        .dbPoolMaximumSize(10)
+        .pinnedCount(3)
+        .recentPinnedFrames(List.of("org.postgresql.core.v3.QueryExecutorImpl.execute line 320 (25 ms)"))
+        .build();
+    when(mockExecutionInfoService.getExecutionInfo()).thenReturn(executionInfo);
+    String expectedJson = mapper.writeValueAsString(executionInfo);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/execution"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+}
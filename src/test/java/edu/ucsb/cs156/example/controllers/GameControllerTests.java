@@ -5,10 +5,13 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Game;
 import edu.ucsb.cs156.example.repositories.GameRepository;
+import edu.ucsb.cs156.example.models.GameView;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -146,7 +149,7 @@ assertEquals("Game with id dne not found", json.get("message"));
         ArrayList<Game> expectedGames = new ArrayList<>();
         expectedGames.addAll(Arrays.asList(doom, mario));
 
-        when(gameRepository.findAll()).thenReturn(expectedGames);
+        when(gameRepository.findAllViews()).thenReturn(mapper.convertValue(expectedGames, new TypeReference<List<GameView>>() {}));
 
         // act
         MvcResult response = mockMvc.perform(get("/api/games/all"))
@@ -154,7 +157,7 @@ assertEquals("Game with id dne not found", json.get("message"));
 
         // assert
 
-        verify(gameRepository, times(1)).findAll();
+        verify(gameRepository, times(1)).findAllViews();
         String expectedJson = mapper.writeValueAsString(expectedGames);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedJson, responseString);
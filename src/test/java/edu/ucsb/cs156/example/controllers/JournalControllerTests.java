@@ -0,0 +1,98 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.filters.RequestStatisticsFilter;
+import edu.ucsb.cs156.example.journal.Journal;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ChangeJournalService;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = JournalController.class)
+@TestPropertySource(properties = { "app.journal.enabled=true", "app.requestStatistics.headers=true" })
+public class JournalControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  ChangeJournalService changeJournalService;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void journal__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/journal"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void journal__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/journal"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void journal__admin_logged_in() throws Exception {
+
+    // arrange
+
+    try (Journal journal = new Journal(directory, 4096)) {
+      journal.append("{\"entityType\":\"shoes\",\"entityId\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+      journal.append("{\"entityType\":\"shoes\",\"entityId\":\"2\"}".getBytes(StandardCharsets.UTF_8));
+      when(changeJournalService.read(2L)).thenReturn(journal.read(2L));
+
+      // act
+
+      MvcResult response = mockMvc.perform(get("/api/admin/journal?from=2"))
+          .andExpect(status().isOk()).andReturn();
+
+      // assert
+
+      assertEquals(JournalController.NDJSON, response.getResponse().getContentType());
+      assertEquals("{\"sequence\":2,\"event\":{\"entityType\":\"shoes\",\"entityId\":\"2\"}}\n",
+          response.getResponse().getContentAsString());
+    }
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void journal__is_streamed_with_statistics_headers_on() throws Exception {
+
+    // arrange
+
+    try (Journal journal = new Journal(directory, 4096)) {
+      journal.append("{\"entityType\":\"shoes\",\"entityId\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+      when(changeJournalService.read(1L)).thenReturn(journal.read(1L));
+
+      // act
+
+      MvcResult response = mockMvc.perform(get("/api/admin/journal"))
+          .andExpect(status().isOk()).andReturn();
+
+      // assert: RequestStatisticsFilter let it through instead of buffering it for the headers
+
+      assertNull(response.getResponse().getHeader(RequestStatisticsFilter.STATEMENTS_HEADER));
+      assertEquals("{\"sequence\":1,\"event\":{\"entityType\":\"shoes\",\"entityId\":\"1\"}}\n",
+          response.getResponse().getContentAsString());
+    }
+  }
+}
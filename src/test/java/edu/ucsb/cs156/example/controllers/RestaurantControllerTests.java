@@ -7,8 +7,16 @@ import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
+import edu.ucsb.cs156.example.export.ExportFormat;
+import edu.ucsb.cs156.example.services.ExportService;
+import edu.ucsb.cs156.example.models.RestaurantView;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -16,6 +24,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.util.NestedServletException;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,8 +33,12 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +53,9 @@ public class RestaurantControllerTests extends ControllerTestCase {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    ExportService exportService;
+
     // Authorization tests for /api/Restaurant/admin/all
 
     @Test
@@ -143,7 +159,7 @@ public class RestaurantControllerTests extends ControllerTestCase {
         ArrayList<Restaurant> expectedRestaurants = new ArrayList<>();
         expectedRestaurants.addAll(Arrays.asList(restaurant1, restaurant2));
 
-        when(restaurantRepository.findAll()).thenReturn(expectedRestaurants);
+        when(restaurantRepository.findAllViews()).thenReturn(mapper.convertValue(expectedRestaurants, new TypeReference<List<RestaurantView>>() {}));
 
         // act
         MvcResult response = mockMvc.perform(get("/api/Restaurant/all"))
@@ -151,7 +167,7 @@ public class RestaurantControllerTests extends ControllerTestCase {
 
         // assert
 
-        verify(restaurantRepository, times(1)).findAll();
+        verify(restaurantRepository, times(1)).findAllViews();
         String expectedJson = mapper.writeValueAsString(expectedRestaurants);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedJson, responseString);
@@ -292,4 +308,59 @@ public class RestaurantControllerTests extends ControllerTestCase {
         assertEquals("Restaurant with id 1 not found", json.get("message"));
 
     }
+
+    // Tests for /api/Restaurant/export
+
+    @Test
+    public void logged_out_users_cannot_export() throws Exception {
+        mockMvc.perform(get("/api/Restaurant/export"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_users_can_export_as_csv() throws Exception {
+        // arrange
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,name,description\n1,Freebirds,Burritos\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exportService).export(eq("Restaurant"), eq(ExportFormat.CSV), any());
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/Restaurant/export"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        assertEquals("text/csv;charset=UTF-8", response.getResponse().getContentType());
+        assertEquals("attachment; filename=\"restaurants.csv\"", response.getResponse().getHeader("Content-Disposition"));
+        assertEquals("id,name,description\n1,Freebirds,Burritos\n", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void export_in_an_unknown_format_is_a_bad_request() throws Exception {
+        // act
+        MvcResult response = mockMvc.perform(get("/api/Restaurant/export?format=parquet"))
+                .andExpect(status().isBadRequest()).andReturn();
+
+        // assert
+        verify(exportService, never()).export(any(), any(), any());
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("BadRequestException", json.get("type"));
+        assertEquals("format \"parquet\" should be csv or columnar", json.get("message"));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void other_illegal_arguments_are_not_bad_requests() throws Exception {
+        // arrange
+        doThrow(new IllegalArgumentException("a bug, not the client's fault"))
+                .when(exportService).export(eq("Restaurant"), eq(ExportFormat.CSV), any());
+
+        // act and assert: left to the server error handling, not reported as a 400
+        NestedServletException e = assertThrows(NestedServletException.class,
+                () -> mockMvc.perform(get("/api/Restaurant/export")));
+        assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+    }
 }
@@ -5,10 +5,13 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Shoe;
 import edu.ucsb.cs156.example.repositories.ShoeRepository;
+import edu.ucsb.cs156.example.models.ShoeView;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -152,7 +155,7 @@ public class ShoeControllerTests extends ControllerTestCase {
                 ArrayList<Shoe> expectedShoes = new ArrayList<>();
                 expectedShoes.addAll(Arrays.asList(shoe1, shoe2));
 
-                when(shoeRepository.findAll()).thenReturn(expectedShoes);
+                when(shoeRepository.findAllViews()).thenReturn(mapper.convertValue(expectedShoes, new TypeReference<List<ShoeView>>() {}));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/shoes/all"))
@@ -160,7 +163,7 @@ public class ShoeControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(shoeRepository, times(1)).findAll();
+                verify(shoeRepository, times(1)).findAllViews();
                 String expectedJson = mapper.writeValueAsString(expectedShoes);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
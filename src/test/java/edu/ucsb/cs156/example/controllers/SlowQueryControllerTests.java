@@ -0,0 +1,83 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.instrumentation.SlowQueryLog;
+import edu.ucsb.cs156.example.models.SlowQuery;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SlowQueryController.class)
+public class SlowQueryControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  SlowQueryLog mockSlowQueryLog;
+
+  @Test
+  public void slowQueries__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/slowqueries"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void slowQueries__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/slowqueries"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void slowQueries__admin_logged_in() throws Exception {
+
+    // arrange
+
+    SlowQuery slowQuery = SlowQuery.builder()
+        .timestamp(Instant.parse("2022-01-03T00:00:00Z"))
+        .durationMillis(250.5)
+        .sql("select * from shoe where id=?")
+        .parameters(List.of(7))
+        .request("GET /api/shoes")
+        .thread("http-nio-8080-exec-1")
+        .plan("Seq Scan on shoe")
+        .build();
+    when(mockSlowQueryLog.getRecent()).thenReturn(List.of(slowQuery));
+    String expectedJson = mapper.writeValueAsString(List.of(slowQuery));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/slowqueries"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void slowQueries__admin_can_clear() throws Exception {
+    MvcResult response = mockMvc.perform(delete("/api/admin/slowqueries").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    verify(mockSlowQueryLog).clear();
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Slow query log cleared", json.get("message"));
+  }
+}
@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.StartupReport;
+import edu.ucsb.cs156.example.models.StartupStepTiming;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.StartupTimelineService;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = StartupTimelineController.class)
+public class StartupTimelineControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  StartupTimelineService mockStartupTimelineService;
+
+  @Test
+  public void startup__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/startup"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void startup__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/startup"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void startup__admin_logged_in() throws Exception {
+
+    // arrange
+
+    StartupReport report = StartupReport.builder()
+        .recorded(true)
+        .startTime(Instant.parse("2022-01-03T00:00:00Z"))
+        .refreshMillis(4200.0)
+        .stepsRecorded(812)
+        .slowestSteps(List.of(StartupStepTiming.builder()
+            .name("spring.beans.instantiate")
+            .detail("beanName=entityManagerFactory")
+            .totalMillis(1500.0)
+            .selfMillis(1200.0)
+            .build()))
+        .build();
+    when(mockStartupTimelineService.getReport(5)).thenReturn(report);
+    String expectedJson = mapper.writeValueAsString(report);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/admin/startup?limit=5"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+}
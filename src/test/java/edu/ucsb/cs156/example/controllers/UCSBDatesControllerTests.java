@@ -5,10 +5,13 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.models.UCSBDateView;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -152,7 +155,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 ArrayList<UCSBDate> expectedDates = new ArrayList<>();
                 expectedDates.addAll(Arrays.asList(ucsbDate1, ucsbDate2));
 
-                when(ucsbDateRepository.findAll()).thenReturn(expectedDates);
+                when(ucsbDateRepository.findAllViews()).thenReturn(mapper.convertValue(expectedDates, new TypeReference<List<UCSBDateView>>() {}));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/ucsbdates/all"))
@@ -160,7 +163,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(ucsbDateRepository, times(1)).findAll();
+                verify(ucsbDateRepository, times(1)).findAllViews();
                 String expectedJson = mapper.writeValueAsString(expectedDates);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
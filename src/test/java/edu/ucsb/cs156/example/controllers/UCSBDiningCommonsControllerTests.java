@@ -5,10 +5,13 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsView;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -158,7 +161,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 ArrayList<UCSBDiningCommons> expectedCommons = new ArrayList<>();
                 expectedCommons.addAll(Arrays.asList(carrillo, dlg));
 
-                when(ucsbDiningCommonsRepository.findAll()).thenReturn(expectedCommons);
+                when(ucsbDiningCommonsRepository.findAllViews()).thenReturn(mapper.convertValue(expectedCommons, new TypeReference<List<UCSBDiningCommonsView>>() {}));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all"))
@@ -166,7 +169,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(ucsbDiningCommonsRepository, times(1)).findAll();
+                verify(ucsbDiningCommonsRepository, times(1)).findAllViews();
                 String expectedJson = mapper.writeValueAsString(expectedCommons);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
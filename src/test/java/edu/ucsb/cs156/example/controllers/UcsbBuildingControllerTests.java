@@ -4,16 +4,29 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UcsbBuilding;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.ImportError;
+import edu.ucsb.cs156.example.models.ImportResult;
 import edu.ucsb.cs156.example.repositories.UcsbBuildingRepository;
+import edu.ucsb.cs156.example.services.UcsbBuildingImportService;
+import edu.ucsb.cs156.example.models.UcsbBuildingView;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 
@@ -42,6 +55,9 @@ public class UcsbBuildingControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        UcsbBuildingImportService ucsbBuildingImportService;
+
         // Authorization tests for /api/ucsbdates/admin/all
 
         @Test
@@ -155,7 +171,7 @@ public class UcsbBuildingControllerTests extends ControllerTestCase {
                 ArrayList<UcsbBuilding> expectedDates = new ArrayList<>();
                 expectedDates.addAll(Arrays.asList(ucsbBuilding1, ucsbBuilding2));
 
-                when(ucsbBuildingRepository.findAll()).thenReturn(expectedDates);
+                when(ucsbBuildingRepository.findAllViews()).thenReturn(mapper.convertValue(expectedDates, new TypeReference<List<UcsbBuildingView>>() {}));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/ucsbbuildings/all"))
@@ -163,7 +179,7 @@ public class UcsbBuildingControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(ucsbBuildingRepository, times(1)).findAll();
+                verify(ucsbBuildingRepository, times(1)).findAllViews();
                 String expectedJson = mapper.writeValueAsString(expectedDates);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -325,4 +341,100 @@ public class UcsbBuildingControllerTests extends ControllerTestCase {
                 assertEquals("UcsbBuilding with id 67 not found", json.get("message"));
 
         }
-}
\ No newline at end of file
+
+        // Tests for POST /api/ucsbbuildings/import
+
+        @Test
+        public void logged_out_users_cannot_import() throws Exception {
+                mockMvc.perform(post("/api/ucsbbuildings/import").contentType("text/csv").content("name\nA\n")
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_users_cannot_import() throws Exception {
+                mockMvc.perform(post("/api/ucsbbuildings/import").contentType("text/csv").content("name\nA\n")
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        private ImportResult importResult() {
+                return ImportResult.builder()
+                                .entityType("ucsbbuildings")
+                                .rows(2)
+                                .created(1)
+                                .failed(1)
+                                .errors(List.of(ImportError.builder().line(3).message("name is required").build()))
+                                .completed(true)
+                                .build();
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_import_an_uploaded_csv_file() throws Exception {
+                // arrange
+
+                List<String> received = new ArrayList<>();
+                when(ucsbBuildingImportService.importCsv(any(), any())).thenAnswer(invocation -> {
+                        try (BufferedReader csv = new BufferedReader(invocation.getArgument(0, Reader.class))) {
+                                received.addAll(csv.lines().collect(Collectors.toList()));
+                        }
+                        return importResult();
+                });
+                MockMultipartFile file = new MockMultipartFile("file", "buildings.csv", "text/csv",
+                                "name,location\nHFH,east\n,west\n".getBytes());
+
+                // act
+                MvcResult response = mockMvc.perform(multipart("/api/ucsbbuildings/import").file(file).with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals(List.of("name,location", "HFH,east", ",west"), received);
+                assertEquals(mapper.writeValueAsString(importResult()), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_import_a_csv_request_body() throws Exception {
+                // arrange
+
+                UcsbBuilding hfh = UcsbBuilding.builder().id(15L).name("HFH").location("east").build();
+                List<String> received = new ArrayList<>();
+                when(ucsbBuildingImportService.importCsv(any(), any())).thenAnswer(invocation -> {
+                        try (BufferedReader csv = new BufferedReader(invocation.getArgument(0, Reader.class))) {
+                                received.addAll(csv.lines().collect(Collectors.toList()));
+                        }
+                        invocation.getArgument(1, UcsbBuildingImportService.ChangeListener.class)
+                                        .changed(ChangeType.CREATED, hfh, null);
+                        return importResult();
+                });
+
+                // act
+                MvcResult response = mockMvc.perform(post("/api/ucsbbuildings/import").contentType("text/csv")
+                                .content("name,location\nHFH,east\n").with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals(List.of("name,location", "HFH,east"), received);
+                assertEquals(mapper.writeValueAsString(importResult()), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_import_with_a_bad_header_is_a_bad_request() throws Exception {
+                // arrange
+
+                when(ucsbBuildingImportService.importCsv(any(), any()))
+                                .thenThrow(new BadRequestException("the header must have a name column"));
+
+                // act
+                MvcResult response = mockMvc.perform(post("/api/ucsbbuildings/import").contentType("text/csv")
+                                .content("location\neast\n").with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("the header must have a name column", json.get("message"));
+        }
+}
@@ -4,7 +4,9 @@ import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.models.UserView;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -20,6 +22,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 
 @WebMvcTest(controllers = UsersController.class)
@@ -55,7 +58,7 @@ public class UsersControllerTests extends ControllerTestCase {
     ArrayList<User> expectedUsers = new ArrayList<>();
     expectedUsers.addAll(Arrays.asList(u1, u2, u));
 
-    when(userRepository.findAll()).thenReturn(expectedUsers);
+    when(userRepository.findAllViews()).thenReturn(mapper.convertValue(expectedUsers, new TypeReference<List<UserView>>() {}));
     String expectedJson = mapper.writeValueAsString(expectedUsers);
     
     // act
@@ -65,7 +68,7 @@ public class UsersControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(userRepository, times(1)).findAll();
+    verify(userRepository, times(1)).findAllViews();
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
 
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.export;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnarWriterTests {
+
+  private static final List<Column> COLUMNS = List.of(new Column("id", Column.Type.INT64),
+      new Column("name", Column.Type.STRING));
+
+  private static byte[] write(int rowGroupSize, List<Object[]> rows) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ColumnarWriter writer = new ColumnarWriter(COLUMNS, out, rowGroupSize)) {
+      for (Object[] row : rows) {
+        writer.write(row);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static List<List<Object[]>> read(byte[] bytes) throws IOException {
+    ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(bytes));
+    assertEquals(COLUMNS, reader.getColumns());
+    List<List<Object[]>> groups = new ArrayList<>();
+    List<Object[]> group;
+    while ((group = reader.nextRowGroup()) != null) {
+      groups.add(group);
+    }
+    return groups;
+  }
+
+  @Test
+  void round_trips_nulls_negative_numbers_and_unicode_in_row_groups() throws IOException {
+    List<Object[]> rows = List.of(
+        new Object[] { 5L, "Freebirds" },
+        new Object[] { null, null },
+        new Object[] { -3, "" },
+        new Object[] { Long.MAX_VALUE, "Café ☕" },
+        new Object[] { Long.MIN_VALUE, "last" });
+
+    List<List<Object[]>> groups = read(write(2, rows));
+
+    assertEquals(3, groups.size());
+    assertEquals(List.of(2, 2, 1), groups.stream().map(List::size).toList());
+    assertArrayEquals(new Object[] { 5L, "Freebirds" }, groups.get(0).get(0));
+    assertArrayEquals(new Object[] { null, null }, groups.get(0).get(1));
+    assertArrayEquals(new Object[] { -3L, "" }, groups.get(1).get(0));
+    assertArrayEquals(new Object[] { Long.MAX_VALUE, "Café ☕" }, groups.get(1).get(1));
+    assertArrayEquals(new Object[] { Long.MIN_VALUE, "last" }, groups.get(2).get(0));
+  }
+
+  @Test
+  void an_empty_export_has_just_the_columns() throws IOException {
+    byte[] bytes = write(10, List.of());
+
+    assertEquals(0, read(bytes).size());
+    // magic, version, 2 columns of (length, name, type), end marker
+    assertEquals(4 + 1 + 1 + (1 + 2 + 1) + (1 + 4 + 1) + 1, bytes.length);
+  }
+
+  @Test
+  void ascending_ids_take_a_byte_each() throws IOException {
+    List<Object[]> rows = new ArrayList<>();
+    for (long id = 1_000_000; id < 1_001_000; id++) {
+      rows.add(new Object[] { id, null });
+    }
+
+    byte[] bytes = write(1000, rows);
+
+    // the first id is a delta from 0 and takes 3 bytes; the other 999 take one
+    int idBlock = 1000 / 8 + 3 + 999;
+    assertTrue(bytes.length < idBlock + 1000 + 32, "export of " + bytes.length + " bytes");
+    assertEquals(1_000_999L, read(bytes).get(0).get(999)[0]);
+  }
+
+  @Test
+  void a_truncated_export_is_an_error() throws IOException {
+    byte[] bytes = write(10, List.<Object[]>of(new Object[] { 1L, "one" }));
+    byte[] truncated = new byte[bytes.length - 3];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+    ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(truncated));
+    assertThrows(IOException.class, reader::nextRowGroup);
+    assertThrows(IOException.class,
+        () -> new ColumnarReader(new ByteArrayInputStream("id,name\n".getBytes(StandardCharsets.UTF_8))));
+  }
+
+  @Test
+  void rows_must_have_a_value_per_column() throws IOException {
+    ColumnarWriter writer = new ColumnarWriter(COLUMNS, new ByteArrayOutputStream(), 10);
+
+    assertThrows(IllegalArgumentException.class, () -> writer.write(new Object[] { 1L }));
+  }
+}
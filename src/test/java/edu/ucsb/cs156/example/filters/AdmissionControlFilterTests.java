@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.controllers.ShoeController;
+import edu.ucsb.cs156.example.repositories.ShoeRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ShoeController.class)
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+                "app.admission.burst=2",
+                "app.admission.requestsPerSecond=0.01"
+})
+public class AdmissionControlFilterTests extends ControllerTestCase {
+
+        @MockBean
+        ShoeRepository shoeRepository;
+
+        @MockBean
+        UserRepository userRepository;
+
+        @WithMockUser(username = "hammer", roles = { "USER" })
+        @Test
+        public void requests_over_the_burst_get_429_with_retry_after() throws Exception {
+                when(shoeRepository.findAllViews()).thenReturn(new ArrayList<>());
+
+                mockMvc.perform(get("/api/shoes/all")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/shoes/all")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/shoes/all"))
+                                .andExpect(status().isTooManyRequests())
+                                .andExpect(header().exists("Retry-After"));
+
+                verify(shoeRepository, times(2)).findAllViews();
+        }
+
+        @WithMockUser(username = "polite", roles = { "USER" })
+        @Test
+        public void limits_are_per_user_and_endpoint() throws Exception {
+                when(shoeRepository.findAllViews()).thenReturn(new ArrayList<>());
+
+                mockMvc.perform(get("/api/shoes/all")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/shoes/all")).andExpect(status().isOk());
+
+                // a different endpoint has its own bucket
+                mockMvc.perform(get("/api/shoes?id=7")).andExpect(status().isNotFound());
+        }
+
+        private static RequestPostProcessor from(String remoteAddr) {
+                return request -> {
+                        request.setRemoteAddr(remoteAddr);
+                        return request;
+                };
+        }
+
+        @WithAnonymousUser
+        @Test
+        public void logged_out_clients_are_limited_by_address() throws Exception {
+                mockMvc.perform(get("/api/shoes/all").with(from("10.0.0.1"))).andExpect(status().isForbidden());
+                mockMvc.perform(get("/api/shoes/all").with(from("10.0.0.1"))).andExpect(status().isForbidden());
+                mockMvc.perform(get("/api/shoes/all").with(from("10.0.0.1")))
+                                .andExpect(status().isTooManyRequests());
+
+                // another address has its own bucket
+                mockMvc.perform(get("/api/shoes/all").with(from("10.0.0.2"))).andExpect(status().isForbidden());
+                mockMvc.perform(get("/api/shoes/all").with(from("10.0.0.2"))).andExpect(status().isForbidden());
+        }
+}
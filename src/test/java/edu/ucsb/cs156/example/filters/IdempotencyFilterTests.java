@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.controllers.ShoeController;
+import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.repositories.ShoeRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ShoeController.class)
+@Import(TestConfig.class)
+public class IdempotencyFilterTests extends ControllerTestCase {
+
+        @MockBean
+        ShoeRepository shoeRepository;
+
+        @MockBean
+        UserRepository userRepository;
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void retried_post_is_replayed_without_a_second_insert() throws Exception {
+
+                // arrange
+
+                Shoe shoe = Shoe.builder().name("Jordan").color("Red").brand("Nike").build();
+                when(shoeRepository.save(eq(shoe))).thenReturn(shoe);
+
+                // act
+
+                MvcResult first = mockMvc.perform(
+                                post("/api/shoes/post?name=Jordan&color=Red&brand=Nike")
+                                                .header(IdempotencyFilter.HEADER, "retry-1")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                MvcResult second = mockMvc.perform(
+                                post("/api/shoes/post?name=Jordan&color=Red&brand=Nike")
+                                                .header(IdempotencyFilter.HEADER, "retry-1")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(shoeRepository, times(1)).save(any());
+                assertNull(first.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+                assertEquals("true", second.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+                assertEquals(first.getResponse().getContentAsString(), second.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void reusing_a_key_with_different_parameters_is_rejected() throws Exception {
+
+                Shoe shoe = Shoe.builder().name("Jordan").color("Red").brand("Nike").build();
+                when(shoeRepository.save(eq(shoe))).thenReturn(shoe);
+
+                mockMvc.perform(post("/api/shoes/post?name=Jordan&color=Red&brand=Nike")
+                                .header(IdempotencyFilter.HEADER, "retry-2")
+                                .with(csrf()))
+                                .andExpect(status().isOk());
+
+                mockMvc.perform(post("/api/shoes/post?name=Jordan&color=Blue&brand=Nike")
+                                .header(IdempotencyFilter.HEADER, "retry-2")
+                                .with(csrf()))
+                                .andExpect(status().is(422));
+
+                verify(shoeRepository, times(1)).save(any());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void posts_without_a_key_are_not_deduplicated() throws Exception {
+
+                Shoe shoe = Shoe.builder().name("Jordan").color("Red").brand("Nike").build();
+                when(shoeRepository.save(eq(shoe))).thenReturn(shoe);
+
+                mockMvc.perform(post("/api/shoes/post?name=Jordan&color=Red&brand=Nike").with(csrf()))
+                                .andExpect(status().isOk());
+                mockMvc.perform(post("/api/shoes/post?name=Jordan&color=Red&brand=Nike").with(csrf()))
+                                .andExpect(status().isOk());
+
+                verify(shoeRepository, times(2)).save(any());
+        }
+}
@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.example.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.filters.IdempotencyStore.CachedResponse;
+import edu.ucsb.cs156.example.filters.IdempotencyStore.Claim;
+
+class IdempotencyStoreTests {
+
+  private final AtomicLong now = new AtomicLong(0);
+  private final IdempotencyStore store = new IdempotencyStore(2, 60, now::get);
+
+  @Test
+  void test_first_claim_owns_the_key_and_later_claims_share_it() {
+    Claim first = store.claim("k", "a=1");
+    Claim second = store.claim("k", "a=1");
+
+    assertTrue(first.getOwner());
+    assertFalse(second.getOwner());
+    assertSame(first.getEntry(), second.getEntry());
+
+    CachedResponse response = new CachedResponse(200, "application/json", "{}".getBytes());
+    store.complete(first.getEntry(), response);
+    assertSame(response, second.getEntry().getResult().join());
+  }
+
+  @Test
+  void test_abandon_releases_the_key_and_wakes_waiters() {
+    Claim first = store.claim("k", "");
+    Claim waiter = store.claim("k", "");
+
+    store.abandon(first.getEntry());
+
+    assertNull(waiter.getEntry().getResult().join());
+    assertTrue(store.claim("k", "").getOwner());
+  }
+
+  @Test
+  void test_entries_expire_after_ttl() {
+    store.claim("k", "");
+    now.addAndGet(61_000_000_000L);
+
+    assertTrue(store.claim("k", "").getOwner());
+    assertEquals(1, store.size());
+  }
+
+  private Claim completed(IdempotencyStore store, String key) {
+    Claim claim = store.claim(key, "");
+    store.complete(claim.getEntry(), new CachedResponse(201, "application/json", "{}".getBytes()));
+    return claim;
+  }
+
+  @Test
+  void test_oldest_entries_are_evicted_when_full() {
+    completed(store, "a");
+    completed(store, "b");
+    completed(store, "c");
+
+    assertEquals(2, store.size());
+    assertTrue(store.claim("a", "").getOwner());
+  }
+
+  @Test
+  void test_keys_that_are_gone_do_not_take_up_room() {
+    IdempotencyStore store = new IdempotencyStore(3, 60, now::get);
+    completed(store, "a");
+    store.abandon(store.claim("b", "").getEntry());
+    completed(store, "c");
+
+    completed(store, "d");
+
+    assertEquals(3, store.size());
+  }
+
+  @Test
+  void test_requests_in_flight_are_not_evicted() {
+    Claim running = store.claim("a", "");
+    completed(store, "b");
+
+    store.claim("c", "");
+
+    assertSame(running.getEntry(), store.claim("a", "").getEntry());
+    assertTrue(store.claim("b", "").getOwner());
+  }
+}
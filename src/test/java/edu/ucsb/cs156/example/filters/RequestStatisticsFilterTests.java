@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import edu.ucsb.cs156.example.instrumentation.RequestStatistics;
+import edu.ucsb.cs156.example.instrumentation.StatementExecution;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RequestStatisticsFilterTests {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private RequestStatisticsFilter filter(boolean headers, int threshold) {
+    StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+    return new RequestStatisticsFilter(true, headers, threshold, beans.getBeanProvider(MeterRegistry.class));
+  }
+
+  private MockHttpServletResponse run(RequestStatisticsFilter filter, MockHttpServletRequest request, int statements)
+      throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, (req, res) -> {
+      req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/shoes/all");
+      for (int i = 0; i < statements; i++) {
+        RequestStatistics.JDBC_LISTENER.statementExecuted(
+            new StatementExecution("select", List.of(), 0, 1_000_000, false, null));
+        RequestStatistics.JDBC_LISTENER.resultSetNext(true, 1_000);
+      }
+      res.getWriter().write("[]");
+    });
+    return response;
+  }
+
+  @Test
+  void test_headers_and_metrics() throws Exception {
+    MockHttpServletResponse response = run(filter(true, 10), new MockHttpServletRequest("GET", "/api/shoes/all"), 3);
+
+    assertEquals("3", response.getHeader(RequestStatisticsFilter.STATEMENTS_HEADER));
+    assertEquals("3", response.getHeader(RequestStatisticsFilter.ROWS_HEADER));
+    assertTrue(response.getHeader(RequestStatisticsFilter.SERVER_TIMING_HEADER).startsWith("db;dur=3.003, serialize;dur=0.000"));
+    assertEquals("[]", response.getContentAsString());
+
+    assertEquals(3.0, registry.get("app.requests.sql.statements").tag("uri", "/api/shoes/all").tag("method", "GET")
+        .summary().totalAmount());
+    assertEquals(0, registry.find("app.requests.sql.threshold.exceeded").counters().size());
+  }
+
+  @Test
+  void test_threshold_counted_and_no_headers_by_default() throws Exception {
+    MockHttpServletResponse response = run(filter(false, 2), new MockHttpServletRequest("GET", "/api/shoes/all"), 3);
+
+    assertNull(response.getHeader(RequestStatisticsFilter.STATEMENTS_HEADER));
+    assertEquals(1.0, registry.get("app.requests.sql.threshold.exceeded").counter().count());
+  }
+
+  // writes the body with the given content type, and checks it went straight through
+  private MockHttpServletResponse stream(MockHttpServletRequest request, String contentType) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter(true, 10).doFilter(request, response, (req, res) -> {
+      res.setContentType(contentType);
+      res.getOutputStream().write("{}\n".getBytes());
+      assertEquals("{}\n", response.getContentAsString());
+    });
+    return response;
+  }
+
+  @Test
+  void test_event_streams_are_not_buffered() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/shoes/changes");
+    request.setAsyncSupported(true);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter(true, 10).doFilter(request, response, (req, res) -> {
+      req.startAsync();
+      res.getWriter().write("event:ping");
+      res.flushBuffer();
+      assertEquals("event:ping", response.getContentAsString());
+    });
+
+    assertNull(response.getHeader(RequestStatisticsFilter.STATEMENTS_HEADER));
+  }
+
+  @Test
+  void test_streamed_content_types_are_not_buffered() throws Exception {
+    for (String contentType : List.of("application/x-ndjson", "text/csv;charset=UTF-8", "text/event-stream",
+        "application/vnd.ucsb.columnar")) {
+      MockHttpServletResponse response = stream(new MockHttpServletRequest("GET", "/api/anything"), contentType);
+
+      assertNull(response.getHeader(RequestStatisticsFilter.STATEMENTS_HEADER), contentType);
+      assertEquals("{}\n", response.getContentAsString());
+    }
+  }
+
+  @Test
+  void test_non_api_requests_are_ignored() throws Exception {
+    run(filter(true, 10), new MockHttpServletRequest("GET", "/index.html"), 1);
+
+    assertEquals(0, registry.getMeters().size());
+  }
+}
@@ -0,0 +1,115 @@
+package edu.ucsb.cs156.example.filters;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.config.CookieAuthorizationRequestRepository;
+import edu.ucsb.cs156.example.controllers.ShoeController;
+import edu.ucsb.cs156.example.repositories.ShoeRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.SessionTokenService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ShoeController.class)
+@Import(SessionTokenService.class)
+@TestPropertySource(properties = {
+    "app.session.stateless=true",
+    "app.session.jwt.secret=0123456789abcdef0123456789abcdef"
+})
+public class SessionTokenFilterTests extends ControllerTestCase {
+
+  @MockBean
+  ShoeRepository shoeRepository;
+
+  @MockBean
+  UserRepository userRepository;
+
+  @Autowired
+  SessionTokenService sessionTokenService;
+
+  private Cookie tokenFor(String... roles) {
+    List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(roles);
+    DefaultOAuth2User user = new DefaultOAuth2User(authorities,
+        Map.of("sub", "1234", "email", "cgaucho@ucsb.edu", "email_verified", true), "sub");
+    return new Cookie(SessionTokenService.COOKIE,
+        sessionTokenService.issue(new OAuth2AuthenticationToken(user, authorities, "google"), 7L));
+  }
+
+  @Test
+  public void no_token_is_logged_out() throws Exception {
+    mockMvc.perform(get("/api/shoes/all"))
+        .andExpect(status().is(403));
+  }
+
+  @Test
+  public void token_authorizes_without_a_session() throws Exception {
+    when(shoeRepository.findAll()).thenReturn(new ArrayList<>());
+
+    MvcResult result = mockMvc.perform(get("/api/shoes/all").cookie(tokenFor("ROLE_USER")))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    assertNull(result.getRequest().getSession(false));
+  }
+
+  @Test
+  public void roles_come_from_the_token() throws Exception {
+    mockMvc.perform(get("/actuator/mappings").cookie(tokenFor("ROLE_USER")))
+        .andExpect(status().is(403));
+  }
+
+  @Test
+  public void bad_token_is_cleared() throws Exception {
+    mockMvc.perform(get("/api/shoes/all").cookie(new Cookie(SessionTokenService.COOKIE, "forged")))
+        .andExpect(status().is(403))
+        .andExpect(header().string("Set-Cookie", startsWith("SESSION_TOKEN=; Path=/; Max-Age=0;")));
+  }
+
+  @Test
+  public void authorization_request_is_kept_in_a_signed_cookie() throws Exception {
+    MvcResult result = mockMvc.perform(get("/oauth2/authorization/google"))
+        .andExpect(status().is3xxRedirection())
+        .andReturn();
+
+    assertNull(result.getRequest().getSession(false));
+    String redirect = result.getResponse().getRedirectedUrl();
+    assertTrue(redirect.startsWith("https://accounts.google.com/"), redirect);
+    Cookie cookie = result.getResponse().getCookie(CookieAuthorizationRequestRepository.COOKIE);
+    assertNotNull(cookie);
+
+    MockHttpServletRequest callback = new MockHttpServletRequest();
+    callback.setCookies(cookie);
+    CookieAuthorizationRequestRepository repository = new CookieAuthorizationRequestRepository(sessionTokenService);
+    String state = repository.loadAuthorizationRequest(callback).getState();
+    assertTrue(redirect.contains("state=" + state.replace("=", "%3D")), redirect);
+
+    callback.setCookies(new Cookie(CookieAuthorizationRequestRepository.COOKIE, cookie.getValue() + "x"));
+    assertEquals(null, repository.loadAuthorizationRequest(callback));
+  }
+}
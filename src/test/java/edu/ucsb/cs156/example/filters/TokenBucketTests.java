@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+  private final AtomicLong now = new AtomicLong(0);
+  private final TokenBucket bucket = new TokenBucket(2, 1, now::get);
+
+  @Test
+  void test_burst_then_wait_for_refill() {
+    assertEquals(0, bucket.tryConsume());
+    assertEquals(0, bucket.tryConsume());
+    assertEquals(1_000_000_000L, bucket.tryConsume());
+
+    now.addAndGet(500_000_000L);
+    assertEquals(500_000_000L, bucket.tryConsume());
+
+    now.addAndGet(500_000_000L);
+    assertEquals(0, bucket.tryConsume());
+  }
+
+  @Test
+  void test_refill_is_capped_at_capacity() {
+    bucket.tryConsume();
+    assertFalse(bucket.isFull());
+
+    now.addAndGet(60_000_000_000L);
+    assertTrue(bucket.isFull());
+    assertEquals(0, bucket.tryConsume());
+    assertEquals(0, bucket.tryConsume());
+    assertTrue(bucket.tryConsume() > 0);
+  }
+}
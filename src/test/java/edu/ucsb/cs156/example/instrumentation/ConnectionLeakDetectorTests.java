@@ -0,0 +1,86 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import edu.ucsb.cs156.example.models.HeldConnection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConnectionLeakDetectorTests {
+
+  static class ShoeController {
+    public void getById() {
+    }
+  }
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ConnectionLeakDetector detector = new ConnectionLeakDetector(50,
+      new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+
+  private DataSource dataSource() {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:connectionleaks;DB_CLOSE_DELAY=-1");
+    return JdbcProxies.wrap(h2, detector);
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+    detector.close();
+  }
+
+  @Test
+  void test_connection_held_too_long_is_reported_with_its_handler() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/shoes");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+        new HandlerMethod(new ShoeController(), ShoeController.class.getMethod("getById")));
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    try (Connection connection = dataSource().getConnection()) {
+      assertTrue(detector.getHeld().isEmpty());
+      Thread.sleep(80);
+
+      List<HeldConnection> held = detector.getHeld();
+      assertEquals(1, held.size());
+      assertEquals("ShoeController.getById", held.get(0).getHandler());
+      assertEquals("GET /api/shoes", held.get(0).getRequest());
+      assertTrue(held.get(0).getHeldMillis() >= 50);
+
+      detector.check();
+      detector.check();
+      assertEquals(1.0, registry.get("app.datasource.connections.leaked").tag("handler", "ShoeController.getById")
+          .counter().count());
+    }
+    assertTrue(detector.getHeld().isEmpty());
+  }
+
+  @Test
+  void test_connection_returned_in_time_is_not_reported() throws Exception {
+    DataSource dataSource = dataSource();
+    try (Connection connection = dataSource.getConnection()) {
+      connection.createStatement().execute("SELECT 1");
+    }
+    Thread.sleep(80);
+    detector.check();
+
+    assertTrue(detector.getHeld().isEmpty());
+    assertTrue(registry.find("app.datasource.connections.leaked").counters().isEmpty());
+  }
+}
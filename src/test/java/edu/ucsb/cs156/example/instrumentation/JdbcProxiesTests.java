@@ -0,0 +1,166 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JdbcProxiesTests {
+
+  private JdbcDataSource h2;
+  private DataSource dataSource;
+  private RequestStatistics statistics;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:jdbcproxies;DB_CLOSE_DELAY=-1");
+    try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE IF NOT EXISTS shoe (id INT PRIMARY KEY, name VARCHAR(20))");
+      statement.execute("DELETE FROM shoe");
+      statement.execute("INSERT INTO shoe VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+    }
+    dataSource = JdbcProxies.wrap(h2, RequestStatistics.JDBC_LISTENER);
+    statistics = RequestStatistics.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestStatistics.end();
+  }
+
+  @Test
+  void test_counts_statements_and_rows() throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      try (PreparedStatement select = connection.prepareStatement("SELECT * FROM shoe WHERE id > ?")) {
+        select.setInt(1, 1);
+        try (ResultSet resultSet = select.executeQuery()) {
+          while (resultSet.next()) {
+          }
+        }
+      }
+      try (Statement update = connection.createStatement()) {
+        update.executeUpdate("UPDATE shoe SET name = 'z' WHERE id = 1");
+      }
+    }
+
+    assertEquals(2, statistics.getStatements());
+    assertEquals(2, statistics.getRowsFetched());
+    assertTrue(statistics.getJdbcNanos() > 0);
+  }
+
+  @Test
+  void test_batches_count_once() throws Exception {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement insert = connection.prepareStatement("INSERT INTO shoe VALUES (?, 'x')")) {
+      for (int id = 10; id < 15; id++) {
+        insert.setInt(1, id);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+
+    assertEquals(1, statistics.getStatements());
+  }
+
+  @Test
+  void test_nothing_counted_outside_a_request() throws Exception {
+    RequestStatistics.end();
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("SELECT 1");
+    }
+
+    assertNull(RequestStatistics.current());
+    assertEquals(0, statistics.getStatements());
+  }
+
+  @Test
+  void test_bind_values_captured_when_listener_asks() throws Exception {
+    List<StatementExecution> executions = new ArrayList<>();
+    JdbcListener capturing = new JdbcListener() {
+      @Override
+      public boolean capturesParameters() {
+        return true;
+      }
+
+      @Override
+      public void statementExecuted(StatementExecution execution) {
+        executions.add(execution);
+      }
+    };
+    try (Connection connection = JdbcProxies.wrap(h2, capturing).getConnection();
+        PreparedStatement update = connection.prepareStatement("UPDATE shoe SET name = ? WHERE id = ?")) {
+      update.setString(1, "y");
+      update.setNull(2, Types.INTEGER);
+      update.executeUpdate();
+    }
+    try (Connection connection = JdbcProxies.wrap(h2, capturing).getConnection();
+        PreparedStatement select = connection.prepareStatement("SELECT id FROM shoe WHERE name = ? OR id = ?")) {
+      select.setString(1, "x".repeat(300));
+      select.setLong(2, 3L);
+      select.executeQuery().close();
+    }
+
+    assertEquals(2, executions.size());
+    assertEquals("UPDATE shoe SET name = ? WHERE id = ?", executions.get(0).getSql());
+    assertEquals(Arrays.asList("y", null), executions.get(0).getParameters());
+    assertEquals(List.of("x".repeat(300), 3L), executions.get(1).getParameters());
+    assertEquals(List.of("x".repeat(200) + "...", 3L), executions.get(1).getDescribedParameters());
+    assertFalse(executions.get(1).getFailed());
+  }
+
+  @Test
+  void test_batches_report_their_size_and_last_row() throws Exception {
+    List<StatementExecution> executions = new ArrayList<>();
+    JdbcListener capturing = new JdbcListener() {
+      @Override
+      public boolean capturesParameters() {
+        return true;
+      }
+
+      @Override
+      public void statementExecuted(StatementExecution execution) {
+        executions.add(execution);
+      }
+    };
+    try (Connection connection = JdbcProxies.wrap(h2, capturing).getConnection();
+        PreparedStatement insert = connection.prepareStatement("INSERT INTO shoe VALUES (?, ?)")) {
+      for (int id = 10; id < 13; id++) {
+        insert.setInt(1, id);
+        insert.setString(2, "s" + id);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+      insert.setInt(1, 13);
+      insert.setString(2, "s13");
+      insert.executeUpdate();
+    }
+
+    assertEquals(3, executions.get(0).getBatchSize());
+    assertEquals(List.of(12, "s12"), executions.get(0).getParameters());
+    assertEquals(0, executions.get(1).getBatchSize());
+  }
+
+  @Test
+  void test_unwrap_reaches_the_real_data_source() throws Exception {
+    assertTrue(dataSource.isWrapperFor(JdbcDataSource.class));
+    assertSame(h2, dataSource.unwrap(JdbcDataSource.class));
+  }
+}
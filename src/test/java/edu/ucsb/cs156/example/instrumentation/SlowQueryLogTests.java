@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.instrumentation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.models.SlowQuery;
+
+class SlowQueryLogTests {
+
+  private JdbcDataSource h2;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:slowquerylog;DB_CLOSE_DELAY=-1");
+    try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE IF NOT EXISTS shoe (id INT PRIMARY KEY, name VARCHAR(20))");
+      statement.execute("DELETE FROM shoe");
+      statement.execute("INSERT INTO shoe VALUES (1, 'a'), (2, 'b')");
+    }
+  }
+
+  private void select(DataSource dataSource, int id) throws Exception {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement select = connection.prepareStatement("SELECT name FROM shoe WHERE id = ?")) {
+      select.setInt(1, id);
+      select.executeQuery().close();
+    }
+  }
+
+  @Test
+  void test_records_statement_with_parameters_and_plan() throws Exception {
+    SlowQueryLog slowQueryLog = new SlowQueryLog(0, 10, true);
+    select(JdbcProxies.wrap(h2, slowQueryLog), 2);
+
+    List<SlowQuery> recent = slowQueryLog.getRecent();
+    assertEquals(1, recent.size());
+    SlowQuery slowQuery = recent.get(0);
+    assertEquals("SELECT name FROM shoe WHERE id = ?", slowQuery.getSql());
+    assertEquals(List.of(2), slowQuery.getParameters());
+    assertFalse(slowQuery.getFailed());
+    assertNull(slowQuery.getRequest());
+    assertTrue(slowQuery.getPlan().contains("SHOE"), slowQuery.getPlan());
+  }
+
+  @Test
+  void test_plan_uses_the_values_as_bound_not_as_logged() throws Exception {
+    Connection connection = mock(Connection.class);
+    PreparedStatement explain = mock(PreparedStatement.class);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.prepareStatement(anyString())).thenReturn(explain);
+    when(explain.executeQuery()).thenReturn(mock(ResultSet.class));
+    byte[] photo = new byte[] { 1, 2, 3 };
+    String name = "x".repeat(300);
+
+    SlowQueryLog slowQueryLog = new SlowQueryLog(0, 10, true);
+    slowQueryLog.statementExecuted(new StatementExecution("SELECT id FROM photo WHERE bytes = ? AND name = ?",
+        List.of(photo, name), 0, 1, false, connection));
+
+    verify(connection).prepareStatement("EXPLAIN SELECT id FROM photo WHERE bytes = ? AND name = ?");
+    verify(explain).setObject(1, photo);
+    verify(explain).setObject(2, name);
+    assertEquals(List.of("<3 bytes>", "x".repeat(200) + "..."), slowQueryLog.getRecent().get(0).getParameters());
+  }
+
+  @Test
+  void test_fast_statements_are_ignored() throws Exception {
+    SlowQueryLog slowQueryLog = new SlowQueryLog(60_000, 10, false);
+    select(JdbcProxies.wrap(h2, slowQueryLog), 1);
+
+    assertEquals(0, slowQueryLog.getRecordedCount());
+    assertTrue(slowQueryLog.getRecent().isEmpty());
+  }
+
+  @Test
+  void test_ring_keeps_only_the_newest() throws Exception {
+    SlowQueryLog slowQueryLog = new SlowQueryLog(0, 3, false);
+    DataSource dataSource = JdbcProxies.wrap(h2, slowQueryLog);
+    for (int id = 1; id <= 5; id++) {
+      select(dataSource, id);
+    }
+
+    List<SlowQuery> recent = slowQueryLog.getRecent();
+    assertEquals(5, slowQueryLog.getRecordedCount());
+    assertEquals(3, recent.size());
+    assertEquals(List.of(5), recent.get(0).getParameters());
+    assertEquals(List.of(3), recent.get(2).getParameters());
+    assertNull(recent.get(0).getPlan());
+
+    slowQueryLog.clear();
+    assertTrue(slowQueryLog.getRecent().isEmpty());
+  }
+}
@@ -0,0 +1,146 @@
+package edu.ucsb.cs156.example.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTests {
+
+  @TempDir
+  Path directory;
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<String> readAll(Journal journal, long from) throws IOException {
+    List<String> records = new ArrayList<>();
+    try (JournalReader reader = journal.read(from)) {
+      reader.forEachRemaining(record -> records.add(record.getSequence() + ":"
+          + new String(record.getPayload(), StandardCharsets.UTF_8)));
+    }
+    return records;
+  }
+
+  @Test
+  void records_are_read_back_in_order_from_any_sequence() throws IOException {
+    try (Journal journal = new Journal(directory, 4096)) {
+      assertEquals(1, journal.append(bytes("one")));
+      assertEquals(2, journal.append(bytes("two")));
+      assertEquals(3, journal.append(bytes("three")));
+
+      assertEquals(List.of("1:one", "2:two", "3:three"), readAll(journal, 1));
+      assertEquals(List.of("3:three"), readAll(journal, 3));
+      assertEquals(List.of(), readAll(journal, 4));
+    }
+  }
+
+  @Test
+  void full_segments_roll_over_and_are_cut_down_to_what_was_written() throws IOException {
+    // room for the header and two 20 byte records, 36 bytes each
+    int segmentBytes = Journal.HEADER_BYTES + 2 * (Journal.RECORD_HEADER_BYTES + 20);
+    List<String> expected = new ArrayList<>();
+    try (Journal journal = new Journal(directory, segmentBytes)) {
+      for (int i = 1; i <= 5; i++) {
+        String payload = "record %013d".formatted(i);
+        journal.append(bytes(payload));
+        expected.add(i + ":" + payload);
+      }
+      assertEquals(expected, readAll(journal, 1));
+      assertEquals(expected.subList(3, 5), readAll(journal, 4));
+    }
+
+    List<Path> segments = Journal.segments(directory);
+    assertEquals(3, segments.size());
+    assertEquals("00000000000000000003.journal", segments.get(1).getFileName().toString());
+    assertEquals(segmentBytes, Files.size(segments.get(0)));
+    assertEquals(Journal.HEADER_BYTES + Journal.RECORD_HEADER_BYTES + 20, Files.size(segments.get(2)));
+  }
+
+  @Test
+  void reopening_continues_the_sequence() throws IOException {
+    try (Journal journal = new Journal(directory, 4096)) {
+      journal.append(bytes("one"));
+      journal.append(bytes("two"));
+    }
+    try (Journal journal = new Journal(directory, 4096)) {
+      assertEquals(3, journal.append(bytes("three")));
+      assertEquals(List.of("1:one", "2:two", "3:three"), readAll(journal, 1));
+    }
+  }
+
+  @Test
+  void a_torn_record_at_the_end_is_cut_off_when_reopened() throws IOException {
+    try (Journal journal = new Journal(directory, 4096)) {
+      journal.append(bytes("one"));
+      journal.append(bytes("two"));
+    }
+    // as if the last page of "two" had not made it to disk
+    Path segment = Journal.segments(directory).get(0);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(bytes("x")), channel.size() - 1);
+    }
+
+    try (Journal journal = new Journal(directory, 4096)) {
+      assertEquals(List.of("1:one"), readAll(journal, 1));
+      assertEquals(2, journal.append(bytes("again")));
+      assertEquals(List.of("1:one", "2:again"), readAll(journal, 1));
+    }
+  }
+
+  @Test
+  void a_corrupt_record_before_the_last_segment_is_an_error() throws IOException {
+    int segmentBytes = Journal.HEADER_BYTES + Journal.RECORD_HEADER_BYTES + 3;
+    try (Journal journal = new Journal(directory, segmentBytes)) {
+      journal.append(bytes("one"));
+      journal.append(bytes("two"));
+    }
+    Path first = Journal.segments(directory).get(0);
+    try (FileChannel channel = FileChannel.open(first, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(bytes("X")), channel.size() - 1);
+    }
+
+    try (Journal journal = new Journal(directory, segmentBytes);
+        JournalReader reader = journal.read(1)) {
+      assertThrows(UncheckedIOException.class, reader::hasNext);
+    }
+  }
+
+  @Test
+  void records_must_fit_in_a_segment() throws IOException {
+    try (Journal journal = new Journal(directory, 64)) {
+      assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[64]));
+      assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[0]));
+      assertEquals(1, journal.append(new byte[64 - Journal.HEADER_BYTES - Journal.RECORD_HEADER_BYTES]));
+    }
+  }
+
+  @Test
+  void readers_see_records_appended_while_the_segment_is_open() throws IOException {
+    try (Journal journal = new Journal(directory, 4096)) {
+      journal.append(bytes("one"));
+      try (JournalReader reader = journal.read(1)) {
+        assertTrue(reader.hasNext());
+        assertEquals(1, reader.next().getSequence());
+        assertFalse(reader.hasNext());
+      }
+      journal.append(bytes("two"));
+      assertEquals(List.of("1:one", "2:two"), readAll(journal, 1));
+    }
+  }
+}
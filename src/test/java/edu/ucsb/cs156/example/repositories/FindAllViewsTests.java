@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.User;
+
+@DataJpaTest
+@ActiveProfiles("development")
+class FindAllViewsTests {
+
+  @Autowired
+  EntityManager entityManager;
+
+  private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+  @Autowired
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired
+  UCSBDateRepository ucsbDateRepository;
+
+  @Autowired
+  UserRepository userRepository;
+
+  private int managedEntities() {
+    return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+  }
+
+  @Test
+  void views_have_the_same_json_as_the_entities_and_are_not_managed() throws Exception {
+    List<UCSBDiningCommons> commons = List.of(
+        UCSBDiningCommons.builder().code("ortega").name("Ortega").hasSackMeal(true).hasTakeOutMeal(true)
+            .hasDiningCam(false).latitude(34.410987).longitude(-119.84709).build(),
+        UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build());
+    UCSBDate date = UCSBDate.builder().quarterYYYYQ("20221").name("Noon on New Year's Day")
+        .localDateTime(LocalDateTime.of(2022, 1, 1, 12, 0)).build();
+    User user = User.builder().email("cgaucho@ucsb.edu").googleSub("1158").fullName("Chris Gaucho")
+        .emailVerified(true).admin(true).build();
+    ucsbDiningCommonsRepository.saveAll(commons);
+    ucsbDateRepository.save(date);
+    userRepository.save(user);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertEquals(mapper.writeValueAsString(ucsbDiningCommonsRepository.findAll()),
+        mapper.writeValueAsString(viewsOf(ucsbDiningCommonsRepository)));
+    entityManager.clear();
+
+    assertEquals(mapper.writeValueAsString(List.of(date)),
+        mapper.writeValueAsString(ucsbDateRepository.findAllViews()));
+    assertEquals(mapper.writeValueAsString(List.of(user)),
+        mapper.writeValueAsString(userRepository.findAllViews()));
+    assertEquals(0, managedEntities());
+  }
+
+  private List<?> viewsOf(UCSBDiningCommonsRepository repository) {
+    entityManager.clear();
+    List<?> views = repository.findAllViews();
+    assertEquals(0, managedEntities());
+    return views;
+  }
+}
@@ -0,0 +1,174 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditLogServiceTests {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:audit-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    Flyway.configure().dataSource(h2).load().migrate();
+    jdbcTemplate = new JdbcTemplate(h2);
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private AuditLogService service(int capacity, int batchSize, long offerTimeoutMillis) {
+    AuditLogService service = new AuditLogService(jdbcTemplate, mapper, capacity, batchSize, 20, offerTimeoutMillis,
+        new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+    service.currentUserService = new CurrentUserService() {
+      public User getUser() {
+        return null;
+      }
+
+      public CurrentUser getCurrentUser() {
+        return null;
+      }
+
+      public Collection<? extends GrantedAuthority> getRoles() {
+        return List.of();
+      }
+    };
+    return service;
+  }
+
+  private static EntityChangeEvent event(ChangeType changeType, Object entity, Object before) {
+    return EntityChangeEvent.builder().entityType("shoes").entityId("7").changeType(changeType)
+        .entity(entity).before(before).timestamp(Instant.now()).build();
+  }
+
+  private List<Map<String, Object>> rows() {
+    return jdbcTemplate.queryForList("SELECT * FROM audit_log ORDER BY id");
+  }
+
+  @Test
+  void records_who_and_before_and_after_for_each_kind_of_change() {
+    AuditLogService service = service(100, 10, 50);
+    service.start();
+    Shoe created = Shoe.builder().id(7L).name("Jordan").color("Red").brand("Nike").build();
+    Shoe updated = Shoe.builder().id(7L).name("Jordan").color("Blue").brand("Nike").build();
+
+    service.record(event(ChangeType.CREATED, created, null));
+    service.record(event(ChangeType.UPDATED, updated, mapper.valueToTree(created)));
+    service.record(event(ChangeType.DELETED, updated, null));
+    service.stop();
+
+    List<Map<String, Object>> rows = rows();
+    assertEquals(3, rows.size());
+    assertEquals("admin", rows.get(0).get("PRINCIPAL"));
+    assertEquals("CREATED", rows.get(0).get("CHANGE_TYPE"));
+    assertNull(rows.get(0).get("BEFORE_STATE"));
+    assertEquals("{\"id\":7,\"name\":\"Jordan\",\"color\":\"Red\",\"brand\":\"Nike\"}", rows.get(0).get("AFTER_STATE"));
+    assertEquals("UPDATED", rows.get(1).get("CHANGE_TYPE"));
+    assertEquals(rows.get(0).get("AFTER_STATE"), rows.get(1).get("BEFORE_STATE"));
+    assertEquals("{\"id\":7,\"name\":\"Jordan\",\"color\":\"Blue\",\"brand\":\"Nike\"}", rows.get(1).get("AFTER_STATE"));
+    assertEquals("DELETED", rows.get(2).get("CHANGE_TYPE"));
+    assertEquals(rows.get(1).get("AFTER_STATE"), rows.get(2).get("BEFORE_STATE"));
+    assertNull(rows.get(2).get("AFTER_STATE"));
+    assertEquals(0, service.getWrittenByRequests());
+  }
+
+  @Test
+  void writes_in_the_background_without_waiting_for_shutdown() throws InterruptedException {
+    AuditLogService service = service(100, 10, 50);
+    service.start();
+    try {
+      for (int i = 0; i < 25; i++) {
+        service.record(event(ChangeType.CREATED, Map.of("i", i), null));
+      }
+      long deadline = System.currentTimeMillis() + 5000;
+      while (service.getWritten() < 25 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(25, rows().size());
+      assertEquals(0, service.getPending());
+      assertEquals(25.0, registry.get("app.audit.written").functionCounter().count());
+    } finally {
+      service.stop();
+    }
+  }
+
+  @Test
+  void a_full_queue_makes_requests_write_their_own_events() throws InterruptedException {
+    // a database that the writer cannot get through to
+    CountDownLatch stuck = new CountDownLatch(1);
+    JdbcTemplate database = jdbcTemplate;
+    jdbcTemplate = new JdbcTemplate(database.getDataSource()) {
+      @Override
+      public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+        if (Thread.currentThread().getName().equals("audit-writer")) {
+          try {
+            stuck.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return super.batchUpdate(sql, batchArgs);
+      }
+    };
+    AuditLogService service = service(2, 1, 5);
+    jdbcTemplate = database;
+    service.start();
+
+    for (int i = 0; i < 5; i++) {
+      service.record(event(ChangeType.CREATED, Map.of("i", i), null));
+    }
+
+    assertEquals(2, service.getPending());
+    assertEquals(3, service.getWrittenByRequests());
+    assertEquals(3, rows().size());
+
+    stuck.countDown();
+    service.stop();
+    assertEquals(5, rows().size());
+    assertEquals(0, service.getPending());
+  }
+
+  @Test
+  void events_before_start_are_written_directly() {
+    AuditLogService service = service(100, 10, 50);
+
+    service.record(event(ChangeType.CREATED, Map.of("i", 1), null));
+
+    assertEquals(1, rows().size());
+    assertEquals(1, service.getWrittenByRequests());
+  }
+}
@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import edu.ucsb.cs156.example.services.ChangeFeedService.Subscription;
+
+class ChangeFeedServiceTests {
+
+  private final ChangeFeedService changeFeedService = new ChangeFeedService(4, 3600, 60000, 1);
+
+  @AfterEach
+  void tearDown() {
+    changeFeedService.shutdown();
+  }
+
+  @Test
+  void test_subscribe_counts_subscribers_per_entity_type() {
+    changeFeedService.subscribe("shoes");
+    changeFeedService.subscribe("shoes");
+    changeFeedService.subscribe("books");
+
+    assertEquals(2, changeFeedService.subscriberCount("shoes"));
+    assertEquals(1, changeFeedService.subscriberCount("books"));
+    assertEquals(0, changeFeedService.subscriberCount("dogs"));
+  }
+
+  @Test
+  void test_subscription_drops_oldest_when_full() {
+    Subscription subscription = new Subscription(new SseEmitter(), 2);
+
+    subscription.offer(SseEmitter.event().data("one"));
+    subscription.offer(SseEmitter.event().data("two"));
+    subscription.offer(SseEmitter.event().data("three"));
+
+    assertEquals(2, subscription.size());
+    assertEquals(1, subscription.getDropped());
+
+    // the overflow notice comes first, then the surviving events
+    assertTrue(subscription.poll() != null);
+    assertEquals(0, subscription.getDropped());
+    assertEquals(2, subscription.size());
+    subscription.poll();
+    subscription.poll();
+    assertNull(subscription.poll());
+    assertFalse(subscription.hasPending());
+  }
+
+  @Test
+  void test_heartbeat_only_when_idle() {
+    Subscription subscription = new Subscription(new SseEmitter(), 2);
+
+    assertTrue(subscription.offerIfIdle(SseEmitter.event().comment("ping")));
+    assertFalse(subscription.offerIfIdle(SseEmitter.event().comment("ping")));
+    assertEquals(1, subscription.size());
+  }
+}
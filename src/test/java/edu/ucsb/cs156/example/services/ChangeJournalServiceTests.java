@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ChangeJournalServiceTests {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void test_segment_size_in_megabytes() {
+    assertEquals(64 * 1024 * 1024, ChangeJournalService.segmentBytes(64));
+    assertEquals(2047 * 1024 * 1024, ChangeJournalService.segmentBytes(2047));
+  }
+
+  @Test
+  public void test_segment_sizes_that_do_not_fit_an_int_are_rejected() {
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+        () -> new ChangeJournalService(new ObjectMapper(), directory.toString(), 2048, 1000));
+    assertEquals("app.journal.segmentMegabytes must be between 1 and 2047, but is 2048", e.getMessage());
+    assertThrows(IllegalStateException.class, () -> ChangeJournalService.segmentBytes(0));
+  }
+}
@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.ChangeLogEntry;
+import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.models.EntityChanges;
+import edu.ucsb.cs156.example.repositories.ChangeLogEntryRepository;
+
+@ExtendWith(SpringExtension.class)
+@Import({ ChangeLogService.class, ObjectMapper.class })
+class ChangeLogServiceTests {
+
+  @MockBean
+  ChangeLogEntryRepository changeLogEntryRepository;
+
+  @Autowired
+  ChangeLogService changeLogService;
+
+  private ChangeLogEntry entry(long seq, String id, ChangeType changeType) {
+    return ChangeLogEntry.builder().seq(seq).entityType("shoes").entityId(id).changeType(changeType).build();
+  }
+
+  @Test
+  void test_record_stamps_sequence_and_stores_payload() {
+    Shoe shoe = Shoe.builder().id(7L).name("Jordan").color("Red").brand("Nike").build();
+    EntityChangeEvent event = EntityChangeEvent.builder()
+        .entityType("shoes").entityId("7").changeType(ChangeType.CREATED)
+        .entity(shoe).timestamp(Instant.now()).build();
+    when(changeLogEntryRepository.save(any())).thenReturn(entry(42L, "7", ChangeType.CREATED));
+
+    changeLogService.record(event);
+
+    ArgumentCaptor<ChangeLogEntry> captor = ArgumentCaptor.forClass(ChangeLogEntry.class);
+    verify(changeLogEntryRepository).save(captor.capture());
+    assertEquals("{\"id\":7,\"name\":\"Jordan\",\"color\":\"Red\",\"brand\":\"Nike\"}", captor.getValue().getPayload());
+    assertEquals(42L, event.getSequence());
+  }
+
+  @Test
+  void test_record_delete_is_a_tombstone() {
+    EntityChangeEvent event = EntityChangeEvent.builder()
+        .entityType("shoes").entityId("7").changeType(ChangeType.DELETED)
+        .entity(Shoe.builder().id(7L).build()).timestamp(Instant.now()).build();
+    when(changeLogEntryRepository.save(any())).thenReturn(entry(43L, "7", ChangeType.DELETED));
+
+    changeLogService.record(event);
+
+    ArgumentCaptor<ChangeLogEntry> captor = ArgumentCaptor.forClass(ChangeLogEntry.class);
+    verify(changeLogEntryRepository).save(captor.capture());
+    assertNull(captor.getValue().getPayload());
+  }
+
+  @Test
+  void test_changesSince_keeps_latest_entry_per_id() {
+    ChangeLogEntry created = entry(11L, "7", ChangeType.CREATED);
+    ChangeLogEntry other = entry(12L, "8", ChangeType.CREATED);
+    ChangeLogEntry deleted = entry(13L, "7", ChangeType.DELETED);
+    when(changeLogEntryRepository.findByEntityTypeAndSeqGreaterThanAndTimestampBeforeOrderBySeqAsc(eq("shoes"), eq(10L), any(),
+        eq(PageRequest.of(0, 3))))
+        .thenReturn(List.of(created, other, deleted));
+
+    EntityChanges changes = changeLogService.changesSince("shoes", 10L, 3);
+
+    assertEquals(List.of(other, deleted), changes.getChanges());
+    assertEquals(13L, changes.getLatest());
+    assertTrue(changes.getHasMore());
+  }
+
+  @Test
+  void test_changesSince_with_nothing_new() {
+    when(changeLogEntryRepository.findByEntityTypeAndSeqGreaterThanAndTimestampBeforeOrderBySeqAsc(eq("shoes"), eq(10L), any(), any()))
+        .thenReturn(List.of());
+
+    EntityChanges changes = changeLogService.changesSince("shoes", 10L, 500);
+
+    assertEquals(10L, changes.getLatest());
+    assertFalse(changes.getHasMore());
+    assertTrue(changes.getChanges().isEmpty());
+  }
+}
@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.ChangeLogEntry;
+import edu.ucsb.cs156.example.entities.Shoe;
+import edu.ucsb.cs156.example.models.ChangeType;
+import edu.ucsb.cs156.example.models.EntityChangeEvent;
+import edu.ucsb.cs156.example.repositories.ChangeLogEntryRepository;
+import edu.ucsb.cs156.example.repositories.ShoeRepository;
+
+@DataJpaTest
+@ActiveProfiles("development")
+@Import({ ChangeLogService.class, ObjectMapper.class })
+// each test commits, or fails to, on its own
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChangeLogTransactionTests {
+
+  @Autowired
+  ShoeRepository shoeRepository;
+
+  @Autowired
+  ChangeLogEntryRepository changeLogEntryRepository;
+
+  @Autowired
+  ChangeLogService changeLogService;
+
+  @Autowired
+  ApplicationEventPublisher applicationEventPublisher;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void tearDown() {
+    changeLogEntryRepository.deleteAll();
+    shoeRepository.deleteAll();
+  }
+
+  // what ApiController.publishChange publishes
+  private EntityChangeEvent created(Object entity, Object id) {
+    return EntityChangeEvent.builder().entityType("shoes").entityId(String.valueOf(id))
+        .changeType(ChangeType.CREATED).entity(entity).timestamp(Instant.now()).build();
+  }
+
+  @Test
+  void the_entry_commits_with_the_change() {
+    EntityChangeEvent event = new TransactionTemplate(transactionManager).execute(status -> {
+      Shoe shoe = shoeRepository.save(Shoe.builder().name("Jordan").color("Red").brand("Nike").build());
+      EntityChangeEvent created = created(shoe, shoe.getId());
+      applicationEventPublisher.publishEvent(created);
+      return created;
+    });
+
+    List<ChangeLogEntry> entries = (List<ChangeLogEntry>) changeLogEntryRepository.findAll();
+    assertEquals(1, entries.size());
+    assertEquals(event.getEntityId(), entries.get(0).getEntityId());
+    assertEquals(entries.get(0).getSeq(), event.getSequence());
+
+    // too recent for delta sync yet: something with a lower seq could still commit
+    assertTrue(changeLogService.changesSince("shoes", 0, 10).getChanges().isEmpty());
+  }
+
+  @Test
+  void the_change_rolls_back_if_the_entry_cannot_be_written() {
+    assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager)
+        .executeWithoutResult(status -> {
+          Shoe shoe = shoeRepository.save(Shoe.builder().name("Jordan").color("Red").brand("Nike").build());
+          // not something Jackson can serialize
+          applicationEventPublisher.publishEvent(created(new Object(), shoe.getId()));
+        }));
+
+    assertEquals(0, shoeRepository.count());
+    assertEquals(0, changeLogEntryRepository.count());
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import edu.ucsb.cs156.example.errors.UnknownEntityTypeException;
+import edu.ucsb.cs156.example.models.GeneratedData;
+
+@DataJpaTest
+@ActiveProfiles("development")
+@Import(DataGeneratorService.class)
+class DataGeneratorServiceTests {
+
+  @Autowired
+  DataGeneratorService dataGeneratorService;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Test
+  void test_every_entity_type_loads_in_batches() {
+    for (String entityType : DataGeneratorService.entityTypes()) {
+      GeneratedData generated = dataGeneratorService.generate(entityType, 25, 7, 10, false);
+      Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + generated.getTable(), Long.class);
+      assertEquals(25L, count, entityType);
+    }
+  }
+
+  @Test
+  void test_same_seed_gives_same_rows() {
+    dataGeneratorService.generate("shoes", 50, 42, 16, false);
+    List<Map<String, Object>> first = jdbcTemplate.queryForList("SELECT name, color, brand FROM shoe ORDER BY id");
+
+    GeneratedData generated = dataGeneratorService.generate("shoes", 50, 42, 7, true);
+    List<Map<String, Object>> second = jdbcTemplate.queryForList("SELECT name, color, brand FROM shoe ORDER BY id");
+
+    assertEquals(50L, generated.getDeleted());
+    assertEquals(first, second);
+  }
+
+  @Test
+  void test_replacing_users_keeps_real_accounts() {
+    jdbcTemplate.update("INSERT INTO users (email, google_sub, email_verified, admin) VALUES (?, ?, ?, ?)",
+        "cgaucho@ucsb.edu", "115856948234298493496", true, true);
+    dataGeneratorService.generate("users", 20, 7, 10, false);
+
+    GeneratedData generated = dataGeneratorService.generate("users", 5, 8, 10, true);
+
+    assertEquals(20L, generated.getDeleted());
+    assertEquals(List.of("cgaucho@ucsb.edu"), jdbcTemplate.queryForList(
+        "SELECT email FROM users WHERE google_sub NOT LIKE 'generated-%'", String.class));
+    assertEquals(6L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+  }
+
+  @Test
+  void test_rejects_bad_arguments() {
+    assertThrows(UnknownEntityTypeException.class, () -> dataGeneratorService.generate("cats", 1, 1, 1, false));
+    assertThrows(IllegalArgumentException.class, () -> dataGeneratorService.generate("shoes", -1, 1, 1, false));
+    assertThrows(IllegalArgumentException.class, () -> dataGeneratorService.generate("shoes", 1, 1, 0, false));
+  }
+}
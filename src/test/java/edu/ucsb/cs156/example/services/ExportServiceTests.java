@@ -0,0 +1,116 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.Book;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.errors.UnknownEntityTypeException;
+import edu.ucsb.cs156.example.export.ColumnarReader;
+import edu.ucsb.cs156.example.export.ExportFormat;
+import edu.ucsb.cs156.example.repositories.BookRepository;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+
+@DataJpaTest
+@ActiveProfiles("development")
+@Import(ExportService.class)
+@TestPropertySource(properties = { "app.export.fetchSize=2", "app.export.rowGroupSize=2" })
+// the export reads in a transaction of its own, so the rows have to be committed
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExportServiceTests {
+
+  @Autowired
+  ExportService exportService;
+
+  @Autowired
+  RestaurantRepository restaurantRepository;
+
+  @Autowired
+  BookRepository bookRepository;
+
+  @AfterEach
+  void tearDown() {
+    restaurantRepository.deleteAll();
+    bookRepository.deleteAll();
+  }
+
+  @Test
+  void exports_restaurants_as_csv_in_id_order() throws IOException {
+    Restaurant freebirds = restaurantRepository.save(Restaurant.builder().name("Freebirds")
+        .description("Burritos, \"big\" ones").build());
+    Restaurant woodstocks = restaurantRepository.save(Restaurant.builder().name("Woodstocks")
+        .description(null).build());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long rows = exportService.export("Restaurant", ExportFormat.CSV, out);
+
+    assertEquals(2, rows);
+    assertEquals("id,name,description\n"
+        + freebirds.getId() + ",Freebirds,\"Burritos, \"\"big\"\" ones\"\n"
+        + woodstocks.getId() + ",Woodstocks,\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void exports_books_in_the_columnar_format() throws IOException {
+    Book dune = bookRepository.save(Book.builder().title("Dune").author("Frank Herbert").year("1965").build());
+    bookRepository.save(Book.builder().title("Emma").author("Jane Austen").year("1815").build());
+    Book ulysses = bookRepository.save(Book.builder().title("Ulysses").author("James Joyce").year("1922").build());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertEquals(3, exportService.export("books", ExportFormat.COLUMNAR, out));
+
+    ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals("year", reader.getColumns().get(3).getName());
+    List<Object[]> first = reader.nextRowGroup();
+    List<Object[]> second = reader.nextRowGroup();
+    assertEquals(null, reader.nextRowGroup());
+    assertEquals(2, first.size());
+    assertArrayEquals(new Object[] { dune.getId(), "Dune", "Frank Herbert", "1965" }, first.get(0));
+    assertArrayEquals(new Object[] { ulysses.getId(), "Ulysses", "James Joyce", "1922" }, second.get(0));
+  }
+
+  @Test
+  void a_failed_write_ends_the_export_without_finishing_it() {
+    for (int i = 0; i < 500; i++) {
+      restaurantRepository.save(Restaurant.builder().name("Restaurant " + i).description("x".repeat(200)).build());
+    }
+    // a client that goes away after 10 KB, which is while the rows are still being read
+    OutputStream out = new OutputStream() {
+      int written;
+
+      @Override
+      public void write(int b) throws IOException {
+        if (++written > 10_000) {
+          throw new IOException("Broken pipe");
+        }
+      }
+    };
+
+    IOException e = assertThrows(IOException.class, () -> exportService.export("Restaurant", ExportFormat.CSV, out));
+    assertEquals("Broken pipe", e.getMessage());
+  }
+
+  @Test
+  void only_some_entity_types_can_be_exported() {
+    assertThrows(UnknownEntityTypeException.class,
+        () -> exportService.export("users", ExportFormat.CSV, new ByteArrayOutputStream()));
+  }
+}
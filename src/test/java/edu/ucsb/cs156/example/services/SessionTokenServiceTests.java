@@ -0,0 +1,184 @@
+package edu.ucsb.cs156.example.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class SessionTokenServiceTests {
+
+  static final SecretKey KEY = SessionTokenService.key("0123456789abcdef0123456789abcdef", false);
+
+  /** A clock that only moves when told to. */
+  static class MovableClock extends Clock {
+    Instant now = Instant.parse("2022-01-03T00:00:00Z");
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
+
+  MovableClock clock = new MovableClock();
+  SessionTokenService service = new SessionTokenService(KEY, Duration.ofMinutes(30), Duration.ofHours(12), clock);
+
+  static OAuth2AuthenticationToken login() {
+    List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN",
+        "SCOPE_email");
+    DefaultOAuth2User user = new DefaultOAuth2User(authorities, Map.of(
+        "sub", "115856948234298493496",
+        "email", "cgaucho@ucsb.edu",
+        "email_verified", true,
+        "name", "Chris Gaucho",
+        "hd", "ucsb.edu",
+        "at_hash", "not kept"), "sub");
+    return new OAuth2AuthenticationToken(user, authorities, "google");
+  }
+
+  @Test
+  public void test_round_trip() {
+    String token = service.issue(login(), 42L);
+
+    Jwt jwt = service.verify(token).get();
+    OAuth2AuthenticationToken authentication = service.authentication(jwt);
+
+    assertEquals("115856948234298493496", authentication.getName());
+    assertEquals("google", authentication.getAuthorizedClientRegistrationId());
+    assertEquals(AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER", "SCOPE_email"),
+        List.copyOf(authentication.getAuthorities()));
+    assertEquals("cgaucho@ucsb.edu", authentication.getPrincipal().getAttribute("email"));
+    assertEquals(Boolean.TRUE, authentication.getPrincipal().getAttribute("email_verified"));
+    assertEquals(42L, ((Number) authentication.getPrincipal().getAttribute("uid")).longValue());
+    assertNull(authentication.getPrincipal().getAttribute("at_hash"));
+  }
+
+  @Test
+  public void test_rejects_tampered_and_foreign_tokens() {
+    String token = service.issue(login(), 42L);
+    String[] parts = token.split("\\.");
+    String tampered = parts[0] + "." + parts[1] + "x." + parts[2];
+
+    SessionTokenService other = new SessionTokenService(
+        SessionTokenService.key("another secret of 32 bytes or more", false), Duration.ofMinutes(30),
+        Duration.ofHours(12), clock);
+
+    assertEquals(Optional.empty(), service.verify(tampered));
+    assertEquals(Optional.empty(), service.verify("not a token"));
+    assertEquals(Optional.empty(), other.verify(token));
+  }
+
+  @Test
+  public void test_rejects_expired_tokens() {
+    String token = service.issue(login(), 42L);
+
+    clock.now = clock.now.plus(Duration.ofMinutes(31));
+
+    assertEquals(Optional.empty(), service.verify(token));
+  }
+
+  @Test
+  public void test_renews_after_half_the_lifetime_until_max_age() {
+    String token = service.issue(login(), 42L);
+
+    clock.now = clock.now.plus(Duration.ofMinutes(10));
+    assertEquals(Optional.empty(), service.renew(service.verify(token).get()));
+
+    // keep using it, renewing as we go, for just under 12 hours
+    for (int i = 0; i < 47; i++) {
+      clock.now = clock.now.plus(Duration.ofMinutes(15));
+      Optional<String> renewed = service.renew(service.verify(token).get());
+      assertTrue(renewed.isPresent(), "renewal " + i);
+      token = renewed.get();
+    }
+    assertEquals(42L, ((Number) service.verify(token).get().getClaim("uid")).longValue());
+
+    clock.now = clock.now.plus(Duration.ofMinutes(15));
+    assertEquals(Optional.empty(), service.renew(service.verify(token).get()));
+  }
+
+  @Test
+  public void test_sealed_data_is_not_a_session() {
+    byte[] data = "authorization request".getBytes(StandardCharsets.UTF_8);
+    String sealed = service.seal(data, Duration.ofMinutes(5));
+
+    assertArrayEquals(data, service.unseal(sealed).get());
+    assertEquals(Optional.empty(), service.verify(sealed));
+    assertEquals(Optional.empty(), service.unseal(service.issue(login(), 42L)));
+
+    clock.now = clock.now.plus(Duration.ofMinutes(6));
+    assertEquals(Optional.empty(), service.unseal(sealed));
+  }
+
+  @Test
+  public void test_short_secret_is_rejected() {
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> SessionTokenService.key("short", true));
+    assertEquals("app.session.jwt.secret must be at least 32 bytes for HS256, but is 5", e.getMessage());
+  }
+
+  @Test
+  public void test_missing_secret_is_rejected_unless_a_random_one_is_allowed() {
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> SessionTokenService.key("", false));
+    assertEquals("app.session.jwt.secret must be set when app.session.stateless=true, and the same on every instance",
+        e.getMessage());
+
+    SessionTokenService development = new SessionTokenService(SessionTokenService.key("", true),
+        Duration.ofMinutes(30), Duration.ofHours(12), clock);
+    assertTrue(development.verify(development.issue(login(), 42L)).isPresent());
+  }
+
+  @Test
+  public void test_current_user_comes_from_the_token_not_the_users_table() {
+    UserRepository userRepository = mock(UserRepository.class);
+    CurrentUserServiceImpl currentUserService = new CurrentUserServiceImpl();
+    ReflectionTestUtils.setField(currentUserService, "userRepository", userRepository);
+    String token = service.issue(login(), 42L);
+
+    SecurityContextHolder.getContext().setAuthentication(service.authentication(service.verify(token).get()));
+    try {
+      User user = currentUserService.getUser();
+
+      assertEquals(User.builder().id(42L).googleSub("115856948234298493496").email("cgaucho@ucsb.edu")
+          .fullName("Chris Gaucho").emailVerified(true).hostedDomain("ucsb.edu").admin(true).build(), user);
+      verifyNoInteractions(userRepository);
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+}
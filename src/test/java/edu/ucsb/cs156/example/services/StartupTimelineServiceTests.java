@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.StartupReport;
+import edu.ucsb.cs156.example.models.StartupStepTiming;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StartupTimelineServiceTests {
+
+  @Test
+  public void test_self_time_excludes_nested_steps() throws Exception {
+    BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+
+    StartupStep outer = startup.start("spring.beans.instantiate").tag("beanName", "outer");
+    StartupStep inner = startup.start("spring.beans.instantiate").tag("beanName", "inner");
+    Thread.sleep(50);
+    inner.end();
+    Thread.sleep(5);
+    outer.end();
+
+    StartupReport report = StartupTimelineService.summarize(startup.getBufferedTimeline(), 10);
+
+    assertTrue(report.getRecorded());
+    assertEquals(2, report.getStepsRecorded());
+    StartupStepTiming slowest = report.getSlowestSteps().get(0);
+    StartupStepTiming other = report.getSlowestSteps().get(1);
+    assertEquals("beanName=inner", slowest.getDetail());
+    assertEquals("beanName=outer", other.getDetail());
+    assertTrue(other.getTotalMillis() >= slowest.getTotalMillis());
+    assertTrue(other.getSelfMillis() < other.getTotalMillis() - 40);
+  }
+
+  @Test
+  public void test_limit() throws Exception {
+    BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+    for (int i = 0; i < 5; i++) {
+      startup.start("step").end();
+    }
+
+    StartupReport report = StartupTimelineService.summarize(startup.getBufferedTimeline(), 3);
+
+    assertEquals(5, report.getStepsRecorded());
+    assertEquals(3, report.getSlowestSteps().size());
+  }
+
+  @Test
+  public void test_not_recorded_without_buffering_startup() throws Exception {
+    StartupTimelineService service = new StartupTimelineService();
+    service.applicationContext = new GenericApplicationContext();
+
+    StartupReport report = service.getReport(10);
+
+    assertFalse(report.getRecorded());
+    assertTrue(report.getSlowestSteps().isEmpty());
+  }
+}
@@ -0,0 +1,146 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.UcsbBuilding;
+import edu.ucsb.cs156.example.models.ImportError;
+import edu.ucsb.cs156.example.models.ImportResult;
+import edu.ucsb.cs156.example.repositories.UcsbBuildingRepository;
+
+@DataJpaTest
+@ActiveProfiles("development")
+@Import({ UcsbBuildingImportService.class, ObjectMapper.class })
+@TestPropertySource(properties = "app.import.batchSize=2")
+// each batch commits, as it does outside tests
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UcsbBuildingImportServiceTests {
+
+  @Autowired
+  UcsbBuildingImportService importService;
+
+  @Autowired
+  UcsbBuildingRepository ucsbBuildingRepository;
+
+  private final List<String> changes = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    ucsbBuildingRepository.deleteAll();
+  }
+
+  private ImportResult importCsv(String csv) throws IOException {
+    return importService.importCsv(new StringReader(csv), (changeType, building, before) -> changes.add(
+        changeType + " " + building.getName() + (before == null ? "" : " from " + ((JsonNode) before).get("location").asText())));
+  }
+
+  private static String errors(ImportResult result) {
+    return result.getErrors().stream().map(ImportError::getLine).map(String::valueOf)
+        .collect(Collectors.joining(","));
+  }
+
+  @Test
+  void creates_and_updates_by_id_or_name() throws IOException {
+    UcsbBuilding library = ucsbBuildingRepository.save(UcsbBuilding.builder().name("Library")
+        .description("old").location("old place").build());
+    UcsbBuilding hall = ucsbBuildingRepository.save(UcsbBuilding.builder().name("Campbell Hall")
+        .location("Ocean Rd").build());
+
+    ImportResult result = importCsv("""
+        name,Location,id,description
+        Library,Davidson Library,,books
+        Renamed Hall,Ocean Road,%d,
+        Phelps Hall,Phelps Rd,,"classrooms, offices"
+        Phelps Hall,Phelps Road,,
+        """.formatted(hall.getId()));
+
+    assertTrue(result.getCompleted());
+    assertEquals(4, result.getRows());
+    assertEquals(1, result.getCreated());
+    assertEquals(2, result.getUpdated());
+    assertEquals(0, result.getFailed());
+    assertEquals(List.of("UPDATED Library from old place", "UPDATED Renamed Hall from Ocean Rd",
+        "CREATED Phelps Hall"), changes);
+
+    assertEquals(3, ucsbBuildingRepository.count());
+    UcsbBuilding updated = ucsbBuildingRepository.findById(library.getId()).get();
+    assertEquals("Davidson Library", updated.getLocation());
+    assertEquals("books", updated.getDescription());
+    assertEquals("Renamed Hall", ucsbBuildingRepository.findById(hall.getId()).get().getName());
+    UcsbBuilding phelps = ucsbBuildingRepository.findByNameIn(List.of("Phelps Hall")).get(0);
+    assertEquals("Phelps Road", phelps.getLocation());
+    assertNull(phelps.getDescription());
+  }
+
+  @Test
+  void bad_rows_are_reported_by_line_and_the_rest_are_imported() throws IOException {
+    ImportResult result = importCsv("""
+        id,name,location
+        ,North Hall,"on two
+        lines"
+        ,,nowhere
+        x,South Hall,
+        999999,Ghost Hall,
+        ,East Hall,here,extra
+
+        ,West Hall,there
+        """);
+
+    assertTrue(result.getCompleted());
+    assertEquals(6, result.getRows());
+    assertEquals(2, result.getCreated());
+    assertEquals(4, result.getFailed());
+    assertEquals("4,5,6,7", errors(result));
+    assertEquals("name is required", result.getErrors().get(0).getMessage());
+    assertEquals("there is no building with id 999999", result.getErrors().get(2).getMessage());
+    assertEquals("on two\nlines", ucsbBuildingRepository.findByNameIn(List.of("North Hall")).get(0).getLocation());
+  }
+
+  @Test
+  void csv_that_cannot_be_parsed_stops_the_import_but_keeps_what_was_saved() throws IOException {
+    ImportResult result = importCsv("name,location\nA,1\nB,2\nC,\"3\n");
+
+    assertFalse(result.getCompleted());
+    assertEquals(2, result.getCreated());
+    assertEquals(1, result.getFailed());
+    assertEquals(2, ucsbBuildingRepository.count());
+  }
+
+  @Test
+  void the_header_must_name_known_columns() {
+    assertThrows(IllegalArgumentException.class, () -> importCsv(""));
+    assertThrows(IllegalArgumentException.class, () -> importCsv("location\nsomewhere\n"));
+    assertThrows(IllegalArgumentException.class, () -> importCsv("name,colour\nA,red\n"));
+    assertThrows(IllegalArgumentException.class, () -> importCsv("name,name\nA,B\n"));
+  }
+
+  @Test
+  void changes_are_reported_only_once_each_batch_is_saved() throws IOException {
+    ImportResult result = importCsv("name\nA\nB\nC\n");
+
+    assertEquals(3, result.getCreated());
+    assertEquals(List.of("CREATED A", "CREATED B", "CREATED C"), changes);
+  }
+}